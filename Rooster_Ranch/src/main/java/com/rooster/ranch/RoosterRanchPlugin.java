@@ -1,12 +1,20 @@
 package com.rooster.ranch;
 
+import com.rooster.ranch.command.ExchangeCommand;
 import com.rooster.ranch.command.FarmCommand;
 import com.rooster.ranch.command.ProfessionCommand;
+import com.rooster.ranch.command.RanchCommand;
+import com.rooster.ranch.exchange.Exchange;
+import com.rooster.ranch.gui.MenuListener;
+import com.rooster.ranch.leaderboard.LeaderboardService;
 import com.rooster.ranch.manager.EconomyManager;
 import com.rooster.ranch.manager.FarmManager;
 import com.rooster.ranch.manager.MarketManager;
 import com.rooster.ranch.manager.ProfessionManager;
 import com.rooster.ranch.listener.PlayerListener;
+import com.rooster.ranch.storage.StorageBackend;
+import com.rooster.ranch.storage.StorageMigrator;
+import com.rooster.ranch.teleport.TeleportService;
 import org.bukkit.Bukkit;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -23,6 +31,10 @@ public class RoosterRanchPlugin extends JavaPlugin {
     private ProfessionManager professionManager;
     private FarmManager farmManager;
     private MarketManager marketManager;
+    private StorageBackend storage;
+    private TeleportService teleportService;
+    private LeaderboardService leaderboardService;
+    private Exchange exchange;
 
     public static RoosterRanchPlugin getInstance() {
         return instance;
@@ -33,34 +45,56 @@ public class RoosterRanchPlugin extends JavaPlugin {
         instance = this;
         // Load configs and ensure data folder exists
         saveDefaultConfig();
+        // Open the configured storage backend, copying YAML data into it the first time
+        storage = StorageBackend.open(this);
+        if (!StorageMigrator.migrateIfNeeded(this, storage)) {
+            // Starting on a half-filled backend would lose whatever was not copied
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
         // Initialize managers
-        economyManager = new EconomyManager(this);
-        professionManager = new ProfessionManager(this);
-        farmManager = new FarmManager(this, economyManager);
+        economyManager = new EconomyManager(this, storage);
+        professionManager = new ProfessionManager(this, storage);
+        teleportService = new TeleportService(this);
+        farmManager = new FarmManager(this, economyManager, storage, teleportService);
+        // Rank balances and farms once both managers have loaded their data
+        leaderboardService = new LeaderboardService(this, storage, economyManager, farmManager);
         // Initialize market manager after economy manager
         marketManager = new MarketManager(this, economyManager);
+        // Replay the exchange log; resting buy orders reserve their funds again
+        exchange = new Exchange(this, economyManager);
         // Create void worlds and copy schematics
         farmManager.createWorlds();
         farmManager.ensureSchematics();
-        // Paste market island
-        farmManager.pasteMarketIsland();
-        // Spawn market vendor in the market world
-        if (Bukkit.getWorld("rooster_market") != null) {
-            marketManager.spawnVendor(Bukkit.getWorld("rooster_market"));
-        }
+        // Paste market island, then spawn the market vendor on top of it
+        farmManager.pasteMarketIsland().thenRun(() -> {
+            if (Bukkit.getWorld("rooster_market") != null) {
+                marketManager.spawnVendor(Bukkit.getWorld("rooster_market"));
+            }
+        });
         // Start repeating tasks
         farmManager.startTasks();
         // Register commands
         PluginCommand farmCmd = getCommand("farm");
         if (farmCmd != null) {
-            farmCmd.setExecutor(new FarmCommand(farmManager, professionManager));
+            farmCmd.setExecutor(new FarmCommand(this, farmManager, professionManager, teleportService));
         }
         PluginCommand profCmd = getCommand("profession");
         if (profCmd != null) {
             profCmd.setExecutor(new ProfessionCommand(professionManager));
         }
+        PluginCommand ranchCmd = getCommand("ranch");
+        if (ranchCmd != null) {
+            ranchCmd.setExecutor(new RanchCommand(this, storage, farmManager, economyManager, professionManager,
+                    teleportService, leaderboardService));
+        }
+        PluginCommand exchangeCmd = getCommand("exchange");
+        if (exchangeCmd != null) {
+            exchangeCmd.setExecutor(new ExchangeCommand(this, exchange));
+        }
         // Register additional listeners
         new PlayerListener(this, professionManager);
+        new MenuListener(this);
         getLogger().info("Rooster_Ranch enabled successfully.");
     }
 
@@ -71,12 +105,19 @@ public class RoosterRanchPlugin extends JavaPlugin {
             farmManager.stopTasks();
             farmManager.saveFarms();
         }
+        // Settle the exchange while the economy can still take its payments
+        if (exchange != null) {
+            exchange.shutdown();
+        }
         if (economyManager != null) {
-            economyManager.saveEconomy();
+            economyManager.shutdown();
         }
         if (professionManager != null) {
             professionManager.saveProfessions();
         }
+        if (storage != null) {
+            storage.close();
+        }
         getLogger().info("Rooster_Ranch has been disabled.");
     }
 }
\ No newline at end of file
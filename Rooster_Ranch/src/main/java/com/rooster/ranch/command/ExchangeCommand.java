@@ -0,0 +1,201 @@
+package com.rooster.ranch.command;
+
+import com.rooster.ranch.economy.Ledger;
+import com.rooster.ranch.exchange.Exchange;
+import com.rooster.ranch.exchange.MatchingBenchmark;
+import com.rooster.ranch.exchange.OrderBook;
+import com.rooster.ranch.exchange.Side;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Handles the /exchange command through which players trade farm goods with
+ * each other. Supported subcommands:
+ *   buy    - place a buy order: material, amount and highest price per item.
+ *   sell   - place a sell order: material, amount and lowest price per item.
+ *   cancel - cancel one of your orders by id.
+ *   orders - list your open orders.
+ *   book   - show the best bids and asks of a material.
+ *   claim  - collect bought or returned items waiting in your stash.
+ *   stats  - show the size and matching latency of the exchange (admin).
+ *   bench  - time order matching on a synthetic book (admin).
+ * Orders are matched on the exchange thread, so their results arrive as
+ * messages a moment later.
+ */
+public class ExchangeCommand implements CommandExecutor {
+    private static final String ADMIN_PERMISSION = "rooster_ranch.admin";
+    private static final int BOOK_LEVELS = 5;
+
+    private final JavaPlugin plugin;
+    private final Exchange exchange;
+
+    public ExchangeCommand(JavaPlugin plugin, Exchange exchange) {
+        this.plugin = plugin;
+        this.exchange = exchange;
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (args.length == 0) {
+            sender.sendMessage("§eUsage: /exchange <buy|sell|cancel|orders|book|claim|stats|bench>");
+            return true;
+        }
+        String sub = args[0].toLowerCase();
+        if (sub.equals("stats")) {
+            if (!sender.hasPermission(ADMIN_PERMISSION)) {
+                sender.sendMessage("§cYou do not have permission to do that.");
+                return true;
+            }
+            sender.sendMessage("§6--- Exchange ---");
+            sender.sendMessage("§eResting orders: §f" + exchange.getRestingCount()
+                    + " §eOrders matched: §f" + exchange.getMatchCount());
+            sender.sendMessage(String.format("§eMatching: §flast %.3f ms §7| §fmax %.3f ms §7| §fbatch %.2f ms",
+                    exchange.getLastMatchMillis(), exchange.getMaxMatchMillis(), exchange.getLastBatchMillis()));
+            return true;
+        }
+        if (sub.equals("bench")) {
+            if (!sender.hasPermission(ADMIN_PERMISSION)) {
+                sender.sendMessage("§cYou do not have permission to do that.");
+                return true;
+            }
+            int resting;
+            int orders;
+            try {
+                resting = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+                orders = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+            } catch (NumberFormatException e) {
+                sender.sendMessage("§eUsage: /exchange bench [resting] [orders]");
+                return true;
+            }
+            if (resting < 0 || resting > 1000000 || orders < 100 || orders > 1000000) {
+                sender.sendMessage("§cResting orders must be 0-1000000 and timed orders 100-1000000.");
+                return true;
+            }
+            sender.sendMessage("§eMatching " + orders + " order(s) against " + resting + " resting...");
+            // Synthetic book only; the live exchange is not touched
+            Bukkit.getAsyncScheduler().runNow(plugin, task -> {
+                MatchingBenchmark.Result result = MatchingBenchmark.run(resting, orders);
+                sender.sendMessage("§6--- Matching Benchmark ---");
+                sender.sendMessage("§eResting: §f" + result.resting() + " §eTimed orders: §f" + result.orders()
+                        + " §eFills: §f" + result.fills());
+                sender.sendMessage(String.format("§eMatch time: §fmedian %.2f us §7| §fp99 %.2f us §7| §fmax %.2f us",
+                        result.median() / 1000.0, result.p99() / 1000.0, result.max() / 1000.0));
+            });
+            return true;
+        }
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage("Only players can use the exchange.");
+            return true;
+        }
+        switch (sub) {
+            case "buy", "sell" -> {
+                if (args.length < 4) {
+                    sender.sendMessage("§eUsage: /exchange " + sub + " <material> <amount> <price each>");
+                    return true;
+                }
+                Material material = Material.matchMaterial(args[1]);
+                if (material == null) {
+                    sender.sendMessage("§cUnknown material " + args[1] + ".");
+                    return true;
+                }
+                int amount;
+                long price;
+                try {
+                    amount = Integer.parseInt(args[2]);
+                    price = Ledger.toMinor(Double.parseDouble(args[3]));
+                } catch (NumberFormatException e) {
+                    sender.sendMessage("§cAmount must be a whole number and price a number of RC.");
+                    return true;
+                }
+                String error = sub.equals("buy")
+                        ? exchange.buy(player, material, amount, price)
+                        : exchange.sell(player, material, amount, price);
+                if (error != null) {
+                    sender.sendMessage("§c" + error);
+                }
+                return true;
+            }
+            case "cancel" -> {
+                if (args.length < 2) {
+                    sender.sendMessage("§eUsage: /exchange cancel <order id>");
+                    return true;
+                }
+                long id;
+                try {
+                    id = Long.parseLong(args[1].startsWith("#") ? args[1].substring(1) : args[1]);
+                } catch (NumberFormatException e) {
+                    sender.sendMessage("§cOrder id must be a number.");
+                    return true;
+                }
+                exchange.cancel(player.getUniqueId(), id);
+                return true;
+            }
+            case "orders" -> {
+                exchange.getOrders(player.getUniqueId()).thenAccept(orders -> {
+                    if (orders.isEmpty()) {
+                        player.sendMessage("§eYou have no open exchange orders.");
+                        return;
+                    }
+                    player.sendMessage("§6--- Your Orders ---");
+                    for (Exchange.OrderInfo order : orders) {
+                        player.sendMessage("§e#" + order.id() + " §f" + (order.side() == Side.BUY ? "Buy " : "Sell ")
+                                + order.remaining() + " " + order.material().name() + " §7at §f"
+                                + formatRc(order.price()) + " RC");
+                    }
+                });
+                return true;
+            }
+            case "book" -> {
+                if (args.length < 2) {
+                    sender.sendMessage("§eUsage: /exchange book <material>");
+                    return true;
+                }
+                Material material = Material.matchMaterial(args[1]);
+                if (material == null || !exchange.getMaterials().contains(material)) {
+                    sender.sendMessage("§c" + args[1] + " is not traded on the exchange. Traded: "
+                            + exchange.getMaterials().stream().map(Material::name).collect(Collectors.joining(", ")));
+                    return true;
+                }
+                exchange.getDepth(material, BOOK_LEVELS).thenAccept(depth -> {
+                    player.sendMessage("§6--- " + material.name() + " ---");
+                    showLevels(player, "§aBids", depth.bids());
+                    showLevels(player, "§cAsks", depth.asks());
+                });
+                return true;
+            }
+            case "claim" -> {
+                exchange.claim(player);
+                return true;
+            }
+            default -> {
+                sender.sendMessage("§cUnknown subcommand. Use buy, sell, cancel, orders, book or claim.");
+                return true;
+            }
+        }
+    }
+
+    private static void showLevels(Player player, String title, List<OrderBook.Level> levels) {
+        if (levels.isEmpty()) {
+            player.sendMessage(title + ": §7none");
+            return;
+        }
+        player.sendMessage(title + ":");
+        for (OrderBook.Level level : levels) {
+            player.sendMessage("  §f" + level.quantity() + " §7at §f" + formatRc(level.price()) + " RC §7("
+                    + level.orders() + (level.orders() == 1 ? " order)" : " orders)"));
+        }
+    }
+
+    private static String formatRc(long minor) {
+        return String.format("%.2f", Ledger.toRc(minor));
+    }
+}
@@ -2,14 +2,18 @@ package com.rooster.ranch.command;
 
 import com.rooster.ranch.farm.Farm;
 import com.rooster.ranch.manager.FarmManager;
+import com.rooster.ranch.teleport.TeleportService;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Handles the /farm command which lets players manage their island. Supported
@@ -20,15 +24,22 @@ import java.util.UUID;
  *   trust   - trust a player to build/interact on your farm.
  *   untrust - revoke trust from a player.
  *   visit   - teleport to another player's farm.
+ * Farms that are not in memory are loaded in the background; the command
+ * carries on on the player's thread once the farm is ready.
  */
 public class FarmCommand implements CommandExecutor {
 
+    private final JavaPlugin plugin;
     private final FarmManager farmManager;
     private final com.rooster.ranch.manager.ProfessionManager professionManager;
+    private final TeleportService teleportService;
 
-    public FarmCommand(FarmManager farmManager, com.rooster.ranch.manager.ProfessionManager professionManager) {
+    public FarmCommand(JavaPlugin plugin, FarmManager farmManager,
+                       com.rooster.ranch.manager.ProfessionManager professionManager, TeleportService teleportService) {
+        this.plugin = plugin;
         this.farmManager = farmManager;
         this.professionManager = professionManager;
+        this.teleportService = teleportService;
     }
 
     @Override
@@ -44,38 +55,43 @@ public class FarmCommand implements CommandExecutor {
         String sub = args[0].toLowerCase();
         switch (sub) {
             case "create" -> {
-                Farm farm = farmManager.getFarm(player.getUniqueId());
-                if (farm != null) {
-                    player.sendMessage("§cYou already have a farm! Use /farm home to go to it.");
-                    return true;
-                }
-                farmManager.createFarm(player);
-                // After creating a farm, prompt the player to choose a profession
-                professionManager.openProfessionGUI(player);
+                withFarm(player, player.getUniqueId(), farm -> {
+                    // A second /farm create may have finished while this one waited
+                    if (farm != null || farmManager.hasFarm(player.getUniqueId())) {
+                        player.sendMessage("§cYou already have a farm! Use /farm home to go to it.");
+                        return;
+                    }
+                    farmManager.createFarm(player);
+                    // After creating a farm, prompt the player to choose a profession
+                    professionManager.openProfessionGUI(player);
+                });
                 return true;
             }
             case "home" -> {
-                Farm farm = farmManager.getFarm(player.getUniqueId());
-                if (farm == null) {
-                    player.sendMessage("§cYou don't have a farm yet. Use /farm create.");
-                    return true;
-                }
-                player.teleport(farm.getCenter().clone().add(14.5, -9.0, -14.5));
-                player.sendMessage("§aTeleported to your farm.");
+                withFarm(player, player.getUniqueId(), farm -> {
+                    if (farm == null) {
+                        player.sendMessage("§cYou don't have a farm yet. Use /farm create.");
+                        return;
+                    }
+                    teleportService.teleport(player, farm.getCenter().clone().add(14.5, -9.0, -14.5)).thenAccept(arrived -> {
+                        if (arrived) player.sendMessage("§aTeleported to your farm.");
+                    });
+                });
                 return true;
             }
             case "info" -> {
-                Farm farm = farmManager.getFarm(player.getUniqueId());
-                if (farm == null) {
-                    player.sendMessage("§cYou don't have a farm yet. Use /farm create.");
-                    return true;
-                }
-                player.sendMessage("§6--- Farm Info ---");
-                player.sendMessage("§eLocation: §f" + farm.getCenter().getBlockX() + ", " + farm.getCenter().getBlockY() + ", " + farm.getCenter().getBlockZ());
-                player.sendMessage("§eUpkeep: §f" + String.format("%.0f%%", farm.getUpkeep()));
-                player.sendMessage("§eCrop Health: §f" + String.format("%.0f%%", farm.getCropHealth()));
-                player.sendMessage("§eAnimal Health: §f" + String.format("%.0f%%", farm.getAnimalHealth()));
-                player.sendMessage("§eWeeds: §f" + farm.getWeedCount());
+                withFarm(player, player.getUniqueId(), farm -> {
+                    if (farm == null) {
+                        player.sendMessage("§cYou don't have a farm yet. Use /farm create.");
+                        return;
+                    }
+                    player.sendMessage("§6--- Farm Info ---");
+                    player.sendMessage("§eLocation: §f" + farm.getCenter().getBlockX() + ", " + farm.getCenter().getBlockY() + ", " + farm.getCenter().getBlockZ());
+                    player.sendMessage("§eUpkeep: §f" + String.format("%.0f%%", farm.getUpkeep()));
+                    player.sendMessage("§eCrop Health: §f" + String.format("%.0f%%", farm.getCropHealth()));
+                    player.sendMessage("§eAnimal Health: §f" + String.format("%.0f%%", farm.getAnimalHealth()));
+                    player.sendMessage("§eWeeds: §f" + farm.getWeedCount());
+                });
                 return true;
             }
             case "trust" -> {
@@ -83,18 +99,21 @@ public class FarmCommand implements CommandExecutor {
                     player.sendMessage("§cUsage: /farm trust <player>");
                     return true;
                 }
-                Farm farm = farmManager.getFarm(player.getUniqueId());
-                if (farm == null) {
-                    player.sendMessage("§cYou don't have a farm yet. Use /farm create.");
-                    return true;
-                }
                 Player target = Bukkit.getPlayer(args[1]);
                 if (target == null || !target.isOnline()) {
                     player.sendMessage("§cThat player is not online.");
                     return true;
                 }
-                farm.trust(target.getUniqueId());
-                player.sendMessage("§aYou have trusted " + target.getName() + " on your farm.");
+                UUID targetId = target.getUniqueId();
+                String targetName = target.getName();
+                withFarm(player, player.getUniqueId(), farm -> {
+                    if (farm == null) {
+                        player.sendMessage("§cYou don't have a farm yet. Use /farm create.");
+                        return;
+                    }
+                    farm.trust(targetId);
+                    player.sendMessage("§aYou have trusted " + targetName + " on your farm.");
+                });
                 return true;
             }
             case "untrust" -> {
@@ -102,18 +121,21 @@ public class FarmCommand implements CommandExecutor {
                     player.sendMessage("§cUsage: /farm untrust <player>");
                     return true;
                 }
-                Farm farm = farmManager.getFarm(player.getUniqueId());
-                if (farm == null) {
-                    player.sendMessage("§cYou don't have a farm yet. Use /farm create.");
-                    return true;
-                }
                 Player target = Bukkit.getPlayer(args[1]);
                 if (target == null) {
                     player.sendMessage("§cThat player is not online.");
                     return true;
                 }
-                farm.untrust(target.getUniqueId());
-                player.sendMessage("§eYou have removed trust for " + target.getName() + ".");
+                UUID targetId = target.getUniqueId();
+                String targetName = target.getName();
+                withFarm(player, player.getUniqueId(), farm -> {
+                    if (farm == null) {
+                        player.sendMessage("§cYou don't have a farm yet. Use /farm create.");
+                        return;
+                    }
+                    farm.untrust(targetId);
+                    player.sendMessage("§eYou have removed trust for " + targetName + ".");
+                });
                 return true;
             }
             case "visit" -> {
@@ -126,13 +148,16 @@ public class FarmCommand implements CommandExecutor {
                     player.sendMessage("§cThat player is not online.");
                     return true;
                 }
-                Farm targetFarm = farmManager.getFarm(target.getUniqueId());
-                if (targetFarm == null) {
-                    player.sendMessage("§cThat player does not have a farm.");
-                    return true;
-                }
-                player.teleport(targetFarm.getCenter().clone().add(14.5, -9.0, -14.5));
-                player.sendMessage("§aTeleported to " + target.getName() + "'s farm.");
+                String targetName = target.getName();
+                withFarm(player, target.getUniqueId(), targetFarm -> {
+                    if (targetFarm == null) {
+                        player.sendMessage("§cThat player does not have a farm.");
+                        return;
+                    }
+                    teleportService.teleport(player, targetFarm.getCenter().clone().add(14.5, -9.0, -14.5)).thenAccept(arrived -> {
+                        if (arrived) player.sendMessage("§aTeleported to " + targetName + "'s farm.");
+                    });
+                });
                 return true;
             }
             case "market" -> {
@@ -144,8 +169,9 @@ public class FarmCommand implements CommandExecutor {
                 }
                 // Spawn point on the walkway near the market vendor. The height is one block
                 // above the path to avoid suffocation. Adjust if you change the schematic.
-                player.teleport(new org.bukkit.Location(market, 16.5, 94.0, -5.5));
-                player.sendMessage("§aTeleported to the market island.");
+                teleportService.teleport(player, new org.bukkit.Location(market, 16.5, 94.0, -5.5)).thenAccept(arrived -> {
+                    if (arrived) player.sendMessage("§aTeleported to the market island.");
+                });
                 return true;
             }
             case "help" -> {
@@ -166,4 +192,23 @@ public class FarmCommand implements CommandExecutor {
             }
         }
     }
+
+    /**
+     * Run an action with a farm on the player's thread. A farm in memory is
+     * handed over straight away; otherwise it is loaded in the background
+     * and the action runs on the player's scheduler once it is ready, or not
+     * at all if the player has left by then.
+     *
+     * @param player the player running the command
+     * @param owner  the owner of the farm
+     * @param action given the farm, or null if the owner has none
+     */
+    private void withFarm(Player player, UUID owner, Consumer<Farm> action) {
+        CompletableFuture<Farm> farm = farmManager.getFarmAsync(owner);
+        if (farm.isDone()) {
+            action.accept(farm.join());
+            return;
+        }
+        farm.thenAccept(loaded -> player.getScheduler().run(plugin, task -> action.accept(loaded), null));
+    }
 }
\ No newline at end of file
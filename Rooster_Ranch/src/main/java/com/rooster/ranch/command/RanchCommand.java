@@ -0,0 +1,356 @@
+package com.rooster.ranch.command;
+
+import com.rooster.ranch.economy.Journal;
+import com.rooster.ranch.economy.Ledger;
+import com.rooster.ranch.farm.GridBenchmark;
+import com.rooster.ranch.farm.IslandActivity;
+import com.rooster.ranch.farm.SimulationBenchmark;
+import com.rooster.ranch.leaderboard.LeaderboardService;
+import com.rooster.ranch.manager.EconomyManager;
+import com.rooster.ranch.manager.FarmManager;
+import com.rooster.ranch.manager.ProfessionManager;
+import com.rooster.ranch.storage.StorageBackend;
+import com.rooster.ranch.storage.StorageMigrator;
+import com.rooster.ranch.teleport.TeleportService;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+
+/**
+ * Handles the /ranch command which groups server-wide Rooster Ranch tools.
+ * Supported subcommands:
+ *   pool      - show the state of the pre-built island pool (admin).
+ *   release   - release the islands of players inactive for a number of days (admin).
+ *   teleports - show teleport counts and latency (admin).
+ *   islands   - show island activity states and held chunks (admin).
+ *   days      - show the daily farm simulation clock and backlog (admin).
+ *   simbench  - benchmark the farm state table against the per-farm loop (admin).
+ *   gridbench - benchmark island grid lookups against a scan over every farm (admin).
+ *   txlog     - show a player's recent balance changes from the economy journal (admin).
+ *   export    - write the storage backend's data out as YAML for debugging (admin).
+ *   baltop    - show a page of the richest players.
+ *   farmtop   - show a page of the healthiest farms.
+ */
+public class RanchCommand implements CommandExecutor {
+    private static final String ADMIN_PERMISSION = "rooster_ranch.admin";
+
+    private final JavaPlugin plugin;
+    private final StorageBackend storage;
+    private final FarmManager farmManager;
+    private final EconomyManager economyManager;
+    private final ProfessionManager professionManager;
+    private final TeleportService teleportService;
+    private final LeaderboardService leaderboardService;
+
+    public RanchCommand(JavaPlugin plugin, StorageBackend storage, FarmManager farmManager,
+                        EconomyManager economyManager, ProfessionManager professionManager,
+                        TeleportService teleportService, LeaderboardService leaderboardService) {
+        this.plugin = plugin;
+        this.storage = storage;
+        this.farmManager = farmManager;
+        this.economyManager = economyManager;
+        this.professionManager = professionManager;
+        this.teleportService = teleportService;
+        this.leaderboardService = leaderboardService;
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (args.length == 0) {
+            sender.sendMessage("§eUsage: /ranch <pool|release|teleports|islands|days|simbench|gridbench|txlog|export|baltop|farmtop>");
+            return true;
+        }
+        String sub = args[0].toLowerCase();
+        switch (sub) {
+            case "pool" -> {
+                if (!sender.hasPermission(ADMIN_PERMISSION)) {
+                    sender.sendMessage("§cYou do not have permission to do that.");
+                    return true;
+                }
+                long hits = farmManager.getPoolHits();
+                long misses = farmManager.getPoolMisses();
+                long total = hits + misses;
+                sender.sendMessage("§6--- Island Pool ---");
+                sender.sendMessage("§eReady: §f" + farmManager.getReadyIslandCount() + "/" + farmManager.getIslandPoolSize());
+                sender.sendMessage("§eBeing built: §f" + farmManager.getPendingIslandCount());
+                sender.sendMessage("§eHits: §f" + hits + " §eMisses: §f" + misses
+                        + (total > 0 ? String.format(" §7(%.0f%% hit rate)", hits * 100.0 / total) : ""));
+                sender.sendMessage("§eReleased slots: §f" + farmManager.getFreeSlotCount()
+                        + " §eBeing cleared: §f" + farmManager.getClearingIslandCount());
+                return true;
+            }
+            case "teleports" -> {
+                if (!sender.hasPermission(ADMIN_PERMISSION)) {
+                    sender.sendMessage("§cYou do not have permission to do that.");
+                    return true;
+                }
+                sender.sendMessage("§6--- Teleports ---");
+                sender.sendMessage("§eCompleted: §f" + teleportService.getCompletedCount()
+                        + " §eCancelled: §f" + teleportService.getCancelledCount());
+                sender.sendMessage(String.format("§eLatency: §favg %.1f ms §7| §fmax %.1f ms §7| §flast %.1f ms",
+                        teleportService.getAverageMillis(), teleportService.getMaxMillis(), teleportService.getLastMillis()));
+                return true;
+            }
+            case "islands" -> {
+                if (!sender.hasPermission(ADMIN_PERMISSION)) {
+                    sender.sendMessage("§cYou do not have permission to do that.");
+                    return true;
+                }
+                sender.sendMessage("§6--- Island Activity ---");
+                sender.sendMessage("§eActive: §f" + farmManager.getIslandCount(IslandActivity.ACTIVE)
+                        + " §eIdle: §f" + farmManager.getIslandCount(IslandActivity.IDLE)
+                        + " §eDormant: §f" + farmManager.getIslandCount(IslandActivity.DORMANT));
+                sender.sendMessage("§eChunks held: §f" + farmManager.getHeldChunkCount()
+                        + " §eLoaded in farm world: §f" + farmManager.getLoadedFarmChunkCount());
+                return true;
+            }
+            case "days" -> {
+                if (!sender.hasPermission(ADMIN_PERMISSION)) {
+                    sender.sendMessage("§cYou do not have permission to do that.");
+                    return true;
+                }
+                sender.sendMessage("§6--- Daily Simulation ---");
+                sender.sendMessage("§eDay: §f" + farmManager.getSimulationDay()
+                        + " §eFarm days run: §f" + farmManager.getDayRunCount());
+                sender.sendMessage("§eBacklog: §f" + farmManager.getDayBacklog()
+                        + " §7(max " + farmManager.getMaxDayBacklog() + ")");
+                sender.sendMessage(String.format("§eLast tick: §f%.2f ms", farmManager.getLastDayTickMillis()));
+                if (farmManager.isStateTableEnabled()) {
+                    sender.sendMessage(String.format("§eState table: §f%d farms, %d applied §7| §fcopy %.2f ms §7| §fparallel %.2f ms",
+                            farmManager.getLastTableRows(), farmManager.getLastTableApplied(),
+                            farmManager.getLastTableCopyMillis(), farmManager.getLastTableSimulateMillis()));
+                }
+                return true;
+            }
+            case "simbench" -> {
+                if (!sender.hasPermission(ADMIN_PERMISSION)) {
+                    sender.sendMessage("§cYou do not have permission to do that.");
+                    return true;
+                }
+                int farms;
+                int days;
+                try {
+                    farms = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+                    days = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+                } catch (NumberFormatException e) {
+                    sender.sendMessage("§eUsage: /ranch simbench [farms] [days]");
+                    return true;
+                }
+                if (farms < 1 || farms > 1000000 || days < 1 || days > 3650) {
+                    sender.sendMessage("§cFarms must be 1-1000000 and days 1-3650.");
+                    return true;
+                }
+                int chunkSize = Math.max(64, plugin.getConfig().getInt("daily-simulation.table-chunk-size", 4096));
+                sender.sendMessage("§eBenchmarking " + farms + " farm(s) over " + days + " day(s)...");
+                // Synthetic farms only; nothing in the running game is touched
+                Bukkit.getAsyncScheduler().runNow(plugin, task -> {
+                    SimulationBenchmark.Result result = SimulationBenchmark.run(farms, days, ForkJoinPool.commonPool(), chunkSize);
+                    sender.sendMessage("§6--- Simulation Benchmark ---");
+                    sender.sendMessage(String.format("§ePer-farm loop: §f%.2f ms", result.objectLoop() / 1_000_000.0));
+                    sender.sendMessage(String.format("§eState table: §f%.2f ms §7(copy in %.2f, parallel %.2f, copy out %.2f)",
+                            result.table() / 1_000_000.0, result.copyIn() / 1_000_000.0,
+                            result.simulate() / 1_000_000.0, result.copyOut() / 1_000_000.0));
+                    sender.sendMessage(result.identical() ? "§aBoth engines produced identical results."
+                            : "§cThe engines produced different results!");
+                });
+                return true;
+            }
+            case "gridbench" -> {
+                if (!sender.hasPermission(ADMIN_PERMISSION)) {
+                    sender.sendMessage("§cYou do not have permission to do that.");
+                    return true;
+                }
+                int lookups;
+                try {
+                    lookups = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+                } catch (NumberFormatException e) {
+                    sender.sendMessage("§eUsage: /ranch gridbench [lookups]");
+                    return true;
+                }
+                if (lookups < 100 || lookups > 100000) {
+                    sender.sendMessage("§cLookups must be 100-100000.");
+                    return true;
+                }
+                sender.sendMessage("§eTiming " + lookups + " location lookup(s) at each farm count...");
+                // Synthetic islands only; the live grid is not touched
+                Bukkit.getAsyncScheduler().runNow(plugin, task -> {
+                    List<GridBenchmark.Result> results = GridBenchmark.run(lookups);
+                    sender.sendMessage("§6--- Grid Lookup Benchmark ---");
+                    for (GridBenchmark.Result result : results) {
+                        sender.sendMessage(String.format("§e%d farms: §fgrid %.1f ns §7| §fscan %.1f ns §7per lookup (%d scanned)%s",
+                                result.farms(), result.gridPerLookup(), result.scanPerLookup(), result.scans(),
+                                result.identical() ? "" : " §c(different results!)"));
+                    }
+                });
+                return true;
+            }
+            case "release" -> {
+                if (!sender.hasPermission(ADMIN_PERMISSION)) {
+                    sender.sendMessage("§cYou do not have permission to do that.");
+                    return true;
+                }
+                if (args.length < 2) {
+                    sender.sendMessage("§eUsage: /ranch release <days>");
+                    return true;
+                }
+                int days;
+                try {
+                    days = Integer.parseInt(args[1]);
+                } catch (NumberFormatException e) {
+                    sender.sendMessage("§cDays must be a whole number.");
+                    return true;
+                }
+                if (days < 1) {
+                    sender.sendMessage("§cDays must be at least 1.");
+                    return true;
+                }
+                sender.sendMessage("§eLooking for players inactive for " + days + " day(s)...");
+                farmManager.releaseInactiveIslands(days).thenAccept(released ->
+                        sender.sendMessage("§aReleased " + released + " island(s) of players inactive for " + days
+                                + " day(s). Their areas are being cleared in the background."));
+                return true;
+            }
+            case "txlog" -> {
+                if (!sender.hasPermission(ADMIN_PERMISSION)) {
+                    sender.sendMessage("§cYou do not have permission to do that.");
+                    return true;
+                }
+                if (args.length < 2) {
+                    sender.sendMessage("§eUsage: /ranch txlog <player> [count]");
+                    return true;
+                }
+                OfflinePlayer target = Bukkit.getOfflinePlayerIfCached(args[1]);
+                if (target == null) {
+                    sender.sendMessage("§cUnknown player " + args[1] + ".");
+                    return true;
+                }
+                int count;
+                try {
+                    count = args.length > 2 ? Math.max(1, Math.min(100, Integer.parseInt(args[2]))) : 10;
+                } catch (NumberFormatException e) {
+                    sender.sendMessage("§cCount must be a whole number.");
+                    return true;
+                }
+                String name = target.getName() != null ? target.getName() : args[1];
+                // The journal is read from disk, so stay off the server threads
+                Bukkit.getAsyncScheduler().runNow(plugin, task -> {
+                    List<Journal.Entry> entries;
+                    try {
+                        entries = economyManager.getHistory(target.getUniqueId(), count);
+                    } catch (IOException e) {
+                        plugin.getLogger().severe("Failed to read the economy journal: " + e.getMessage());
+                        sender.sendMessage("§cCould not read the economy journal: " + e.getMessage());
+                        return;
+                    }
+                    if (entries.isEmpty()) {
+                        sender.sendMessage("§eNo recent transactions for " + name + ".");
+                        return;
+                    }
+                    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+                    sender.sendMessage("§6--- Transactions of " + name + " (newest first) ---");
+                    for (Journal.Entry entry : entries) {
+                        String other = "";
+                        if (entry.other() != null) {
+                            String otherName = Bukkit.getOfflinePlayer(entry.other()).getName();
+                            other = " §7(" + (entry.type() == Journal.TRANSFER_OUT ? "to " : "from ")
+                                    + (otherName != null ? otherName : entry.other().toString()) + ")";
+                        }
+                        sender.sendMessage(String.format("§7#%d %s §e%s §f%.2f RC §7-> §f%.2f RC%s",
+                                entry.seq(), format.format(new Date(entry.time())), Journal.typeName(entry.type()),
+                                Ledger.toRc(entry.amount()), Ledger.toRc(entry.balance()), other));
+                    }
+                });
+                return true;
+            }
+            case "baltop" -> {
+                showBoard(sender, args, "Richest Players", leaderboardService.getBalances(),
+                        score -> String.format("%.2f RC", Ledger.toRc(score)));
+                return true;
+            }
+            case "farmtop" -> {
+                showBoard(sender, args, "Healthiest Farms", leaderboardService.getFarms(),
+                        score -> String.format("%.1f%%", score / 100.0));
+                return true;
+            }
+            case "export" -> {
+                if (!sender.hasPermission(ADMIN_PERMISSION)) {
+                    sender.sendMessage("§cYou do not have permission to do that.");
+                    return true;
+                }
+                if (storage.isYaml()) {
+                    sender.sendMessage("§cData is already stored as YAML; export only applies to other backends.");
+                    return true;
+                }
+                sender.sendMessage("§eExporting storage...");
+                // Queue the latest farms where the periodic save runs, then save the rest off the
+                // server threads; the export reads the backend after every write queued before it
+                Bukkit.getGlobalRegionScheduler().execute(plugin, () -> {
+                    farmManager.flushFarms(false);
+                    Bukkit.getAsyncScheduler().runNow(plugin, task -> {
+                        economyManager.saveEconomy();
+                        professionManager.saveProfessions();
+                        StorageMigrator.export(plugin, storage).whenComplete((exportDir, error) -> {
+                            if (error != null) {
+                                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                        ? error.getCause() : error;
+                                plugin.getLogger().severe("Failed to export storage: " + cause.getMessage());
+                                sender.sendMessage("§cExport failed: " + cause.getMessage());
+                            } else {
+                                sender.sendMessage("§aExported storage to " + exportDir.getPath() + ".");
+                            }
+                        });
+                    });
+                });
+                return true;
+            }
+            default -> {
+                sender.sendMessage("§cUnknown subcommand. Use /ranch <pool|release|teleports|islands|days|simbench|gridbench|txlog|export|baltop|farmtop>.");
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Send one page of a leaderboard, followed by the sender's own rank if
+     * they are a ranked player.
+     */
+    private void showBoard(CommandSender sender, String[] args, String title, LeaderboardService.Board board,
+                           LongFunction<String> format) {
+        int page;
+        try {
+            page = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        } catch (NumberFormatException e) {
+            sender.sendMessage("§cPage must be a whole number.");
+            return;
+        }
+        int pages = board.pageCount();
+        page = Math.max(1, Math.min(pages, page));
+        sender.sendMessage("§6--- " + title + " (page " + page + "/" + pages + ") ---");
+        List<LeaderboardService.Row> rows = board.page(page - 1);
+        if (rows.isEmpty()) {
+            sender.sendMessage("§eNobody is ranked yet.");
+        }
+        for (LeaderboardService.Row row : rows) {
+            sender.sendMessage("§e#" + row.rank() + " §f" + row.name() + " §7- §f" + format.apply(row.score()));
+        }
+        if (sender instanceof Player player) {
+            int rank = board.rankOf(player.getUniqueId());
+            if (rank > 0) {
+                sender.sendMessage("§7Your rank: §f#" + rank + " §7of " + board.size());
+            }
+        }
+    }
+}
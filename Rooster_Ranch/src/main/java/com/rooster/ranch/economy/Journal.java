@@ -0,0 +1,428 @@
+package com.rooster.ranch.economy;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-ahead journal of balance changes ({@code economy.journal}). Every
+ * change is appended as a fixed-size record holding the account's balance
+ * after the change. Appending only copies the record into a memory buffer;
+ * a background writer thread writes everything buffered since its last pass
+ * in one go and forces it to disk once, so many changes share one fsync
+ * (group commit).
+ *
+ * Because records carry the resulting balance rather than a difference,
+ * replaying them is idempotent: applying the journal onto any snapshot
+ * that is at least as old as its first record gives the right balances.
+ * The caller must append the changes of one account in the order they
+ * happened. When the journal grows past a set number of records, the
+ * writer asks for a snapshot to be written and, once it succeeded, starts a
+ * new journal. The snapshot must be on disk when it reports success, since
+ * the previous journal is kept as {@code economy.journal.1} for history
+ * queries only and is never replayed.
+ *
+ * File layout (big-endian): a 16 byte header (int magic, short version,
+ * short unused, long sequence number of the first record) followed by
+ * {@value #RECORD_SIZE} byte records:
+ * <pre>
+ *   0  long    sequence number
+ *   8  long    time (epoch milliseconds)
+ *  16  byte    type
+ *  24  16 B    account UUID
+ *  40  16 B    other account of a transfer, zero otherwise
+ *  56  long    amount in minor units
+ *  64  long    balance after the change in minor units
+ * </pre>
+ */
+public class Journal {
+    public static final int MAGIC = 0x52524A4C; // "RRJL"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 72;
+
+    public static final byte DEPOSIT = 1;
+    public static final byte WITHDRAW = 2;
+    public static final byte TRANSFER_OUT = 3;
+    public static final byte TRANSFER_IN = 4;
+    public static final byte SET = 5;
+    public static final byte COMMIT = 6;
+
+    private static final UUID NONE = new UUID(0L, 0L);
+
+    private final File file;
+    private final File previous;
+    private final long commitIntervalMillis;
+    private final long compactRecords;
+    private final BooleanSupplier snapshot;
+    private final Logger logger;
+    private FileChannel channel;
+    // Records not yet written; appends fill one buffer while the writer drains the other
+    private ByteBuffer active = ByteBuffer.allocate(RECORD_SIZE * 1024);
+    private ByteBuffer draining = ByteBuffer.allocate(RECORD_SIZE * 1024);
+    private long nextSeq;
+    // Sequence number after the last record that survived the previous run
+    private long recoveredSeq;
+    // Records in the current file; only touched by whoever holds the write lock
+    private long fileRecords;
+    private final Object writeLock = new Object();
+    private Thread writer;
+    private volatile boolean running = false;
+    private volatile long lastCommitNanos = 0;
+
+    /**
+     * @param file                 the journal file
+     * @param commitIntervalMillis how long the writer waits between group commits
+     * @param compactRecords       journal length after which a snapshot is taken
+     * @param snapshot             writes every changed balance to the snapshot store and
+     *                             waits for it; returns false if that failed
+     * @param logger               where failures are reported
+     */
+    public Journal(@NotNull File file, long commitIntervalMillis, long compactRecords,
+                   @NotNull BooleanSupplier snapshot, @NotNull Logger logger) {
+        this.file = file;
+        this.previous = new File(file.getParentFile(), file.getName() + ".1");
+        this.commitIntervalMillis = Math.max(1L, commitIntervalMillis);
+        this.compactRecords = Math.max(1L, compactRecords);
+        this.snapshot = snapshot;
+        this.logger = logger;
+    }
+
+    /**
+     * Open the journal and read back every record in it, to be applied onto
+     * the last snapshot. A record cut short by a crash is dropped.
+     *
+     * @return the records in the journal, oldest first
+     * @throws IOException if the journal cannot be read or is not a journal
+     */
+    public @NotNull List<Entry> open() throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        List<Entry> entries = new ArrayList<>();
+        if (channel.size() < HEADER_SIZE) {
+            writeHeader(channel, 1L);
+            nextSeq = 1L;
+            recoveredSeq = nextSeq;
+            fileRecords = 0;
+            return entries;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION) {
+            throw new IOException(file.getName() + " is not a version " + VERSION + " economy journal");
+        }
+        nextSeq = header.getLong(8);
+        fileRecords = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE * 1024);
+        for (long read = 0; read < fileRecords; ) {
+            int count = (int) Math.min(1024, fileRecords - read);
+            records.clear().limit(count * RECORD_SIZE);
+            channel.read(records, HEADER_SIZE + read * RECORD_SIZE);
+            for (int i = 0; i < count; i++) {
+                Entry entry = readEntry(records, i * RECORD_SIZE);
+                entries.add(entry);
+                nextSeq = Math.max(nextSeq, entry.seq() + 1);
+            }
+            read += count;
+        }
+        // Cut off a partly written record so new records line up
+        channel.truncate(HEADER_SIZE + fileRecords * RECORD_SIZE);
+        recoveredSeq = nextSeq;
+        return entries;
+    }
+
+    /**
+     * @return the sequence number following the last record that was read
+     * back by {@link #open()}; records numbered from here on were not on
+     * disk when the journal was opened
+     */
+    public long getRecoveredSeq() {
+        return recoveredSeq;
+    }
+
+    /**
+     * @return the sequence number the next appended record will get
+     */
+    public synchronized long getNextSeq() {
+        return nextSeq;
+    }
+
+    /**
+     * Run an action while no group commit can start. Records appended by the
+     * action, or by anyone else meanwhile, reach disk only after it returned,
+     * so the action can first make something else durable that has to be on
+     * disk before them.
+     */
+    public void hold(@NotNull Runnable action) {
+        synchronized (writeLock) {
+            action.run();
+        }
+    }
+
+    /**
+     * Start the group commit thread.
+     */
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "Rooster_Ranch economy journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Append a change. Only copies the record into memory; it reaches disk
+     * with the next group commit.
+     *
+     * @param type    one of the record types
+     * @param account the account that changed
+     * @param other   the other account of a transfer, or null
+     * @param amount  the amount of the change in minor units
+     * @param balance the account's balance after the change in minor units
+     */
+    public void append(byte type, @NotNull UUID account, @Nullable UUID other, long amount, long balance) {
+        UUID counterpart = other != null ? other : NONE;
+        synchronized (this) {
+            if (active.remaining() < RECORD_SIZE) {
+                ByteBuffer grown = ByteBuffer.allocate(active.capacity() * 2);
+                active.flip();
+                grown.put(active);
+                active = grown;
+            }
+            active.putLong(nextSeq++)
+                    .putLong(System.currentTimeMillis())
+                    .put(type).put((byte) 0).putShort((short) 0).putInt(0)
+                    .putLong(account.getMostSignificantBits()).putLong(account.getLeastSignificantBits())
+                    .putLong(counterpart.getMostSignificantBits()).putLong(counterpart.getLeastSignificantBits())
+                    .putLong(amount)
+                    .putLong(balance);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(commitIntervalMillis);
+            } catch (InterruptedException e) {
+                // Woken up by close
+            }
+            try {
+                commit();
+                if (fileRecords >= compactRecords) {
+                    compact();
+                }
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to write the economy journal", e);
+            }
+        }
+    }
+
+    /**
+     * Write and fsync everything appended so far.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public void commit() throws IOException {
+        synchronized (writeLock) {
+            ByteBuffer batch;
+            synchronized (this) {
+                if (active.position() == 0) return;
+                batch = active;
+                active = draining;
+                draining = batch;
+            }
+            long start = System.nanoTime();
+            batch.flip();
+            int records = batch.remaining() / RECORD_SIZE;
+            long position = HEADER_SIZE + fileRecords * RECORD_SIZE;
+            while (batch.hasRemaining()) {
+                position += channel.write(batch, position);
+            }
+            channel.force(false);
+            batch.clear();
+            fileRecords += records;
+            lastCommitNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Commit, write a snapshot and, if it was stored, start a new journal.
+     * Records appended meanwhile go into the new journal.
+     *
+     * @return true if the snapshot was written
+     * @throws IOException if the journal cannot be written or rotated
+     */
+    public boolean compact() throws IOException {
+        synchronized (writeLock) {
+            commit();
+            // The snapshot covers every committed record; later ones stay buffered
+            if (!snapshot.getAsBoolean()) return false;
+            if (fileRecords == 0) return true;
+            channel.close();
+            Files.move(file.toPath(), previous.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            long firstSeq;
+            synchronized (this) {
+                firstSeq = nextSeq - active.position() / RECORD_SIZE;
+            }
+            writeHeader(channel, firstSeq);
+            channel.force(true);
+            // The new journal must not vanish with the records committed to it later
+            forceDirectory();
+            fileRecords = 0;
+            return true;
+        }
+    }
+
+    /**
+     * Force the journal's directory to disk, so the rotation survives a
+     * crash. Some platforms cannot open directories; there this does nothing.
+     */
+    private void forceDirectory() {
+        try (FileChannel directory = FileChannel.open(file.getAbsoluteFile().getParentFile().toPath(),
+                StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException ignored) {
+            // Not supported on this platform
+        }
+    }
+
+    /**
+     * Stop the writer thread, commit what is left and take a final snapshot.
+     */
+    public void close() {
+        if (channel == null) return;
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(5000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            compact();
+            channel.close();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to close the economy journal", e);
+        }
+    }
+
+    /**
+     * Read the most recent records of an account, newest first. The files
+     * are scanned backwards in blocks, so only as much of the journal is read
+     * as it takes to find them. Records still waiting for the next group
+     * commit are not included.
+     *
+     * @param account the account
+     * @param limit   maximum number of records
+     * @return the records found, newest first
+     * @throws IOException if a journal file cannot be read
+     */
+    public @NotNull List<Entry> history(@NotNull UUID account, int limit) throws IOException {
+        List<Entry> found = new ArrayList<>();
+        synchronized (writeLock) {
+            scanBackwards(channel, fileRecords, account, limit, found);
+        }
+        if (found.size() < limit && previous.exists()) {
+            try (FileChannel old = FileChannel.open(previous.toPath(), StandardOpenOption.READ)) {
+                scanBackwards(old, (old.size() - HEADER_SIZE) / RECORD_SIZE, account, limit, found);
+            }
+        }
+        return found;
+    }
+
+    private static void scanBackwards(FileChannel channel, long records, UUID account, int limit,
+                                      List<Entry> found) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(RECORD_SIZE * 512);
+        long end = records;
+        while (end > 0 && found.size() < limit) {
+            int count = (int) Math.min(512, end);
+            long start = end - count;
+            block.clear().limit(count * RECORD_SIZE);
+            channel.read(block, HEADER_SIZE + start * RECORD_SIZE);
+            for (int i = count - 1; i >= 0 && found.size() < limit; i--) {
+                int offset = i * RECORD_SIZE;
+                if (block.getLong(offset + 24) == account.getMostSignificantBits()
+                        && block.getLong(offset + 32) == account.getLeastSignificantBits()) {
+                    found.add(readEntry(block, offset));
+                }
+            }
+            end = start;
+        }
+    }
+
+    /**
+     * @return time the latest group commit took, in nanoseconds
+     */
+    public long getLastCommitNanos() {
+        return lastCommitNanos;
+    }
+
+    /**
+     * @return number of records in the current journal file
+     */
+    public long getFileRecords() {
+        synchronized (writeLock) {
+            return fileRecords;
+        }
+    }
+
+    /**
+     * @return a readable name for a record type
+     */
+    public static @NotNull String typeName(byte type) {
+        return switch (type) {
+            case DEPOSIT -> "deposit";
+            case WITHDRAW -> "withdraw";
+            case TRANSFER_OUT -> "transfer out";
+            case TRANSFER_IN -> "transfer in";
+            case SET -> "set";
+            case COMMIT -> "reserved spent";
+            default -> "unknown";
+        };
+    }
+
+    private static void writeHeader(FileChannel channel, long firstSeq) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(firstSeq).flip();
+        channel.write(header, 0);
+    }
+
+    private static Entry readEntry(ByteBuffer buffer, int offset) {
+        UUID other = new UUID(buffer.getLong(offset + 40), buffer.getLong(offset + 48));
+        return new Entry(buffer.getLong(offset), buffer.getLong(offset + 8), buffer.get(offset + 16),
+                new UUID(buffer.getLong(offset + 24), buffer.getLong(offset + 32)),
+                other.equals(NONE) ? null : other,
+                buffer.getLong(offset + 56), buffer.getLong(offset + 64));
+    }
+
+    /**
+     * One journal record.
+     *
+     * @param seq     sequence number
+     * @param time    time of the change in epoch milliseconds
+     * @param type    record type
+     * @param account the account that changed
+     * @param other   the other account of a transfer, or null
+     * @param amount  amount of the change in minor units
+     * @param balance balance after the change in minor units
+     */
+    public record Entry(long seq, long time, byte type, @NotNull UUID account, @Nullable UUID other,
+                        long amount, long balance) {
+    }
+}
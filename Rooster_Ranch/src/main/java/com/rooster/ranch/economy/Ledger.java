@@ -0,0 +1,178 @@
+package com.rooster.ranch.economy;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Player balances held as fixed-point minor units: one RC is
+ * {@link #MINOR_PER_RC} units, so amounts add up exactly. Each player has
+ * one account, created the first time money is put into it; after that
+ * every operation is a lookup plus a compare-and-set loop on the account's
+ * counters, so it allocates nothing and is safe from any thread.
+ *
+ * Besides its spendable balance an account can hold reserved funds. A
+ * reservation takes money out of the balance so it cannot be spent twice,
+ * and is later either committed (the money is gone) or released (the money
+ * returns to the balance). Reservations are not persisted: a saved balance
+ * includes the reserved amount, so pending reservations are refunded by a
+ * restart.
+ */
+public class Ledger {
+    /** Minor units per RC. */
+    public static final long MINOR_PER_RC = 100L;
+
+    private final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+
+    /**
+     * Convert RC to minor units, rounding to the nearest unit.
+     */
+    public static long toMinor(double rc) {
+        return Math.round(rc * MINOR_PER_RC);
+    }
+
+    /**
+     * Convert minor units to RC.
+     */
+    public static double toRc(long minor) {
+        return minor / (double) MINOR_PER_RC;
+    }
+
+    /**
+     * @return the spendable balance of a player, excluding reserved funds
+     */
+    public long balance(@NotNull UUID uuid) {
+        Account account = accounts.get(uuid);
+        return account != null ? account.balance.get() : 0L;
+    }
+
+    /**
+     * @return the funds currently reserved from a player's account
+     */
+    public long reserved(@NotNull UUID uuid) {
+        Account account = accounts.get(uuid);
+        return account != null ? account.reserved.get() : 0L;
+    }
+
+    /**
+     * @return the players that have an account
+     */
+    public @NotNull Set<UUID> accounts() {
+        return accounts.keySet();
+    }
+
+    /**
+     * Overwrite a player's spendable balance. Reserved funds are untouched.
+     */
+    public void set(@NotNull UUID uuid, long amount) {
+        account(uuid).balance.set(Math.max(0L, amount));
+    }
+
+    /**
+     * Add money to a player's balance, saturating instead of overflowing.
+     *
+     * @return true if the amount was positive and added
+     */
+    public boolean deposit(@NotNull UUID uuid, long amount) {
+        if (amount <= 0) return false;
+        AtomicLong balance = account(uuid).balance;
+        long current;
+        long next;
+        do {
+            current = balance.get();
+            next = current + amount;
+            if (next < current) next = Long.MAX_VALUE;
+        } while (!balance.compareAndSet(current, next));
+        return true;
+    }
+
+    /**
+     * Take money from a player's balance if it covers the amount.
+     *
+     * @return true if the amount was positive and taken
+     */
+    public boolean withdraw(@NotNull UUID uuid, long amount) {
+        if (amount <= 0) return false;
+        Account account = accounts.get(uuid);
+        return account != null && take(account.balance, amount);
+    }
+
+    /**
+     * Move money between two players. The amount leaves the sender's balance
+     * atomically and is then credited to the receiver, so it is never lost
+     * or created, though another thread may briefly see it in neither
+     * account.
+     *
+     * @return true if the sender could cover the amount
+     */
+    public boolean transfer(@NotNull UUID from, @NotNull UUID to, long amount) {
+        if (from.equals(to) || !withdraw(from, amount)) return false;
+        deposit(to, amount);
+        return true;
+    }
+
+    /**
+     * Move money from a player's balance into their reserved funds if the
+     * balance covers it. The reservation must later be committed or
+     * released with the same amount.
+     *
+     * @return true if the amount was reserved
+     */
+    public boolean tryReserve(@NotNull UUID uuid, long amount) {
+        if (amount <= 0) return false;
+        Account account = accounts.get(uuid);
+        if (account == null || !take(account.balance, amount)) return false;
+        account.reserved.addAndGet(amount);
+        return true;
+    }
+
+    /**
+     * Spend reserved funds: they leave the account for good.
+     *
+     * @return true if at least that much was reserved
+     */
+    public boolean commit(@NotNull UUID uuid, long amount) {
+        if (amount <= 0) return false;
+        Account account = accounts.get(uuid);
+        return account != null && take(account.reserved, amount);
+    }
+
+    /**
+     * Return reserved funds to the player's balance.
+     *
+     * @return true if at least that much was reserved
+     */
+    public boolean release(@NotNull UUID uuid, long amount) {
+        if (amount <= 0) return false;
+        Account account = accounts.get(uuid);
+        if (account == null || !take(account.reserved, amount)) return false;
+        deposit(uuid, amount);
+        return true;
+    }
+
+    private Account account(UUID uuid) {
+        Account account = accounts.get(uuid);
+        return account != null ? account : accounts.computeIfAbsent(uuid, key -> new Account());
+    }
+
+    private static boolean take(AtomicLong counter, long amount) {
+        long current;
+        do {
+            current = counter.get();
+            if (current < amount) return false;
+        } while (!counter.compareAndSet(current, current - amount));
+        return true;
+    }
+
+    /**
+     * One player's counters, in minor units.
+     */
+    private static final class Account {
+        private final AtomicLong balance = new AtomicLong();
+        private final AtomicLong reserved = new AtomicLong();
+    }
+}
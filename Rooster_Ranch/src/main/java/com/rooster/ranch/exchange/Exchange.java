@@ -0,0 +1,758 @@
+package com.rooster.ranch.exchange;
+
+import com.rooster.ranch.economy.Ledger;
+import com.rooster.ranch.manager.EconomyManager;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+
+/**
+ * A limit order exchange where players trade farm goods with each other.
+ * Every material has its own {@link OrderBook}; orders are matched by
+ * price, then age, and trade at the resting order's price.
+ *
+ * Placing an order escrows what it offers: a buy order reserves its full
+ * price in the player's ledger account, a sell order takes the items out
+ * of their inventory. Trades settle from the escrow, so they never fail:
+ * the buyer's reservation is spent (and any price improvement released),
+ * the seller is paid, and the bought items go to the buyer's stash.
+ * Cancelled orders return their escrow the same way.
+ *
+ * All books and stashes belong to one exchange thread. Other threads only
+ * queue work for it; the thread runs whatever is queued as one batch, logs
+ * the batch to the {@link ExchangeLog} with a single fsync and then hands
+ * the results (messages and stashed items) to each affected player on
+ * their own next tick. The payments of a batch's trades are made while the
+ * economy journal is held, so they reach disk only after the trades did;
+ * trades replayed without their payments are paid again on startup. Items
+ * are moved into an inventory only on the owning player's thread, and only
+ * as many as fit; the rest stays in the stash until {@code /exchange claim}
+ * or the next login.
+ */
+public class Exchange implements Listener {
+    private final JavaPlugin plugin;
+    private final EconomyManager economyManager;
+    private final ExchangeLog log;
+    private final Set<Material> materials = EnumSet.noneOf(Material.class);
+    private final int maxOrders;
+    private final int maxQuantity;
+    private final long compactRecords;
+    private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+    // Everything below up to the statistics is only touched by the exchange thread
+    private final Map<Material, OrderBook> books = new EnumMap<>(Material.class);
+    private final Map<Long, Order> orders = new LinkedHashMap<>();
+    private final Map<UUID, Integer> orderCounts = new HashMap<>();
+    private final Map<UUID, Map<Material, Integer>> stash = new HashMap<>();
+    private final Map<UUID, List<String>> notices = new LinkedHashMap<>();
+    // Players whose stash grew in the current batch; only they are claimed for automatically
+    private final Set<UUID> stashed = new HashSet<>();
+    private final List<OrderBook.Fill> fills = new ArrayList<>();
+    private final List<Delivery> deliveries = new ArrayList<>();
+    private final List<Payment> payments = new ArrayList<>();
+    private long nextId = 1L;
+    private Thread thread;
+    private volatile boolean running = false;
+    private volatile int restingCount = 0;
+    private volatile long matchCount = 0;
+    private volatile long lastMatchNanos = 0;
+    private volatile long maxMatchNanos = 0;
+    private volatile long lastBatchNanos = 0;
+
+    /**
+     * Resting orders at the best prices of one material.
+     *
+     * @param bids buy levels, highest price first
+     * @param asks sell levels, lowest price first
+     */
+    public record Depth(@NotNull List<OrderBook.Level> bids, @NotNull List<OrderBook.Level> asks) {
+    }
+
+    /**
+     * A copy of a resting order, safe to read on any thread.
+     */
+    public record OrderInfo(long id, @NotNull Side side, @NotNull Material material, long price, int remaining) {
+    }
+
+    public Exchange(@NotNull JavaPlugin plugin, @NotNull EconomyManager economyManager) {
+        this.plugin = plugin;
+        this.economyManager = economyManager;
+        FileConfiguration config = plugin.getConfig();
+        for (String name : config.getStringList("exchange.materials")) {
+            Material material = Material.matchMaterial(name);
+            if (material == null || !material.isItem()) {
+                plugin.getLogger().warning("Ignoring unknown exchange material " + name + ".");
+                continue;
+            }
+            materials.add(material);
+        }
+        this.maxOrders = Math.max(1, config.getInt("exchange.max-orders-per-player", 20));
+        this.maxQuantity = Math.max(1, config.getInt("exchange.max-quantity", 2304));
+        this.compactRecords = Math.max(100L, config.getLong("exchange.compact-records", 10000L));
+        this.log = new ExchangeLog(new File(plugin.getDataFolder(), "exchange.log"), plugin.getLogger());
+        if (!load()) {
+            plugin.getLogger().severe("The exchange is disabled until its log can be read.");
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "Rooster_Ranch exchange");
+        thread.setDaemon(true);
+        thread.start();
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+    }
+
+    /**
+     * Replay the log, reserve the funds of resting buy orders again and
+     * compact the log. Runs before the exchange thread starts.
+     *
+     * @return false if the log could not be read
+     */
+    private boolean load() {
+        long recoveredSeq = economyManager.getRecoveredJournalSeq();
+        List<Payment> unpaid = new ArrayList<>();
+        try {
+            nextId = log.open(new ExchangeLog.Handler() {
+                @Override
+                public void place(@NotNull Order order) {
+                    if (order.getRemaining() <= 0) return;
+                    addResting(order);
+                }
+
+                @Override
+                public void fill(long buyId, long sellId, long price, int quantity) {
+                    Order buy = orders.get(buyId);
+                    Order sell = orders.get(sellId);
+                    if (buy != null && sell != null) {
+                        unpaid.add(new Payment(buy.getOwner(), sell.getOwner(), price * quantity));
+                    }
+                    reduce(buy, quantity);
+                    reduce(sell, quantity);
+                }
+
+                @Override
+                public void settle(long journalSeq) {
+                    // Journal commits are in order, so earlier batches are paid too
+                    if (journalSeq <= recoveredSeq) unpaid.clear();
+                }
+
+                @Override
+                public void cancel(long id) {
+                    Order order = orders.get(id);
+                    if (order != null) removeResting(order);
+                }
+
+                @Override
+                public void stash(@NotNull UUID owner, @NotNull Material material, int quantity) {
+                    stash.computeIfAbsent(owner, key -> new EnumMap<>(Material.class)).merge(material, quantity, Integer::sum);
+                }
+
+                @Override
+                public void claim(@NotNull UUID owner, @NotNull Material material, int quantity) {
+                    Map<Material, Integer> owed = stash.get(owner);
+                    if (owed == null) return;
+                    owed.computeIfPresent(material, (key, held) -> held > quantity ? held - quantity : null);
+                    if (owed.isEmpty()) stash.remove(owner);
+                }
+            });
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to replay the exchange log", e);
+            return false;
+        }
+        if (!unpaid.isEmpty()) {
+            // The crash came after the trades were logged but before their payments were
+            for (Payment payment : unpaid) {
+                if (!economyManager.withdrawMinor(payment.buyer(), payment.amount())) {
+                    plugin.getLogger().warning("Could not charge " + payment.buyer() + " " + formatRc(payment.amount())
+                            + " RC for an exchange trade lost in a crash.");
+                }
+                economyManager.depositMinor(payment.seller(), payment.amount());
+            }
+            plugin.getLogger().warning("Paid " + unpaid.size() + " exchange trade(s) whose payments were lost in a crash.");
+        }
+        // Reservations do not survive a restart; the funds are back in the balances
+        for (Iterator<Order> it = orders.values().iterator(); it.hasNext(); ) {
+            Order order = it.next();
+            if (order.getSide() != Side.BUY) continue;
+            if (!economyManager.tryReserve(order.getOwner(), order.getPrice() * order.getRemaining())) {
+                plugin.getLogger().warning("Dropped exchange order #" + order.getId() + " of " + order.getOwner()
+                        + ": its funds could not be reserved again.");
+                books.get(order.getMaterial()).remove(order);
+                orderCounts.merge(order.getOwner(), -1, (a, b) -> a + b > 0 ? a + b : null);
+                it.remove();
+            }
+        }
+        restingCount = orders.size();
+        compact();
+        if (!orders.isEmpty() || !stash.isEmpty()) {
+            plugin.getLogger().info("Loaded " + orders.size() + " exchange order(s) and the stashes of "
+                    + stash.size() + " player(s).");
+        }
+        return true;
+    }
+
+    /**
+     * Stop the exchange thread after it finished the queued work, then
+     * compact and close the log. Called when the plugin is disabled, before
+     * the economy is shut down.
+     */
+    public void shutdown() {
+        if (thread == null) return;
+        queue.add(() -> running = false);
+        try {
+            thread.join(5000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            plugin.getLogger().severe("The exchange thread did not stop; its last changes may be lost.");
+            thread = null;
+            return;
+        }
+        thread = null;
+        // Work queued after the exchange thread stopped, such as the returns of
+        // claims for players who were kicked
+        for (Runnable task; (task = queue.poll()) != null; ) {
+            task.run();
+        }
+        deliveries.forEach(this::unclaim);
+        deliveries.clear();
+        notices.clear();
+        stashed.clear();
+        commitBatch();
+        compact();
+        try {
+            log.close();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to close the exchange log", e);
+        }
+    }
+
+    /**
+     * @return the materials that can be traded
+     */
+    public @NotNull Set<Material> getMaterials() {
+        return Collections.unmodifiableSet(materials);
+    }
+
+    /**
+     * @return the largest quantity of one order
+     */
+    public int getMaxQuantity() {
+        return maxQuantity;
+    }
+
+    /**
+     * Place a buy order. The full price is reserved from the player's balance
+     * straight away; the order is matched on the exchange thread. Must be
+     * called on the player's thread.
+     *
+     * @param price limit price per item in minor units
+     * @return an error message, or null if the order was queued
+     */
+    public @Nullable String buy(@NotNull Player player, @NotNull Material material, int quantity, long price) {
+        String error = validate(material, quantity, price);
+        if (error != null) return error;
+        UUID owner = player.getUniqueId();
+        if (!economyManager.tryReserve(owner, price * quantity)) {
+            return "You do not have enough RC for that order.";
+        }
+        long time = System.currentTimeMillis();
+        queue.add(() -> place(new Order(nextId++, time, owner, Side.BUY, material, price, quantity)));
+        return null;
+    }
+
+    /**
+     * Place a sell order. The items are taken out of the player's inventory
+     * straight away; the order is matched on the exchange thread. Only items
+     * without custom meta are taken. Must be called on the player's thread.
+     *
+     * @param price limit price per item in minor units
+     * @return an error message, or null if the order was queued
+     */
+    public @Nullable String sell(@NotNull Player player, @NotNull Material material, int quantity, long price) {
+        String error = validate(material, quantity, price);
+        if (error != null) return error;
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getStorageContents();
+        int held = 0;
+        for (ItemStack item : contents) {
+            if (item != null && item.getType() == material && !item.hasItemMeta()) {
+                held += item.getAmount();
+            }
+        }
+        if (held < quantity) {
+            return "You only have " + held + " " + material.name() + ".";
+        }
+        int left = quantity;
+        for (int slot = 0; slot < contents.length && left > 0; slot++) {
+            ItemStack item = contents[slot];
+            if (item == null || item.getType() != material || item.hasItemMeta()) continue;
+            int take = Math.min(left, item.getAmount());
+            left -= take;
+            if (take == item.getAmount()) {
+                inventory.setItem(slot, null);
+            } else {
+                item.setAmount(item.getAmount() - take);
+                inventory.setItem(slot, item);
+            }
+        }
+        UUID owner = player.getUniqueId();
+        long time = System.currentTimeMillis();
+        queue.add(() -> place(new Order(nextId++, time, owner, Side.SELL, material, price, quantity)));
+        return null;
+    }
+
+    private @Nullable String validate(Material material, int quantity, long price) {
+        if (!running) return "The exchange is closed.";
+        if (!materials.contains(material)) return material.name() + " is not traded on the exchange.";
+        if (quantity < 1 || quantity > maxQuantity) return "Quantity must be 1-" + maxQuantity + ".";
+        if (price < 1 || price > Ledger.toMinor(1_000_000.0)) return "Price must be 0.01-1000000 RC.";
+        return null;
+    }
+
+    /**
+     * Cancel one of a player's orders; its escrow is returned.
+     */
+    public void cancel(@NotNull UUID owner, long id) {
+        if (!running) return;
+        queue.add(() -> {
+            Order order = orders.get(id);
+            if (order == null || !order.getOwner().equals(owner)) {
+                notice(owner, "§cYou have no open exchange order #" + id + ".");
+                return;
+            }
+            removeResting(order);
+            log.cancel(id);
+            refund(order);
+            notice(owner, "§eCancelled order #" + id + ".");
+        });
+    }
+
+    /**
+     * @return the player's resting orders, oldest first
+     */
+    public @NotNull CompletableFuture<List<OrderInfo>> getOrders(@NotNull UUID owner) {
+        CompletableFuture<List<OrderInfo>> result = new CompletableFuture<>();
+        if (!running) return CompletableFuture.completedFuture(List.of());
+        queue.add(() -> {
+            List<OrderInfo> found = new ArrayList<>();
+            for (Order order : orders.values()) {
+                if (order.getOwner().equals(owner)) {
+                    found.add(new OrderInfo(order.getId(), order.getSide(), order.getMaterial(), order.getPrice(),
+                            order.getRemaining()));
+                }
+            }
+            result.complete(found);
+        });
+        return result;
+    }
+
+    /**
+     * @return the best price levels of a material's book
+     */
+    public @NotNull CompletableFuture<Depth> getDepth(@NotNull Material material, int levels) {
+        CompletableFuture<Depth> result = new CompletableFuture<>();
+        if (!running) return CompletableFuture.completedFuture(new Depth(List.of(), List.of()));
+        queue.add(() -> {
+            OrderBook book = books.get(material);
+            result.complete(book == null ? new Depth(List.of(), List.of())
+                    : new Depth(book.levels(Side.BUY, levels), book.levels(Side.SELL, levels)));
+        });
+        return result;
+    }
+
+    /**
+     * Move stashed items into a player's inventory. The free space is counted
+     * here, the items are taken from the stash on the exchange thread and
+     * handed back to the player's thread, where they are added. Must be
+     * called on the player's thread.
+     */
+    public void claim(@NotNull Player player) {
+        if (!running) return;
+        PlayerInventory inventory = player.getInventory();
+        int emptySlots = 0;
+        Map<Material, Integer> room = new EnumMap<>(Material.class);
+        for (ItemStack item : inventory.getStorageContents()) {
+            if (item == null || item.getType().isAir()) {
+                emptySlots++;
+            } else if (!item.hasItemMeta() && item.getAmount() < item.getMaxStackSize()) {
+                room.merge(item.getType(), item.getMaxStackSize() - item.getAmount(), Integer::sum);
+            }
+        }
+        UUID owner = player.getUniqueId();
+        int free = emptySlots;
+        queue.add(() -> {
+            Map<Material, Integer> owed = stash.get(owner);
+            if (owed == null) return;
+            Map<Material, Integer> taken = new EnumMap<>(Material.class);
+            int slots = free;
+            for (Iterator<Map.Entry<Material, Integer>> it = owed.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<Material, Integer> entry = it.next();
+                Material material = entry.getKey();
+                int stack = material.getMaxStackSize();
+                int fits = room.getOrDefault(material, 0);
+                int want = entry.getValue();
+                if (want > fits && slots > 0) {
+                    int extraSlots = Math.min(slots, (want - fits + stack - 1) / stack);
+                    slots -= extraSlots;
+                    fits += extraSlots * stack;
+                }
+                int take = Math.min(want, fits);
+                if (take <= 0) continue;
+                taken.put(material, take);
+                log.claim(owner, material, take);
+                if (take == want) {
+                    it.remove();
+                } else {
+                    entry.setValue(want - take);
+                }
+            }
+            boolean left = !owed.isEmpty();
+            if (!left) stash.remove(owner);
+            if (taken.isEmpty()) {
+                notice(owner, "§cYour inventory is full; use /exchange claim once you have room.");
+                return;
+            }
+            // Handed over once the claim is on disk
+            deliveries.add(new Delivery(owner, taken, left));
+        });
+    }
+
+    /**
+     * @return number of resting orders over all books
+     */
+    public int getRestingCount() {
+        return restingCount;
+    }
+
+    /**
+     * @return number of orders matched since startup
+     */
+    public long getMatchCount() {
+        return matchCount;
+    }
+
+    /**
+     * @return time spent matching the latest order, in milliseconds
+     */
+    public double getLastMatchMillis() {
+        return lastMatchNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return the longest time spent matching one order, in milliseconds
+     */
+    public double getMaxMatchMillis() {
+        return maxMatchNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return time spent on the latest batch including the log commit, in milliseconds
+     */
+    public double getLastBatchMillis() {
+        return lastBatchNanos / 1_000_000.0;
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        // Give the rest of the login a moment before filling the inventory
+        player.getScheduler().runDelayed(plugin, task -> claim(player), null, 40L);
+    }
+
+    /**
+     * Work handed back to a player's own thread after the batch that made
+     * it has been committed.
+     */
+    private record Delivery(@NotNull UUID owner, @NotNull Map<Material, Integer> items, boolean more) {
+    }
+
+    /**
+     * What a trade moves from the buyer's reservation to the seller.
+     */
+    private record Payment(@NotNull UUID buyer, @NotNull UUID seller, long amount) {
+    }
+
+    private void run() {
+        List<Runnable> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            long start = System.nanoTime();
+            queue.drainTo(batch);
+            for (Runnable task : batch) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    plugin.getLogger().log(Level.SEVERE, "Exchange task failed", e);
+                }
+            }
+            batch.clear();
+            // Claims for players who left, or made while stopping, go back to the stash
+            for (Iterator<Delivery> it = deliveries.iterator(); it.hasNext(); ) {
+                Delivery delivery = it.next();
+                if (!running || Bukkit.getPlayer(delivery.owner()) == null) {
+                    unclaim(delivery);
+                    it.remove();
+                }
+            }
+            commitBatch();
+            if (log.getRecords() >= compactRecords) {
+                compact();
+            }
+            restingCount = orders.size();
+            if (running) {
+                dispatch();
+            } else {
+                notices.clear();
+                stashed.clear();
+            }
+            lastBatchNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Match a new order, settle its trades and rest what is left of it.
+     */
+    private void place(Order order) {
+        UUID owner = order.getOwner();
+        if (orderCounts.getOrDefault(owner, 0) >= maxOrders) {
+            // Never logged, so only the escrow has to be given back
+            if (order.getSide() == Side.BUY) {
+                economyManager.releaseReserved(owner, order.getPrice() * order.getRemaining());
+            } else {
+                addToStash(owner, order.getMaterial(), order.getRemaining());
+            }
+            notice(owner, "§cYou already have " + maxOrders + " open exchange orders.");
+            return;
+        }
+        log.place(order);
+        OrderBook book = books.computeIfAbsent(order.getMaterial(), OrderBook::new);
+        long start = System.nanoTime();
+        book.match(order, fills);
+        long nanos = System.nanoTime() - start;
+        lastMatchNanos = nanos;
+        if (nanos > maxMatchNanos) maxMatchNanos = nanos;
+        matchCount++;
+        int traded = 0;
+        for (OrderBook.Fill fill : fills) {
+            settle(fill);
+            traded += fill.quantity();
+        }
+        fills.clear();
+        String what = (order.getSide() == Side.BUY ? "buy " : "sell ") + (traded + order.getRemaining()) + " "
+                + order.getMaterial().name() + " at " + formatRc(order.getPrice()) + " RC";
+        if (order.getRemaining() > 0) {
+            book.rest(order);
+            orders.put(order.getId(), order);
+            orderCounts.merge(owner, 1, Integer::sum);
+            notice(owner, "§aOrder #" + order.getId() + " placed: " + what
+                    + (traded > 0 ? " §7(" + traded + " traded at once)" : "") + ".");
+        } else {
+            notice(owner, "§aOrder #" + order.getId() + " to " + what + " was filled at once.");
+        }
+    }
+
+    /**
+     * Settle one trade out of the escrow of both orders. The payment itself
+     * is made by {@link #commitBatch()}.
+     */
+    private void settle(OrderBook.Fill fill) {
+        Order buy = fill.buy();
+        Order sell = fill.sell();
+        Material material = buy.getMaterial();
+        int quantity = fill.quantity();
+        long cost = fill.price() * quantity;
+        log.fill(buy.getId(), sell.getId(), fill.price(), quantity);
+        // Paid once the batch is logged
+        payments.add(new Payment(buy.getOwner(), sell.getOwner(), cost));
+        // A buyer who bid more than the resting ask gets the difference back
+        long refund = (buy.getPrice() - fill.price()) * quantity;
+        if (refund > 0) {
+            economyManager.releaseReserved(buy.getOwner(), refund);
+        }
+        addToStash(buy.getOwner(), material, quantity);
+        for (Order order : new Order[] {buy, sell}) {
+            if (order.getRemaining() == 0 && orders.containsKey(order.getId())) {
+                // A used-up maker; the book has already dropped it
+                orders.remove(order.getId());
+                orderCounts.merge(order.getOwner(), -1, (a, b) -> a + b > 0 ? a + b : null);
+            }
+        }
+        String trade = quantity + " " + material.name() + " at " + formatRc(fill.price()) + " RC each";
+        notice(buy.getOwner(), "§aBought " + trade + " §7(order #" + buy.getId() + ")");
+        notice(sell.getOwner(), "§aSold " + trade + " §7(order #" + sell.getId() + ")");
+    }
+
+    /**
+     * Make the batch's payments and commit the log. The economy journal is
+     * held meanwhile, so the payments cannot reach disk before the trades.
+     */
+    private void commitBatch() {
+        economyManager.holdJournal(() -> {
+            for (Payment payment : payments) {
+                economyManager.commitReserved(payment.buyer(), payment.amount());
+                economyManager.depositMinor(payment.seller(), payment.amount());
+            }
+            if (!payments.isEmpty()) {
+                log.settle(economyManager.getNextJournalSeq());
+                payments.clear();
+            }
+            try {
+                log.commit();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to write the exchange log", e);
+            }
+        });
+    }
+
+    /**
+     * Rewrite the log as a snapshot, once the economy journal holds the
+     * payments of every trade in it.
+     */
+    private void compact() {
+        if (!economyManager.commitJournal()) return;
+        try {
+            log.rewrite(nextId, orders.values(), stash);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to compact the exchange log", e);
+        }
+    }
+
+    /**
+     * Return the unfilled escrow of an order that left the book.
+     */
+    private void refund(Order order) {
+        if (order.getSide() == Side.BUY) {
+            economyManager.releaseReserved(order.getOwner(), order.getPrice() * order.getRemaining());
+        } else {
+            addToStash(order.getOwner(), order.getMaterial(), order.getRemaining());
+        }
+    }
+
+    private void addToStash(UUID owner, Material material, int quantity) {
+        stash.computeIfAbsent(owner, key -> new EnumMap<>(Material.class)).merge(material, quantity, Integer::sum);
+        stashed.add(owner);
+        log.stash(owner, material, quantity);
+    }
+
+    private void addResting(Order order) {
+        books.computeIfAbsent(order.getMaterial(), OrderBook::new).rest(order);
+        orders.put(order.getId(), order);
+        orderCounts.merge(order.getOwner(), 1, Integer::sum);
+    }
+
+    private void removeResting(Order order) {
+        books.get(order.getMaterial()).remove(order);
+        orders.remove(order.getId());
+        orderCounts.merge(order.getOwner(), -1, (a, b) -> a + b > 0 ? a + b : null);
+    }
+
+    /**
+     * Replay a trade onto a resting order.
+     */
+    private void reduce(@Nullable Order order, int quantity) {
+        if (order == null) return;
+        order.fill(Math.min(quantity, order.getRemaining()));
+        if (order.getRemaining() == 0) {
+            removeResting(order);
+        }
+    }
+
+    private void notice(UUID owner, String message) {
+        notices.computeIfAbsent(owner, key -> new ArrayList<>()).add(message);
+    }
+
+    /**
+     * Hand the messages, deliveries and stashed items of the committed batch
+     * to the players concerned, on their next tick. Offline players find
+     * their items in the stash when they next log in.
+     */
+    private void dispatch() {
+        for (Map.Entry<UUID, List<String>> entry : notices.entrySet()) {
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player == null) continue;
+            List<String> messages = entry.getValue();
+            // A claim that found no room leaves the stash as it was, so it is not retried
+            boolean owed = stashed.contains(entry.getKey());
+            player.getScheduler().run(plugin, task -> {
+                for (String message : messages) {
+                    player.sendMessage(message);
+                }
+                if (owed) claim(player);
+            }, null);
+        }
+        notices.clear();
+        stashed.clear();
+        for (Delivery delivery : deliveries) {
+            Player player = Bukkit.getPlayer(delivery.owner());
+            if (player == null || player.getScheduler().run(plugin, task -> deliver(player, delivery),
+                    () -> queue.add(() -> unclaim(delivery))) == null) {
+                queue.add(() -> unclaim(delivery));
+            }
+        }
+        deliveries.clear();
+    }
+
+    /**
+     * Put claimed items into the player's inventory. Runs on the player's
+     * thread; anything that no longer fits is dropped at their feet.
+     */
+    private void deliver(Player player, Delivery delivery) {
+        StringBuilder items = new StringBuilder();
+        for (Map.Entry<Material, Integer> entry : delivery.items().entrySet()) {
+            Map<Integer, ItemStack> overflow = player.getInventory().addItem(new ItemStack(entry.getKey(), entry.getValue()));
+            // Only possible if the inventory filled up since the claim
+            for (ItemStack item : overflow.values()) {
+                player.getWorld().dropItemNaturally(player.getLocation(), item);
+            }
+            if (items.length() > 0) items.append(", ");
+            items.append(entry.getValue()).append(' ').append(entry.getKey().name());
+        }
+        player.sendMessage("§aCollected " + items + " from the exchange."
+                + (delivery.more() ? " §eMore is waiting; use /exchange claim once you have room." : ""));
+    }
+
+    /**
+     * Return the items of a delivery that never reached the player.
+     */
+    private void unclaim(Delivery delivery) {
+        for (Map.Entry<Material, Integer> entry : delivery.items().entrySet()) {
+            addToStash(delivery.owner(), entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static String formatRc(long minor) {
+        return String.format("%.2f", Ledger.toRc(minor));
+    }
+}
@@ -0,0 +1,320 @@
+package com.rooster.ranch.exchange;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Append-only log of everything that changes the exchange: orders placed,
+ * trades, cancellations and items credited to or collected from players'
+ * stashes. Replaying it from the start rebuilds the order books and stashes.
+ * Records are buffered and written with one fsync per batch of exchange
+ * work. When the log grows long it is rewritten as a snapshot holding one
+ * record per resting order and stash entry.
+ *
+ * Escrowed funds are reserved in the ledger and reservations are refunded
+ * by a restart, so resting buy orders reserve their funds again when the
+ * log is replayed. Payments made by trades are recorded in the economy
+ * journal, which is held back until the batch's trades are on disk here.
+ * Each batch with trades ends with a settle record holding the economy
+ * journal sequence number its payments end before. On replay, trades
+ * whose settle record is missing or names a sequence number past what the
+ * journal recovered were never paid, and their payments are made again.
+ *
+ * File layout (big-endian): a 16 byte header (int magic, short version,
+ * short unused, long next order id) followed by records that start with a
+ * type byte. Materials are stored by name. Only the exchange thread uses a
+ * log once it is open.
+ */
+public class ExchangeLog {
+    public static final int MAGIC = 0x52524558; // "RREX"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+
+    static final byte PLACE = 1;
+    static final byte FILL = 2;
+    static final byte CANCEL = 3;
+    static final byte STASH = 4;
+    static final byte CLAIM = 5;
+    static final byte SETTLE = 6;
+
+    private final File file;
+    private final Logger logger;
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private long position;
+    private long records;
+
+    /**
+     * Receives the records of the log when it is replayed.
+     */
+    public interface Handler {
+        void place(@NotNull Order order);
+
+        void fill(long buyId, long sellId, long price, int quantity);
+
+        void cancel(long id);
+
+        void stash(@NotNull UUID owner, @NotNull Material material, int quantity);
+
+        void claim(@NotNull UUID owner, @NotNull Material material, int quantity);
+
+        void settle(long journalSeq);
+    }
+
+    public ExchangeLog(@NotNull File file, @NotNull Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * Open the log and replay it. A record cut short by a crash is dropped.
+     *
+     * @param handler receives every record, oldest first
+     * @return the next order id
+     * @throws IOException if the log cannot be read or is not an exchange log
+     */
+    public long open(@NotNull Handler handler) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            writeHeader(channel, 1L);
+            position = HEADER_SIZE;
+            records = 0;
+            return 1L;
+        }
+        ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+        while (data.hasRemaining() && channel.read(data, data.position()) >= 0) {
+            // Read the whole log; it is compacted, so it stays small
+        }
+        data.flip();
+        if (data.getInt(0) != MAGIC || data.getShort(4) != VERSION) {
+            throw new IOException(file.getName() + " is not a version " + VERSION + " exchange log");
+        }
+        long nextId = data.getLong(8);
+        data.position(HEADER_SIZE);
+        int good = HEADER_SIZE;
+        try {
+            while (data.hasRemaining()) {
+                byte type = data.get();
+                switch (type) {
+                    case PLACE -> {
+                        long id = data.getLong();
+                        long time = data.getLong();
+                        UUID owner = new UUID(data.getLong(), data.getLong());
+                        Side side = data.get() == 0 ? Side.BUY : Side.SELL;
+                        Material material = readMaterial(data);
+                        long price = data.getLong();
+                        int quantity = data.getInt();
+                        nextId = Math.max(nextId, id + 1);
+                        if (material != null) {
+                            handler.place(new Order(id, time, owner, side, material, price, quantity));
+                        }
+                    }
+                    case FILL -> handler.fill(data.getLong(), data.getLong(), data.getLong(), data.getInt());
+                    case CANCEL -> handler.cancel(data.getLong());
+                    case SETTLE -> handler.settle(data.getLong());
+                    case STASH, CLAIM -> {
+                        UUID owner = new UUID(data.getLong(), data.getLong());
+                        Material material = readMaterial(data);
+                        int quantity = data.getInt();
+                        if (material == null) break;
+                        if (type == STASH) {
+                            handler.stash(owner, material, quantity);
+                        } else {
+                            handler.claim(owner, material, quantity);
+                        }
+                    }
+                    default -> throw new IOException("Unknown exchange log record " + type + " at byte " + good);
+                }
+                good = data.position();
+                records++;
+            }
+        } catch (BufferUnderflowException e) {
+            logger.warning("Dropped a partly written record at the end of " + file.getName() + ".");
+        }
+        // Cut off a partly written record so new records line up
+        channel.truncate(good);
+        position = good;
+        return nextId;
+    }
+
+    void place(@NotNull Order order) {
+        ensure(64);
+        buffer.put(PLACE).putLong(order.getId()).putLong(order.getTime())
+                .putLong(order.getOwner().getMostSignificantBits()).putLong(order.getOwner().getLeastSignificantBits())
+                .put((byte) (order.getSide() == Side.BUY ? 0 : 1));
+        putMaterial(order.getMaterial());
+        buffer.putLong(order.getPrice()).putInt(order.getRemaining());
+        records++;
+    }
+
+    void fill(long buyId, long sellId, long price, int quantity) {
+        ensure(29);
+        buffer.put(FILL).putLong(buyId).putLong(sellId).putLong(price).putInt(quantity);
+        records++;
+    }
+
+    void settle(long journalSeq) {
+        ensure(9);
+        buffer.put(SETTLE).putLong(journalSeq);
+        records++;
+    }
+
+    void cancel(long id) {
+        ensure(9);
+        buffer.put(CANCEL).putLong(id);
+        records++;
+    }
+
+    void stash(@NotNull UUID owner, @NotNull Material material, int quantity) {
+        stashRecord(STASH, owner, material, quantity);
+    }
+
+    void claim(@NotNull UUID owner, @NotNull Material material, int quantity) {
+        stashRecord(CLAIM, owner, material, quantity);
+    }
+
+    private void stashRecord(byte type, UUID owner, Material material, int quantity) {
+        ensure(64);
+        buffer.put(type).putLong(owner.getMostSignificantBits()).putLong(owner.getLeastSignificantBits());
+        putMaterial(material);
+        buffer.putInt(quantity);
+        records++;
+    }
+
+    /**
+     * Write and fsync the records added since the last commit.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    void commit() throws IOException {
+        if (buffer.position() == 0) return;
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        channel.force(false);
+        buffer.clear();
+    }
+
+    /**
+     * Replace the log with a snapshot of the current state: one record per
+     * resting order, placed with its remaining quantity, and one per stash
+     * entry. The snapshot is written to a new file and moved over the log,
+     * so a crash leaves either the old log or the new one. If the rewrite
+     * fails, the log goes on as before.
+     *
+     * The snapshot has no trades, so the economy journal must hold the
+     * payments of every trade in the log before it is rewritten.
+     *
+     * @param nextId the next order id
+     * @param orders the resting orders, oldest first
+     * @param stash  the items owed to each player
+     * @throws IOException if the snapshot cannot be written
+     */
+    void rewrite(long nextId, @NotNull Collection<Order> orders,
+                 @NotNull Map<UUID, Map<Material, Integer>> stash) throws IOException {
+        commit();
+        // Encode the snapshot into its own buffer so a failed rewrite leaves the live log untouched
+        ByteBuffer pending = buffer;
+        long liveRecords = records;
+        ByteBuffer snapshot;
+        long snapshotRecords;
+        buffer = ByteBuffer.allocate(pending.capacity());
+        records = 0;
+        try {
+            for (Order order : orders) {
+                place(order);
+            }
+            for (Map.Entry<UUID, Map<Material, Integer>> owed : stash.entrySet()) {
+                for (Map.Entry<Material, Integer> entry : owed.getValue().entrySet()) {
+                    stash(owed.getKey(), entry.getKey(), entry.getValue());
+                }
+            }
+            snapshot = buffer;
+            snapshotRecords = records;
+        } finally {
+            buffer = pending;
+            records = liveRecords;
+        }
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        long at = HEADER_SIZE;
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out, nextId);
+            snapshot.flip();
+            while (snapshot.hasRemaining()) {
+                at += out.write(snapshot, at);
+            }
+            out.force(true);
+        }
+        channel.close();
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Keep appending to the old log
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            throw e;
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        position = at;
+        records = snapshotRecords;
+    }
+
+    /**
+     * Commit and close the log.
+     */
+    void close() throws IOException {
+        if (channel == null) return;
+        commit();
+        channel.close();
+        channel = null;
+    }
+
+    /**
+     * @return the number of records in the log, including uncommitted ones
+     */
+    long getRecords() {
+        return records;
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() >= bytes) return;
+        ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+
+    private void putMaterial(Material material) {
+        byte[] name = material.name().getBytes(StandardCharsets.US_ASCII);
+        ensure(2 + name.length + 16);
+        buffer.putShort((short) name.length).put(name);
+    }
+
+    private static Material readMaterial(ByteBuffer data) {
+        byte[] name = new byte[data.getShort()];
+        data.get(name);
+        return Material.getMaterial(new String(name, StandardCharsets.US_ASCII));
+    }
+
+    private static void writeHeader(FileChannel channel, long nextId) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(nextId).flip();
+        channel.write(header, 0);
+    }
+}
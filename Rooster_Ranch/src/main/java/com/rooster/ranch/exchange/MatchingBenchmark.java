@@ -0,0 +1,82 @@
+package com.rooster.ranch.exchange;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Times {@link OrderBook#match} on a synthetic book. Random buy and sell
+ * orders around one price are placed until the book holds the requested
+ * number of resting orders, then every further order is timed. The book is
+ * not attached to the exchange, so the benchmark can run on any thread and
+ * touches no balances, stashes or logs.
+ */
+public final class MatchingBenchmark {
+    private static final long MID_PRICE = 1000L;
+    private static final int PRICE_SPREAD = 200;
+
+    private MatchingBenchmark() {
+    }
+
+    /**
+     * Timings of one benchmark run, in nanoseconds.
+     *
+     * @param resting resting orders when the timed orders started
+     * @param orders  number of timed orders
+     * @param fills   trades made by the timed orders
+     * @param median  median time to match one order
+     * @param p99     99th percentile time to match one order
+     * @param max     longest time to match one order
+     */
+    public record Result(int resting, int orders, long fills, long median, long p99, long max) {
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param resting resting orders to build up before timing
+     * @param orders  orders to time
+     */
+    public static @NotNull Result run(int resting, int orders) {
+        SplittableRandom random = new SplittableRandom(resting * 31L + orders);
+        OrderBook book = new OrderBook(Material.WHEAT);
+        List<OrderBook.Fill> fills = new ArrayList<>();
+        long id = 1L;
+        // Build the book up with orders that cannot cross, bids below the asks
+        while (book.size() < resting) {
+            Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+            long price = side == Side.BUY ? MID_PRICE - 1 - random.nextInt(PRICE_SPREAD)
+                    : MID_PRICE + random.nextInt(PRICE_SPREAD);
+            book.rest(create(random, id++, side, price));
+        }
+        int start = book.size();
+        long[] times = new long[orders];
+        long filled = 0;
+        for (int i = 0; i < orders; i++) {
+            Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+            // Centred on the spread, so about half of the orders trade
+            long price = MID_PRICE - PRICE_SPREAD / 4 + random.nextInt(PRICE_SPREAD / 2);
+            Order order = create(random, id++, side, price);
+            long begin = System.nanoTime();
+            book.match(order, fills);
+            times[i] = System.nanoTime() - begin;
+            filled += fills.size();
+            fills.clear();
+            if (order.getRemaining() > 0) {
+                book.rest(order);
+            }
+        }
+        Arrays.sort(times);
+        return new Result(start, orders, filled, times[orders / 2], times[(int) (orders * 0.99)], times[orders - 1]);
+    }
+
+    private static Order create(SplittableRandom random, long id, Side side, long price) {
+        UUID owner = new UUID(random.nextLong(), random.nextLong());
+        return new Order(id, id, owner, side, Material.WHEAT, price, 1 + random.nextInt(64));
+    }
+}
@@ -0,0 +1,76 @@
+package com.rooster.ranch.exchange;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * A limit order on the exchange. Everything but the remaining quantity is
+ * fixed when the order is placed; the remaining quantity is only changed by
+ * the exchange thread.
+ */
+public final class Order {
+    private final long id;
+    private final long time;
+    private final UUID owner;
+    private final Side side;
+    private final Material material;
+    private final long price;
+    private int remaining;
+
+    /**
+     * @param id       order number, increasing in placement order
+     * @param time     when the order was placed, epoch milliseconds
+     * @param owner    the player who placed it
+     * @param side     buy or sell
+     * @param material the item traded
+     * @param price    limit price per item in minor units
+     * @param quantity number of items
+     */
+    public Order(long id, long time, @NotNull UUID owner, @NotNull Side side, @NotNull Material material,
+                 long price, int quantity) {
+        this.id = id;
+        this.time = time;
+        this.owner = owner;
+        this.side = side;
+        this.material = material;
+        this.price = price;
+        this.remaining = quantity;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public @NotNull UUID getOwner() {
+        return owner;
+    }
+
+    public @NotNull Side getSide() {
+        return side;
+    }
+
+    public @NotNull Material getMaterial() {
+        return material;
+    }
+
+    public long getPrice() {
+        return price;
+    }
+
+    /**
+     * @return the number of items not traded yet
+     */
+    public int getRemaining() {
+        return remaining;
+    }
+
+    void fill(int quantity) {
+        remaining -= quantity;
+    }
+}
@@ -0,0 +1,135 @@
+package com.rooster.ranch.exchange;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The resting orders for one material. Each side is a sorted map from price
+ * to a queue of the orders at that price, oldest first: bids from the
+ * highest price down, asks from the lowest up. An incoming order trades
+ * against the best price level first and, within a level, against the
+ * oldest order first (price-time priority), always at the resting order's
+ * price. Finding the best level costs O(log levels); each trade is O(1).
+ *
+ * Not thread-safe; only the exchange thread uses it.
+ */
+public class OrderBook {
+    private final Material material;
+    private final TreeMap<Long, ArrayDeque<Order>> bids = new TreeMap<>(Comparator.reverseOrder());
+    private final TreeMap<Long, ArrayDeque<Order>> asks = new TreeMap<>();
+    private int size = 0;
+
+    /**
+     * One trade between a buy and a sell order.
+     *
+     * @param buy      the buy order
+     * @param sell     the sell order
+     * @param price    price per item in minor units
+     * @param quantity number of items
+     */
+    record Fill(@NotNull Order buy, @NotNull Order sell, long price, int quantity) {
+    }
+
+    /**
+     * Total quantity resting at one price.
+     *
+     * @param price    price per item in minor units
+     * @param quantity items at that price
+     * @param orders   number of orders at that price
+     */
+    public record Level(long price, int quantity, int orders) {
+    }
+
+    OrderBook(@NotNull Material material) {
+        this.material = material;
+    }
+
+    @NotNull Material getMaterial() {
+        return material;
+    }
+
+    /**
+     * Trade an incoming order against the opposite side for as long as the
+     * prices cross. Makers that are used up leave the book; the incoming
+     * order is not added to it.
+     *
+     * @param taker the incoming order
+     * @param fills receives the trades, in the order they happened
+     */
+    void match(@NotNull Order taker, @NotNull List<Fill> fills) {
+        boolean buying = taker.getSide() == Side.BUY;
+        TreeMap<Long, ArrayDeque<Order>> opposite = buying ? asks : bids;
+        while (taker.getRemaining() > 0 && !opposite.isEmpty()) {
+            long price = opposite.firstKey();
+            if (buying ? price > taker.getPrice() : price < taker.getPrice()) break;
+            ArrayDeque<Order> level = opposite.get(price);
+            Order maker = level.peekFirst();
+            int quantity = Math.min(taker.getRemaining(), maker.getRemaining());
+            taker.fill(quantity);
+            maker.fill(quantity);
+            fills.add(buying ? new Fill(taker, maker, price, quantity) : new Fill(maker, taker, price, quantity));
+            if (maker.getRemaining() == 0) {
+                level.pollFirst();
+                size--;
+                if (level.isEmpty()) {
+                    opposite.remove(price);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add an order behind the others at its price.
+     */
+    void rest(@NotNull Order order) {
+        (order.getSide() == Side.BUY ? bids : asks).computeIfAbsent(order.getPrice(), price -> new ArrayDeque<>())
+                .addLast(order);
+        size++;
+    }
+
+    /**
+     * Take an order out of the book.
+     *
+     * @return true if it was resting
+     */
+    boolean remove(@NotNull Order order) {
+        TreeMap<Long, ArrayDeque<Order>> side = order.getSide() == Side.BUY ? bids : asks;
+        ArrayDeque<Order> level = side.get(order.getPrice());
+        if (level == null || !level.remove(order)) return false;
+        if (level.isEmpty()) {
+            side.remove(order.getPrice());
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * @return the best price levels of one side, best first
+     */
+    @NotNull List<Level> levels(@NotNull Side side, int max) {
+        List<Level> levels = new ArrayList<>(max);
+        for (Map.Entry<Long, ArrayDeque<Order>> entry : (side == Side.BUY ? bids : asks).entrySet()) {
+            if (levels.size() == max) break;
+            int quantity = 0;
+            for (Order order : entry.getValue()) {
+                quantity += order.getRemaining();
+            }
+            levels.add(new Level(entry.getKey(), quantity, entry.getValue().size()));
+        }
+        return levels;
+    }
+
+    /**
+     * @return the number of resting orders
+     */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,11 @@
+package com.rooster.ranch.exchange;
+
+/**
+ * The side of an exchange order.
+ */
+public enum Side {
+    /** Pays up to the order price per item; the money is reserved while the order rests. */
+    BUY,
+    /** Accepts at least the order price per item; the items are held while the order rests. */
+    SELL
+}
@@ -1,21 +1,39 @@
 package com.rooster.ranch.farm;
 
-import org.bukkit.Bukkit;
+import com.rooster.ranch.util.ChangeTracker;
 import org.bukkit.Location;
-import org.bukkit.World;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
 
 /**
  * Represents a player's farm island. Each farm tracks its owner, central
  * location, health statistics and trusted visitors. Farms are persisted by
- * {@link com.rooster.ranch.manager.FarmManager} and updated every day to
- * simulate upkeep and crop/animal health.
+ * {@link com.rooster.ranch.manager.FarmManager}. Once a change tracker is
+ * attached, every modification is reported to it keyed by the owner's UUID
+ * with one of the {@code FIELD_*} bits.
+ *
+ * Daily wear and tear is evaluated lazily. The farm remembers the last
+ * simulation day it was evaluated for, and every read or change of a
+ * statistic first applies the days that passed since then according to the
+ * attached day clock. The weeds that grow on a given day are drawn from a
+ * random number derived from the owner and the day number, so the random
+ * state is fully described by the last evaluated day and catching up after
+ * downtime gives the same result as ticking every day would have. Farms
+ * that nobody looks at therefore cost nothing per day. Statistics are
+ * guarded by the farm's own lock.
  */
 public class Farm {
+    public static final int FIELD_WEEDS = 1;
+    public static final int FIELD_UPKEEP = 1 << 1;
+    public static final int FIELD_CROP_HEALTH = 1 << 2;
+    public static final int FIELD_ANIMAL_HEALTH = 1 << 3;
+    public static final int FIELD_TRUSTED = 1 << 4;
+
     private final UUID owner;
     private final Location center;
     private int weedCount;
@@ -23,6 +41,15 @@ public class Farm {
     private double cropHealth;
     private double animalHealth;
     private final Set<UUID> trusted;
+    // Last simulation day the statistics were evaluated for; also the position in the weed random sequence
+    private int lastDay;
+    // Seed of the weed random sequence, fixed per owner
+    private final long seed;
+    // Current simulation day for this farm, or null while days are not applied
+    private IntSupplier dayClock;
+    // Bumped on every change, so a state table result computed from an older state is not applied
+    private int version;
+    private ChangeTracker<UUID> changeTracker;
 
     public Farm(@NotNull UUID owner, @NotNull Location center) {
         this.owner = owner;
@@ -31,7 +58,39 @@ public class Farm {
         this.upkeep = 100.0;
         this.cropHealth = 100.0;
         this.animalHealth = 100.0;
-        this.trusted = new HashSet<>();
+        this.seed = FarmDecay.seedOf(owner.getMostSignificantBits(), owner.getLeastSignificantBits());
+        // Read by protection checks on any region thread
+        this.trusted = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Attach the tracker that receives this farm's change notifications.
+     * Farms are typically attached after loading so that restoring saved
+     * values is not reported as a change.
+     *
+     * @param changeTracker the tracker, or null to stop reporting
+     */
+    public void setChangeTracker(@Nullable ChangeTracker<UUID> changeTracker) {
+        this.changeTracker = changeTracker;
+    }
+
+    /**
+     * Attach the clock that tells which simulation day the farm is on. Days
+     * are applied up to the clock's day whenever a statistic is read or
+     * changed. Farms are typically attached after loading, so that restoring
+     * saved values does not apply any days.
+     *
+     * @param dayClock the clock, or null to stop applying days
+     */
+    public synchronized void setDayClock(@Nullable IntSupplier dayClock) {
+        this.dayClock = dayClock;
+    }
+
+    private void changed(int fields) {
+        version++;
+        if (changeTracker != null) {
+            changeTracker.mark(owner, fields);
+        }
     }
 
     public UUID getOwner() {
@@ -42,59 +101,143 @@ public class Farm {
         return center;
     }
 
-    public int getWeedCount() {
+    public synchronized int getWeedCount() {
+        catchUp();
         return weedCount;
     }
 
-    public void setWeedCount(int weedCount) {
-        this.weedCount = Math.max(0, weedCount);
+    public synchronized void setWeedCount(int weedCount) {
+        catchUp();
+        int value = Math.max(0, weedCount);
+        if (value != this.weedCount) {
+            this.weedCount = value;
+            changed(FIELD_WEEDS);
+        }
     }
 
-    public void addWeeds(int amount) {
+    public synchronized void addWeeds(int amount) {
+        if (amount == 0) return;
+        catchUp();
         weedCount += amount;
+        changed(FIELD_WEEDS);
     }
 
     public void clearWeeds() {
-        weedCount = 0;
+        setWeedCount(0);
     }
 
-    public double getUpkeep() {
+    public synchronized double getUpkeep() {
+        catchUp();
         return upkeep;
     }
 
-    public void setUpkeep(double upkeep) {
-        this.upkeep = Math.max(0.0, Math.min(100.0, upkeep));
+    public synchronized void setUpkeep(double upkeep) {
+        catchUp();
+        double value = Math.max(0.0, Math.min(100.0, upkeep));
+        if (value != this.upkeep) {
+            this.upkeep = value;
+            changed(FIELD_UPKEEP);
+        }
     }
 
-    public double getCropHealth() {
+    public synchronized double getCropHealth() {
+        catchUp();
         return cropHealth;
     }
 
-    public void setCropHealth(double cropHealth) {
-        this.cropHealth = Math.max(0.0, Math.min(100.0, cropHealth));
+    public synchronized void setCropHealth(double cropHealth) {
+        catchUp();
+        double value = Math.max(0.0, Math.min(100.0, cropHealth));
+        if (value != this.cropHealth) {
+            this.cropHealth = value;
+            changed(FIELD_CROP_HEALTH);
+        }
     }
 
-    public double getAnimalHealth() {
+    public synchronized double getAnimalHealth() {
+        catchUp();
         return animalHealth;
     }
 
-    public void setAnimalHealth(double animalHealth) {
-        this.animalHealth = Math.max(0.0, Math.min(100.0, animalHealth));
+    public synchronized void setAnimalHealth(double animalHealth) {
+        catchUp();
+        double value = Math.max(0.0, Math.min(100.0, animalHealth));
+        if (value != this.animalHealth) {
+            this.animalHealth = value;
+            changed(FIELD_ANIMAL_HEALTH);
+        }
+    }
+
+    /**
+     * @return the last simulation day the statistics were evaluated for
+     */
+    public synchronized int getLastDay() {
+        return lastDay;
+    }
+
+    public synchronized void setLastDay(int lastDay) {
+        this.lastDay = lastDay;
     }
 
     /**
-     * Degrade farm statistics to simulate wear and tear. Called once per in-game
-     * day by the {@link com.rooster.ranch.manager.FarmManager}. Weeds decrease
-     * upkeep and crop/animal health over time.
+     * Apply the days that passed since the farm was last evaluated, following
+     * the rules in {@link FarmDecay}. All resulting changes are reported as a
+     * single notification, however many days were applied.
+     *
+     * @return true if at least one day was applied
      */
-    public void tickDay() {
-        // Increase weeds randomly between 1 and 3
-        this.weedCount += 1 + (int) (Math.random() * 3);
-        // Decrease upkeep based on weeds; more weeds means higher degradation
-        this.upkeep = Math.max(0.0, upkeep - 1.0 - weedCount * 0.05);
-        // Crop and animal health degrade slightly each day
-        this.cropHealth = Math.max(0.0, cropHealth - 0.5 - weedCount * 0.02);
-        this.animalHealth = Math.max(0.0, animalHealth - 0.5 - weedCount * 0.02);
+    public synchronized boolean catchUp() {
+        if (dayClock == null) return false;
+        int today = dayClock.getAsInt();
+        if (today <= lastDay) return false;
+        int weeds = weedCount;
+        double newUpkeep = upkeep;
+        double newCrop = cropHealth;
+        double newAnimal = animalHealth;
+        for (int day = lastDay + 1; day <= today; day++) {
+            weeds += FarmDecay.weedGrowth(seed, day);
+            // Once everything has hit zero only the weeds keep changing
+            if (newUpkeep == 0.0 && newCrop == 0.0 && newAnimal == 0.0) continue;
+            newUpkeep = FarmDecay.upkeepAfter(newUpkeep, weeds);
+            newCrop = FarmDecay.healthAfter(newCrop, weeds);
+            newAnimal = FarmDecay.healthAfter(newAnimal, weeds);
+        }
+        update(weeds, newUpkeep, newCrop, newAnimal, today);
+        return true;
+    }
+
+    private void update(int weeds, double newUpkeep, double newCrop, double newAnimal, int day) {
+        int fields = weeds != weedCount ? FIELD_WEEDS : 0;
+        if (newUpkeep != upkeep) fields |= FIELD_UPKEEP;
+        if (newCrop != cropHealth) fields |= FIELD_CROP_HEALTH;
+        if (newAnimal != animalHealth) fields |= FIELD_ANIMAL_HEALTH;
+        this.weedCount = weeds;
+        this.upkeep = newUpkeep;
+        this.cropHealth = newCrop;
+        this.animalHealth = newAnimal;
+        this.lastDay = day;
+        changed(fields);
+    }
+
+    /**
+     * Copy the statistics as last evaluated, without applying any days, into
+     * a row of a state table.
+     */
+    synchronized void store(@NotNull FarmStateTable table, int row) {
+        table.set(row, weedCount, upkeep, cropHealth, animalHealth, lastDay, seed, version);
+    }
+
+    /**
+     * Take the statistics a state table evaluated for this farm. The result
+     * is dropped if the farm changed since it was stored, since it would
+     * undo that change; the farm then simply catches up on its own.
+     *
+     * @return true if the result was applied
+     */
+    synchronized boolean load(@NotNull FarmStateTable table, int row) {
+        if (version != table.version(row) || lastDay != table.fromDay(row)) return false;
+        update(table.weeds(row), table.upkeep(row), table.crop(row), table.animal(row), table.day(row));
+        return true;
     }
 
     public Set<UUID> getTrusted() {
@@ -111,13 +254,15 @@ public class Farm {
         return owner.equals(uuid) || trusted.contains(uuid);
     }
 
-    public void trust(@NotNull UUID uuid) {
-        if (!owner.equals(uuid)) {
-            trusted.add(uuid);
+    public synchronized void trust(@NotNull UUID uuid) {
+        if (!owner.equals(uuid) && trusted.add(uuid)) {
+            changed(FIELD_TRUSTED);
         }
     }
 
-    public void untrust(@NotNull UUID uuid) {
-        trusted.remove(uuid);
+    public synchronized void untrust(@NotNull UUID uuid) {
+        if (trusted.remove(uuid)) {
+            changed(FIELD_TRUSTED);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.rooster.ranch.farm;
+
+/**
+ * The daily wear and tear rules shared by {@link Farm} and
+ * {@link FarmStateTable}. Weeds grow by one to three a day; upkeep and
+ * crop/animal health degrade a little each day and faster the more weeds
+ * there are. The extra weeds of a day are drawn from a SplittableRandom
+ * style mix of the farm's seed and the day number, so every farm has its
+ * own random stream and any day of it can be computed without the days
+ * before.
+ */
+public final class FarmDecay {
+    private FarmDecay() {
+    }
+
+    /**
+     * @return the seed of an owner's weed stream
+     */
+    public static long seedOf(long mostSignificantBits, long leastSignificantBits) {
+        return mostSignificantBits ^ leastSignificantBits;
+    }
+
+    /**
+     * @return the number of weeds that grow on a day, 1 to 3
+     */
+    public static int weedGrowth(long seed, int day) {
+        long z = seed + day * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return 1 + (int) ((z >>> 1) % 3);
+    }
+
+    /**
+     * @return upkeep after a day with the given number of weeds
+     */
+    public static double upkeepAfter(double upkeep, int weeds) {
+        return Math.max(0.0, upkeep - 1.0 - weeds * 0.05);
+    }
+
+    /**
+     * @return crop or animal health after a day with the given number of weeds
+     */
+    public static double healthAfter(double health, int weeds) {
+        return Math.max(0.0, health - 0.5 - weeds * 0.02);
+    }
+}
@@ -0,0 +1,195 @@
+package com.rooster.ranch.farm;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Struct-of-arrays copy of farm statistics for evaluating many farms at
+ * once. Each farm taking part occupies one row; its weeds, upkeep and
+ * crop/animal health live in primitive arrays, so the daily rules from
+ * {@link FarmDecay} run over flat memory instead of chasing a
+ * {@link Farm} object per farm. Rows are split into chunks and evaluated in
+ * parallel on a fork-join pool; since every farm has its own random stream
+ * the result does not depend on how the rows are split.
+ *
+ * A run has three steps: {@link #add} copies farms in on the thread that
+ * owns them, {@link #simulate} evaluates every row on any thread, and
+ * {@link #apply} writes the results back to the farms, again on the owning
+ * thread. A farm that changed between the first and last step keeps its own
+ * state. The arrays are kept between runs and only grow.
+ */
+public class FarmStateTable {
+    private int size = 0;
+    private Farm[] farms;
+    private int[] weeds;
+    private double[] upkeep;
+    private double[] crop;
+    private double[] animal;
+    private int[] fromDay;
+    private int[] toDay;
+    private long[] seeds;
+    private int[] versions;
+
+    public FarmStateTable(int capacity) {
+        allocate(Math.max(16, capacity));
+    }
+
+    private void allocate(int capacity) {
+        int copy = farms != null ? size : 0;
+        farms = farms != null ? Arrays.copyOf(farms, capacity) : new Farm[capacity];
+        weeds = weeds != null ? Arrays.copyOf(weeds, capacity) : new int[capacity];
+        upkeep = upkeep != null ? Arrays.copyOf(upkeep, capacity) : new double[capacity];
+        crop = crop != null ? Arrays.copyOf(crop, capacity) : new double[capacity];
+        animal = animal != null ? Arrays.copyOf(animal, capacity) : new double[capacity];
+        fromDay = fromDay != null ? Arrays.copyOf(fromDay, capacity) : new int[capacity];
+        toDay = toDay != null ? Arrays.copyOf(toDay, capacity) : new int[capacity];
+        seeds = seeds != null ? Arrays.copyOf(seeds, capacity) : new long[capacity];
+        versions = versions != null ? Arrays.copyOf(versions, capacity) : new int[capacity];
+        size = copy;
+    }
+
+    /**
+     * Drop every row. The arrays are kept for the next run.
+     */
+    public void clear() {
+        Arrays.fill(farms, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Copy a farm into a new row.
+     *
+     * @param farm the farm
+     * @param day  the day to evaluate it up to
+     */
+    public void add(@NotNull Farm farm, int day) {
+        if (size == farms.length) {
+            allocate(size + (size >> 1));
+        }
+        int row = size++;
+        farms[row] = farm;
+        toDay[row] = day;
+        farm.store(this, row);
+    }
+
+    void set(int row, int weedCount, double upkeepValue, double cropHealth, double animalHealth,
+             int lastDay, long seed, int version) {
+        weeds[row] = weedCount;
+        upkeep[row] = upkeepValue;
+        crop[row] = cropHealth;
+        animal[row] = animalHealth;
+        fromDay[row] = lastDay;
+        seeds[row] = seed;
+        versions[row] = version;
+    }
+
+    /**
+     * Evaluate every row up to its day, in parallel.
+     *
+     * @param pool      the pool to run on
+     * @param chunkSize number of rows evaluated by one task
+     */
+    public void simulate(@NotNull ForkJoinPool pool, int chunkSize) {
+        if (size == 0) return;
+        pool.invoke(new Chunk(0, size, Math.max(1, chunkSize)));
+    }
+
+    private void simulate(int from, int to) {
+        for (int row = from; row < to; row++) {
+            long seed = seeds[row];
+            int w = weeds[row];
+            double u = upkeep[row];
+            double c = crop[row];
+            double a = animal[row];
+            for (int day = fromDay[row] + 1; day <= toDay[row]; day++) {
+                w += FarmDecay.weedGrowth(seed, day);
+                if (u == 0.0 && c == 0.0 && a == 0.0) continue;
+                u = FarmDecay.upkeepAfter(u, w);
+                c = FarmDecay.healthAfter(c, w);
+                a = FarmDecay.healthAfter(a, w);
+            }
+            weeds[row] = w;
+            upkeep[row] = u;
+            crop[row] = c;
+            animal[row] = a;
+        }
+    }
+
+    /**
+     * Write the evaluated rows back to their farms.
+     *
+     * @return the number of farms that took the result
+     */
+    public int apply() {
+        int applied = 0;
+        for (int row = 0; row < size; row++) {
+            if (farms[row].load(this, row)) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    int weeds(int row) {
+        return weeds[row];
+    }
+
+    double upkeep(int row) {
+        return upkeep[row];
+    }
+
+    double crop(int row) {
+        return crop[row];
+    }
+
+    double animal(int row) {
+        return animal[row];
+    }
+
+    int fromDay(int row) {
+        return fromDay[row];
+    }
+
+    int day(int row) {
+        return toDay[row];
+    }
+
+    int version(int row) {
+        return versions[row];
+    }
+
+    /**
+     * A range of rows, split in half until it is at most one chunk long.
+     */
+    private final class Chunk extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private Chunk(int from, int to, int chunkSize) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                simulate(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Chunk(from, mid, chunkSize), new Chunk(mid, to, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.rooster.ranch.farm;
+
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Compares {@link IslandGrid#get} with the scan over every farm that
+ * location lookups used before the grid. Synthetic islands are laid out in
+ * {@link IslandSlots} order and both lookups answer the same random points,
+ * half of them on an island and half in the gaps between islands. The grid
+ * lookups are cheap, so they are timed over a few rounds and the fastest is
+ * kept. The scan gets a fixed budget of farm checks, so at large farm counts
+ * it answers only the first points; its answers are checked against the
+ * grid's. Nothing is attached to a world or manager, so the benchmark can
+ * run on any thread.
+ */
+public final class GridBenchmark {
+    /** Farm counts measured by one run. */
+    public static final int[] FARM_COUNTS = {10, 100, 1000, 10000, 100000};
+    // Farm checks the scan may make at one farm count, which keeps a run to seconds
+    private static final long SCAN_BUDGET = 100_000_000L;
+    private static final int WARMUP_LOOKUPS = 20000;
+    private static final int GRID_ROUNDS = 5;
+
+    private GridBenchmark() {
+    }
+
+    /**
+     * Timings at one farm count, in nanoseconds.
+     *
+     * @param farms     number of farms
+     * @param lookups   number of points looked up in the grid
+     * @param scans     number of those points also looked up by scanning
+     * @param grid      time of all {@link IslandGrid#get} lookups in the fastest round
+     * @param scan      time of all linear scans
+     * @param identical whether both lookups found the same owner for every scanned point
+     */
+    public record Result(int farms, int lookups, int scans, long grid, long scan, boolean identical) {
+        public double gridPerLookup() {
+            return (double) grid / lookups;
+        }
+
+        public double scanPerLookup() {
+            return (double) scan / scans;
+        }
+    }
+
+    /**
+     * Run the benchmark at every count in {@link #FARM_COUNTS}.
+     *
+     * @param lookups points to look up at each farm count
+     */
+    public static @NotNull List<Result> run(int lookups) {
+        // Warm both lookups up so the first count is not timed in the interpreter
+        measure(1000, WARMUP_LOOKUPS);
+        List<Result> results = new ArrayList<>(FARM_COUNTS.length);
+        for (int farms : FARM_COUNTS) {
+            results.add(measure(farms, lookups));
+        }
+        return results;
+    }
+
+    private static Result measure(int farmCount, int lookups) {
+        SplittableRandom random = new SplittableRandom(farmCount * 31L + lookups);
+        IslandGrid grid = new IslandGrid();
+        Map<UUID, Farm> farms = new HashMap<>();
+        for (int slot = 0; slot < farmCount; slot++) {
+            UUID owner = new UUID(random.nextLong(), random.nextLong());
+            double x = (double) IslandSlots.cellX(slot) * IslandGrid.SPACING;
+            double z = (double) IslandSlots.cellZ(slot) * IslandGrid.SPACING;
+            farms.put(owner, new Farm(owner, new Location(null, x, 100.0, z)));
+            grid.add(owner, x, z);
+        }
+
+        double[] xs = new double[lookups];
+        double[] zs = new double[lookups];
+        for (int i = 0; i < lookups; i++) {
+            int slot = random.nextInt(farmCount);
+            double x = (double) IslandSlots.cellX(slot) * IslandGrid.SPACING;
+            double z = (double) IslandSlots.cellZ(slot) * IslandGrid.SPACING;
+            int half = IslandGrid.SPACING / 2;
+            if (random.nextBoolean()) {
+                int radius = (int) IslandGrid.PROTECTION_RADIUS;
+                xs[i] = x + random.nextInt(-radius, radius + 1);
+                zs[i] = z + random.nextInt(-radius, radius + 1);
+            } else {
+                // Between the protected square and the edge of the cell
+                int gap = random.nextInt((int) IslandGrid.PROTECTION_RADIUS + 1, half);
+                xs[i] = x + (random.nextBoolean() ? gap : -gap);
+                zs[i] = z + random.nextInt(-half, half);
+            }
+        }
+
+        UUID[] gridOwners = new UUID[lookups];
+        long gridTime = Long.MAX_VALUE;
+        for (int round = 0; round < GRID_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                gridOwners[i] = grid.get(xs[i], zs[i]);
+            }
+            gridTime = Math.min(gridTime, System.nanoTime() - start);
+        }
+
+        int scans = (int) Math.max(1L, Math.min(lookups, SCAN_BUDGET / farmCount));
+        UUID[] scanOwners = new UUID[scans];
+        long start = System.nanoTime();
+        for (int i = 0; i < scans; i++) {
+            scanOwners[i] = scan(farms, xs[i], zs[i]);
+        }
+        long scanTime = System.nanoTime() - start;
+
+        boolean identical = true;
+        for (int i = 0; i < scans && identical; i++) {
+            identical = Objects.equals(gridOwners[i], scanOwners[i]);
+        }
+        return new Result(farmCount, lookups, scans, gridTime, scanTime, identical);
+    }
+
+    /**
+     * The lookup as it was before the grid: every farm's protected square is
+     * checked until one contains the point.
+     */
+    private static UUID scan(Map<UUID, Farm> farms, double x, double z) {
+        double radius = IslandGrid.PROTECTION_RADIUS;
+        for (Farm farm : farms.values()) {
+            Location center = farm.getCenter();
+            if (x >= center.getX() - radius && x <= center.getX() + radius
+                    && z >= center.getZ() - radius && z <= center.getZ() + radius) {
+                return farm.getOwner();
+            }
+        }
+        return null;
+    }
+}
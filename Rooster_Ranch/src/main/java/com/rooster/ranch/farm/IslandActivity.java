@@ -0,0 +1,22 @@
+package com.rooster.ranch.farm;
+
+/**
+ * How much attention an island gets from the server.
+ */
+public enum IslandActivity {
+    /**
+     * The owner or a trusted player is online, or someone is on the island.
+     * The island's chunks are held loaded with plugin chunk tickets.
+     */
+    ACTIVE,
+    /**
+     * Recently active. The chunk tickets are kept for a grace period so a
+     * player who briefly leaves does not cause the island to reload.
+     */
+    IDLE,
+    /**
+     * Nobody has needed the island for longer than the grace period. The
+     * tickets are released and the chunks are left to unload.
+     */
+    DORMANT
+}
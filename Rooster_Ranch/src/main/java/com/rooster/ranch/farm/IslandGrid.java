@@ -0,0 +1,147 @@
+package com.rooster.ranch.farm;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spatial index mapping island grid cells to farm owners. Islands are pasted
+ * on a fixed grid ({@link #SPACING} blocks apart) with their centre on the
+ * centre of a cell, so any block position can be turned into the cell of the
+ * only island that could possibly protect it. This keeps location lookups
+ * constant time regardless of how many farms exist.
+ *
+ * The index holds every farm, loaded or not, and only stores owners, so it
+ * stays small even when most farms are not in memory. It must be kept in
+ * sync by {@link com.rooster.ranch.manager.FarmManager} whenever farms are
+ * created, deleted or loaded. Lookups are safe from any thread.
+ */
+public class IslandGrid {
+    /** Distance in blocks between the centres of two neighbouring islands. */
+    public static final int SPACING = 200;
+    /** Half-width of the square protected around each island centre. */
+    public static final double PROTECTION_RADIUS = 80.0;
+
+    private final Map<Long, UUID> cells = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> owners = new ConcurrentHashMap<>();
+
+    /**
+     * Convert a world coordinate into its grid cell. Cells are centred on the
+     * island centres, so a coordinate belongs to the island it is closest to.
+     *
+     * @param coord block or entity coordinate on the X or Z axis
+     * @return the grid cell on that axis
+     */
+    public static int cellOf(double coord) {
+        return Math.floorDiv((int) Math.floor(coord) + SPACING / 2, SPACING);
+    }
+
+    private static long key(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Register a farm in the cell containing its centre. Any farm previously
+     * stored in that cell is replaced.
+     *
+     * @param owner the farm's owner
+     * @param x     X coordinate of the island centre
+     * @param z     Z coordinate of the island centre
+     */
+    public void add(@NotNull UUID owner, double x, double z) {
+        long key = key(cellOf(x), cellOf(z));
+        UUID previous = cells.put(key, owner);
+        if (previous != null && !previous.equals(owner)) {
+            owners.remove(previous, key);
+        }
+        owners.put(owner, key);
+    }
+
+    /**
+     * Register a farm in the cell containing its centre.
+     *
+     * @param farm the farm to index
+     */
+    public void add(@NotNull Farm farm) {
+        add(farm.getOwner(), farm.getCenter().getX(), farm.getCenter().getZ());
+    }
+
+    /**
+     * Remove an owner's farm from the index.
+     *
+     * @param owner the farm's owner
+     */
+    public void remove(@NotNull UUID owner) {
+        Long key = owners.remove(owner);
+        if (key != null) {
+            cells.remove(key, owner);
+        }
+    }
+
+    /**
+     * @return true if the owner has a farm in the index
+     */
+    public boolean contains(@NotNull UUID owner) {
+        return owners.containsKey(owner);
+    }
+
+    /**
+     * @return true if a farm is indexed in the given cell
+     */
+    public boolean isOccupied(int cellX, int cellZ) {
+        return cells.containsKey(key(cellX, cellZ));
+    }
+
+    /**
+     * @return the {@code {cellX, cellZ}} cell of an owner's farm, or null if the owner has none
+     */
+    public int[] findCell(@NotNull UUID owner) {
+        Long key = owners.get(owner);
+        if (key == null) return null;
+        return new int[]{(int) (key >> 32), (int) (long) key};
+    }
+
+    /**
+     * @return the owners of every indexed farm, as a live read-only view
+     */
+    public @NotNull Set<UUID> owners() {
+        return Collections.unmodifiableSet(owners.keySet());
+    }
+
+    /**
+     * Find the owner of the farm protecting the given coordinates. Only the
+     * farm indexed in the matching cell is checked against the protection
+     * radius, measured from the cell centre.
+     *
+     * @param x world X coordinate
+     * @param z world Z coordinate
+     * @return the owner of the farm whose protected area contains the point, otherwise null
+     */
+    public @Nullable UUID get(double x, double z) {
+        int cellX = cellOf(x);
+        int cellZ = cellOf(z);
+        UUID owner = cells.get(key(cellX, cellZ));
+        if (owner == null) return null;
+        double cx = (double) cellX * SPACING;
+        double cz = (double) cellZ * SPACING;
+        if (x >= cx - PROTECTION_RADIUS && x <= cx + PROTECTION_RADIUS
+                && z >= cz - PROTECTION_RADIUS && z <= cz + PROTECTION_RADIUS) {
+            return owner;
+        }
+        return null;
+    }
+
+    public void clear() {
+        cells.clear();
+        owners.clear();
+    }
+
+    public int size() {
+        return owners.size();
+    }
+}
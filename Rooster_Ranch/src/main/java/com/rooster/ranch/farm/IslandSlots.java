@@ -0,0 +1,131 @@
+package com.rooster.ranch.farm;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Hands out island slots. Slots are numbered along a square spiral of
+ * {@link IslandGrid} cells around the origin: slot 0 is cell (0, 0), slots
+ * 1-8 are the ring around it, slots 9-24 the next ring and so on. Released
+ * slots go on a free list and are reused nearest to the origin first, so
+ * the farm world stays as compact as possible.
+ *
+ * Older farm worlds placed islands along the positive X axis; those cells
+ * map onto spiral slots like any other cell and are skipped while they are
+ * still in use, or reused once released.
+ */
+public class IslandSlots {
+    private int nextSlot = 0;
+    private final TreeSet<Integer> free = new TreeSet<>();
+
+    /**
+     * @return the X cell of a slot
+     */
+    public static int cellX(int slot) {
+        if (slot == 0) return 0;
+        int ring = ringOf(slot);
+        int side = (slot - (2 * ring - 1) * (2 * ring - 1)) / (2 * ring);
+        int pos = (slot - (2 * ring - 1) * (2 * ring - 1)) % (2 * ring);
+        return switch (side) {
+            case 0 -> ring;
+            case 1 -> ring - 1 - pos;
+            case 2 -> -ring;
+            default -> -ring + 1 + pos;
+        };
+    }
+
+    /**
+     * @return the Z cell of a slot
+     */
+    public static int cellZ(int slot) {
+        if (slot == 0) return 0;
+        int ring = ringOf(slot);
+        int side = (slot - (2 * ring - 1) * (2 * ring - 1)) / (2 * ring);
+        int pos = (slot - (2 * ring - 1) * (2 * ring - 1)) % (2 * ring);
+        return switch (side) {
+            case 0 -> -ring + 1 + pos;
+            case 1 -> ring;
+            case 2 -> ring - 1 - pos;
+            default -> -ring;
+        };
+    }
+
+    /**
+     * @return the slot of a grid cell
+     */
+    public static int slotOf(int cellX, int cellZ) {
+        int ring = Math.max(Math.abs(cellX), Math.abs(cellZ));
+        if (ring == 0) return 0;
+        int base = (2 * ring - 1) * (2 * ring - 1);
+        if (cellX == ring && cellZ > -ring) {
+            return base + cellZ + ring - 1;
+        } else if (cellZ == ring) {
+            return base + 2 * ring + ring - 1 - cellX;
+        } else if (cellX == -ring) {
+            return base + 4 * ring + ring - 1 - cellZ;
+        }
+        return base + 6 * ring + cellX + ring - 1;
+    }
+
+    /**
+     * Ring of a non-zero slot: ring k holds slots (2k-1)^2 to (2k+1)^2 - 1.
+     */
+    private static int ringOf(int slot) {
+        int ring = (int) Math.floor((Math.sqrt(slot) + 1) / 2);
+        while ((long) (2 * ring + 1) * (2 * ring + 1) <= slot) ring++;
+        while (ring > 1 && (long) (2 * ring - 1) * (2 * ring - 1) > slot) ring--;
+        return ring;
+    }
+
+    /**
+     * Claim a slot: whichever is nearer the origin of the lowest released
+     * slot and the next unused slot along the spiral.
+     *
+     * @param inUse tells whether a slot that is not on the free list is occupied
+     * @return the claimed slot
+     */
+    public int allocate(@NotNull IntPredicate inUse) {
+        while (!free.contains(nextSlot) && inUse.test(nextSlot)) {
+            nextSlot++;
+        }
+        if (!free.isEmpty() && free.first() <= nextSlot) {
+            int slot = free.pollFirst();
+            if (slot == nextSlot) {
+                nextSlot++;
+            }
+            return slot;
+        }
+        return nextSlot++;
+    }
+
+    /**
+     * Return a cleared slot to the free list.
+     */
+    public void release(int slot) {
+        free.add(slot);
+    }
+
+    public int getNextSlot() {
+        return nextSlot;
+    }
+
+    public void setNextSlot(int nextSlot) {
+        this.nextSlot = Math.max(0, nextSlot);
+    }
+
+    /**
+     * @return the released slots, nearest the origin first
+     */
+    public @NotNull List<Integer> getFree() {
+        return new ArrayList<>(free);
+    }
+
+    public void setFree(@NotNull List<Integer> slots) {
+        free.clear();
+        free.addAll(slots);
+    }
+}
@@ -0,0 +1,98 @@
+package com.rooster.ranch.farm;
+
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares the object-per-farm daily evaluation with {@link FarmStateTable}
+ * on synthetic farms. Both engines get the same farms, starting from the
+ * same state, and the results are checked to be identical. The farms are
+ * not attached to any world or manager, so the benchmark can run on any
+ * thread.
+ */
+public final class SimulationBenchmark {
+    private SimulationBenchmark() {
+    }
+
+    /**
+     * Timings of one benchmark run, in nanoseconds.
+     *
+     * @param farms      number of farms evaluated
+     * @param days       days applied to each farm
+     * @param objectLoop time of the {@link Farm#catchUp()} loop
+     * @param copyIn     time to copy the farms into the table
+     * @param simulate   time of the parallel table evaluation
+     * @param copyOut    time to write the results back to the farms
+     * @param identical  whether both engines produced the same statistics
+     */
+    public record Result(int farms, int days, long objectLoop, long copyIn, long simulate, long copyOut,
+                         boolean identical) {
+        public long table() {
+            return copyIn + simulate + copyOut;
+        }
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param farmCount number of synthetic farms
+     * @param days      days to apply to each farm
+     * @param pool      pool for the table evaluation
+     * @param chunkSize rows per fork-join task
+     */
+    public static @NotNull Result run(int farmCount, int days, @NotNull ForkJoinPool pool, int chunkSize) {
+        SplittableRandom random = new SplittableRandom(farmCount * 31L + days);
+        Farm[] objects = new Farm[farmCount];
+        Farm[] rows = new Farm[farmCount];
+        for (int i = 0; i < farmCount; i++) {
+            UUID owner = new UUID(random.nextLong(), random.nextLong());
+            int weeds = random.nextInt(40);
+            double health = 50.0 + random.nextInt(51);
+            objects[i] = create(owner, weeds, health);
+            rows[i] = create(owner, weeds, health);
+            objects[i].setDayClock(() -> days);
+        }
+
+        long start = System.nanoTime();
+        for (Farm farm : objects) {
+            farm.catchUp();
+        }
+        long objectLoop = System.nanoTime() - start;
+
+        FarmStateTable table = new FarmStateTable(farmCount);
+        start = System.nanoTime();
+        for (Farm farm : rows) {
+            table.add(farm, days);
+        }
+        long copyIn = System.nanoTime() - start;
+        start = System.nanoTime();
+        table.simulate(pool, chunkSize);
+        long simulate = System.nanoTime() - start;
+        start = System.nanoTime();
+        table.apply();
+        long copyOut = System.nanoTime() - start;
+
+        boolean identical = true;
+        for (int i = 0; i < farmCount && identical; i++) {
+            Farm a = objects[i];
+            Farm b = rows[i];
+            identical = a.getWeedCount() == b.getWeedCount() && a.getUpkeep() == b.getUpkeep()
+                    && a.getCropHealth() == b.getCropHealth() && a.getAnimalHealth() == b.getAnimalHealth()
+                    && a.getLastDay() == b.getLastDay();
+        }
+        return new Result(farmCount, days, objectLoop, copyIn, simulate, copyOut, identical);
+    }
+
+    private static Farm create(UUID owner, int weeds, double health) {
+        Farm farm = new Farm(owner, new Location(null, 0.0, 100.0, 0.0));
+        farm.setWeedCount(weeds);
+        farm.setUpkeep(health);
+        farm.setCropHealth(health);
+        farm.setAnimalHealth(health);
+        return farm;
+    }
+}
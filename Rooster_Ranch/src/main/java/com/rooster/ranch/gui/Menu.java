@@ -0,0 +1,84 @@
+package com.rooster.ranch.gui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A chest GUI owned by the plugin. The menu is the holder of its own
+ * inventory, so {@link MenuListener} recognises plugin menus with a single
+ * {@code instanceof} check on the clicked inventory's holder instead of
+ * comparing titles, and finds the action of a clicked slot by indexing an
+ * array. Items are only for display; what a slot does is decided by the
+ * {@link MenuAction} set for it.
+ *
+ * One menu may be open for many players at once; actions receive the
+ * player who clicked.
+ */
+public class Menu implements InventoryHolder {
+    private final Inventory inventory;
+    private final MenuAction[] actions;
+
+    /**
+     * @param size  number of slots, a multiple of 9
+     * @param title the title shown above the inventory
+     */
+    public Menu(int size, @NotNull String title) {
+        this.inventory = Bukkit.createInventory(this, size, title);
+        this.actions = new MenuAction[size];
+    }
+
+    /**
+     * Create a menu from prepared slots. The inventory takes copies of the
+     * items, so the arrays can be shared between menus.
+     *
+     * @param title   the title shown above the inventory
+     * @param items   the item of each slot, as many as the menu has slots
+     * @param actions the action of each slot, null for slots that do nothing
+     */
+    public Menu(@NotNull String title, @NotNull ItemStack[] items, @NotNull MenuAction[] actions) {
+        this.inventory = Bukkit.createInventory(this, items.length, title);
+        this.inventory.setContents(items);
+        this.actions = actions.clone();
+    }
+
+    /**
+     * Show an item in a slot and set what clicking it does.
+     *
+     * @param slot   the slot
+     * @param item   the item to show
+     * @param action the action, or null for a slot that does nothing
+     */
+    public void set(int slot, @NotNull ItemStack item, @Nullable MenuAction action) {
+        inventory.setItem(slot, item);
+        actions[slot] = action;
+    }
+
+    /**
+     * Open the menu for a player.
+     */
+    public void open(@NotNull Player player) {
+        player.openInventory(inventory);
+    }
+
+    @Override
+    public @NotNull Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Run the action of a clicked slot, if it has one.
+     */
+    void click(@NotNull Player player, int slot, @NotNull ClickType click) {
+        if (slot < 0 || slot >= actions.length) return;
+        MenuAction action = actions[slot];
+        if (action != null) {
+            action.onClick(player, click);
+        }
+    }
+}
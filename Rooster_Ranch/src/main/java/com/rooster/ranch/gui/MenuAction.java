@@ -0,0 +1,18 @@
+package com.rooster.ranch.gui;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * What happens when a player clicks a slot of a {@link Menu}. The click
+ * event is already cancelled when the action runs.
+ */
+@FunctionalInterface
+public interface MenuAction {
+    /**
+     * @param player the player who clicked
+     * @param click  how they clicked, e.g. to tell shift-clicks apart
+     */
+    void onClick(@NotNull Player player, @NotNull ClickType click);
+}
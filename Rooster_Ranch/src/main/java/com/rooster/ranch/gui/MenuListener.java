@@ -0,0 +1,38 @@
+package com.rooster.ranch.gui;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * The one listener behind every {@link Menu}. Inventories that are not
+ * plugin menus are passed over after one holder check. While a menu is open
+ * every click and drag is cancelled, including those in the player's own
+ * inventory, so items cannot be moved into or out of the menu; clicks on
+ * the menu's own slots run the slot's action.
+ */
+public class MenuListener implements Listener {
+    public MenuListener(JavaPlugin plugin) {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    @EventHandler
+    public void onInventoryClick(InventoryClickEvent event) {
+        // No block state snapshot is needed to tell whether the holder is a menu
+        if (!(event.getInventory().getHolder(false) instanceof Menu menu)) return;
+        event.setCancelled(true);
+        if (event.getClickedInventory() != event.getInventory()) return;
+        if (!(event.getWhoClicked() instanceof Player player)) return;
+        menu.click(player, event.getSlot(), event.getClick());
+    }
+
+    @EventHandler
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (event.getInventory().getHolder(false) instanceof Menu) {
+            event.setCancelled(true);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.rooster.ranch.leaderboard;
+
+import com.rooster.ranch.farm.Farm;
+import com.rooster.ranch.farm.FarmDecay;
+import com.rooster.ranch.manager.EconomyManager;
+import com.rooster.ranch.manager.FarmManager;
+import com.rooster.ranch.storage.FarmHeader;
+import com.rooster.ranch.storage.StorageBackend;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the richest players and the healthiest farms ranked as they change.
+ * Each board is a {@link RankIndex} fed by the change trackers of the
+ * economy and farm managers, so a balance or farm change costs one O(log n)
+ * update when the trackers flush, and nothing is ever sorted on request.
+ *
+ * Pages are cached once read. A change only drops the cached pages between
+ * the entry's old and new rank, or every page from that rank on when an
+ * entry is added or removed, so at steady state showing a board is a map
+ * lookup.
+ *
+ * Balances are ranked in minor units. Farms are ranked by the mean of their
+ * upkeep, crop health and animal health. Farms are only evaluated when they
+ * are read, so the service keeps the last known statistics of every farm
+ * and, once a simulated day has passed, applies the {@link FarmDecay} rules
+ * up to each farm's due day itself. A farm that is never loaded again still
+ * sinks on the board as it would have decayed.
+ */
+public class LeaderboardService {
+    private final EconomyManager economyManager;
+    private final FarmManager farmManager;
+    private final int pageSize;
+    private final Board balances = new Board();
+    private final Board farms = new Board();
+    // Last known statistics of every ranked farm
+    private final Map<UUID, FarmStats> farmStats = new ConcurrentHashMap<>();
+    // Day of the latest decay pass; only touched on the global region thread
+    private int rankedDay;
+
+    public LeaderboardService(@NotNull JavaPlugin plugin, @NotNull StorageBackend storage,
+                              @NotNull EconomyManager economyManager, @NotNull FarmManager farmManager) {
+        this.economyManager = economyManager;
+        this.farmManager = farmManager;
+        this.pageSize = Math.max(1, Math.min(50, plugin.getConfig().getInt("leaderboards.page-size", 10)));
+        long start = System.nanoTime();
+        for (UUID uuid : economyManager.getAccounts()) {
+            balances.update(uuid, economyManager.getBalanceMinor(uuid));
+        }
+        try {
+            for (FarmHeader header : storage.loadFarmHeaders()) {
+                FarmStats stats = new FarmStats(header.seed());
+                stats.set(header.weeds(), header.upkeep(), header.cropHealth(), header.animalHealth(), header.day());
+                farmStats.put(header.owner(), stats);
+                rank(header.owner(), stats);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to read farms for the leaderboards: " + e.getMessage());
+        }
+        plugin.getLogger().info(String.format("Ranked %d balance(s) and %d farm(s) in %.1f ms.",
+                balances.size(), farms.size(), (System.nanoTime() - start) / 1_000_000.0));
+        economyManager.getChangeTracker().subscribe(this::onBalanceChanges);
+        farmManager.getChangeTracker().subscribe(this::onFarmChanges);
+        rankedDay = farmManager.getSimulationDay();
+        Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> {
+            int day = farmManager.getSimulationDay();
+            if (day != rankedDay) {
+                rankedDay = day;
+                rankDecayedFarms();
+            }
+        }, 20L, 20L);
+    }
+
+    /**
+     * The leaderboard score of a farm: the mean of its upkeep, crop health
+     * and animal health in hundredths.
+     */
+    public static long healthScore(double upkeep, double cropHealth, double animalHealth) {
+        return Math.round((upkeep + cropHealth + animalHealth) / 3.0 * 100.0);
+    }
+
+    /**
+     * @return players ranked by balance, in minor units
+     */
+    public @NotNull Board getBalances() {
+        return balances;
+    }
+
+    /**
+     * @return farms ranked by {@link #healthScore health}, keyed by owner
+     */
+    public @NotNull Board getFarms() {
+        return farms;
+    }
+
+    /**
+     * Change subscriber: re-rank players whose balance changed.
+     */
+    private void onBalanceChanges(@NotNull Map<UUID, Integer> changes) {
+        for (UUID uuid : changes.keySet()) {
+            balances.update(uuid, economyManager.getBalanceMinor(uuid));
+        }
+    }
+
+    /**
+     * Change subscriber: take the statistics of farms that changed, re-rank
+     * them and drop deleted ones.
+     */
+    private void onFarmChanges(@NotNull Map<UUID, Integer> changes) {
+        for (UUID owner : changes.keySet()) {
+            Farm farm = farmManager.getLoadedFarm(owner);
+            if (farm != null) {
+                FarmStats stats = farmStats.computeIfAbsent(owner, key -> new FarmStats(
+                        FarmDecay.seedOf(key.getMostSignificantBits(), key.getLeastSignificantBits())));
+                // Hold the farm's lock so the statistics and their day match
+                synchronized (farm) {
+                    farm.catchUp();
+                    stats.set(farm.getWeedCount(), farm.getUpkeep(), farm.getCropHealth(), farm.getAnimalHealth(),
+                            farm.getLastDay());
+                }
+                rank(owner, stats);
+            } else if (!farmManager.hasFarm(owner)) {
+                farmStats.remove(owner);
+                farms.remove(owner);
+            }
+        }
+    }
+
+    /**
+     * Apply the days every ranked farm has missed since its statistics were
+     * taken and re-rank it. Each farm only advances by the days since the
+     * previous run.
+     */
+    private void rankDecayedFarms() {
+        for (Map.Entry<UUID, FarmStats> entry : farmStats.entrySet()) {
+            // A deletion is dropped by the change subscriber; do not rank it again meanwhile
+            if (farmManager.hasFarm(entry.getKey())) {
+                rank(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void rank(UUID owner, FarmStats stats) {
+        farms.update(owner, stats.score(farmManager.getDueDay(owner)));
+    }
+
+    /**
+     * A farm's statistics and the day they were evaluated for. Changes from
+     * the farm and decay passes may come from different threads.
+     */
+    private static final class FarmStats {
+        private final long seed;
+        private int weeds;
+        private double upkeep;
+        private double cropHealth;
+        private double animalHealth;
+        private int day;
+
+        private FarmStats(long seed) {
+            this.seed = seed;
+        }
+
+        private synchronized void set(int weeds, double upkeep, double cropHealth, double animalHealth, int day) {
+            this.weeds = weeds;
+            this.upkeep = upkeep;
+            this.cropHealth = cropHealth;
+            this.animalHealth = animalHealth;
+            this.day = day;
+        }
+
+        /**
+         * Apply the days up to and including {@code today} with the same
+         * rules as {@link Farm#catchUp()} and return the resulting score.
+         */
+        private synchronized long score(int today) {
+            if (today > day) {
+                advance(today);
+            }
+            return healthScore(upkeep, cropHealth, animalHealth);
+        }
+
+        private void advance(int today) {
+            for (int next = day + 1; next <= today; next++) {
+                weeds += FarmDecay.weedGrowth(seed, next);
+                // Once everything has hit zero only the weeds keep changing
+                if (upkeep == 0.0 && cropHealth == 0.0 && animalHealth == 0.0) continue;
+                upkeep = FarmDecay.upkeepAfter(upkeep, weeds);
+                cropHealth = FarmDecay.healthAfter(cropHealth, weeds);
+                animalHealth = FarmDecay.healthAfter(animalHealth, weeds);
+            }
+            day = today;
+        }
+    }
+
+    /**
+     * One line of a leaderboard page.
+     *
+     * @param rank  position, 1 for the best
+     * @param owner the player
+     * @param name  the player's last known name, or their UUID if unknown
+     * @param score the ranked value
+     */
+    public record Row(int rank, @NotNull UUID owner, @NotNull String name, long score) {
+    }
+
+    /**
+     * A ranked board with a page cache.
+     */
+    public final class Board {
+        private final RankIndex<UUID> index = new RankIndex<>();
+        private final Map<Integer, List<Row>> pages = new ConcurrentHashMap<>();
+
+        private synchronized void update(UUID key, long score) {
+            int size = index.size();
+            int oldRank = index.rankOf(key);
+            if (!index.update(key, score)) return;
+            int newRank = index.rankOf(key);
+            if (oldRank < 0) {
+                // Everything from the new entry down moves one place
+                invalidate(newRank, size);
+            } else {
+                invalidate(Math.min(oldRank, newRank), Math.max(oldRank, newRank));
+            }
+        }
+
+        private synchronized void remove(UUID key) {
+            int size = index.size();
+            int rank = index.rankOf(key);
+            if (index.remove(key)) {
+                invalidate(rank, size - 1);
+            }
+        }
+
+        /**
+         * Drop the cached pages that show any rank from first to last.
+         */
+        private void invalidate(int first, int last) {
+            if (pages.isEmpty()) return;
+            int firstPage = first / pageSize;
+            int lastPage = last / pageSize;
+            pages.keySet().removeIf(page -> page >= firstPage && page <= lastPage);
+        }
+
+        /**
+         * Get a page of the board, building and caching it if it is not cached.
+         *
+         * @param page page number, starting at 0
+         * @return the rows of the page; empty if the page is past the end
+         */
+        public @NotNull List<Row> page(int page) {
+            List<Row> rows = pages.get(page);
+            if (rows != null) return rows;
+            synchronized (this) {
+                rows = pages.get(page);
+                if (rows != null) return rows;
+                List<RankIndex.Entry<UUID>> entries = index.range(page * pageSize, pageSize);
+                List<Row> built = new ArrayList<>(entries.size());
+                for (RankIndex.Entry<UUID> entry : entries) {
+                    String name = Bukkit.getOfflinePlayer(entry.key()).getName();
+                    built.add(new Row(entry.rank() + 1, entry.key(),
+                            name != null ? name : entry.key().toString(), entry.score()));
+                }
+                rows = List.copyOf(built);
+                if (!rows.isEmpty()) {
+                    pages.put(page, rows);
+                }
+                return rows;
+            }
+        }
+
+        /**
+         * @return the rank of a player, 1 for the best, or 0 if they are not ranked
+         */
+        public int rankOf(@NotNull UUID owner) {
+            return index.rankOf(owner) + 1;
+        }
+
+        /**
+         * @return the number of ranked players
+         */
+        public int size() {
+            return index.size();
+        }
+
+        /**
+         * @return the number of pages, at least 1
+         */
+        public int pageCount() {
+            return Math.max(1, (index.size() + pageSize - 1) / pageSize);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.rooster.ranch.leaderboard;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Keys ordered by a score, highest first, in an indexable skip list. Every
+ * link of the list records how many entries it skips, so the rank of a key
+ * and the entry at a given rank are both found by one descent from the top
+ * level, in O(log n) like inserts and removals. Equal scores are ordered by
+ * key so every entry has a stable place.
+ *
+ * All methods are synchronized; each holds the lock for one descent.
+ *
+ * @param <K> key type
+ */
+public class RankIndex<K extends Comparable<K>> {
+    private static final int MAX_LEVEL = 32;
+
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+    private final Node<K> head = new Node<>(null, 0L, MAX_LEVEL);
+    private final SplittableRandom random = new SplittableRandom();
+    private int level = 1;
+
+    /**
+     * One ranked key.
+     *
+     * @param rank  position, 0 for the highest score
+     * @param key   the key
+     * @param score its score
+     */
+    public record Entry<K>(int rank, @NotNull K key, long score) {
+    }
+
+    /**
+     * @return the number of keys
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return the score of a key, or null if it is not ranked
+     */
+    public synchronized Long scoreOf(@NotNull K key) {
+        Node<K> node = nodes.get(key);
+        return node != null ? node.score : null;
+    }
+
+    /**
+     * Set the score of a key, adding it if it is not ranked yet.
+     *
+     * @return false if the key already had this score
+     */
+    public synchronized boolean update(@NotNull K key, long score) {
+        Node<K> node = nodes.get(key);
+        if (node != null) {
+            if (node.score == score) return false;
+            unlink(node);
+        }
+        nodes.put(key, insert(key, score));
+        return true;
+    }
+
+    /**
+     * Stop ranking a key.
+     *
+     * @return true if it was ranked
+     */
+    public synchronized boolean remove(@NotNull K key) {
+        Node<K> node = nodes.remove(key);
+        if (node == null) return false;
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * @return the rank of a key, 0 for the highest score, or -1 if it is not ranked
+     */
+    public synchronized int rankOf(@NotNull K key) {
+        Node<K> node = nodes.get(key);
+        if (node == null) return -1;
+        Node<K> x = head;
+        int rank = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && !before(node.score, node.key, x.next[i])) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x == node) return rank - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Read a run of consecutive entries.
+     *
+     * @param start rank of the first entry
+     * @param count maximum number of entries
+     * @return the entries, best first; empty if start is past the end
+     */
+    public synchronized @NotNull List<Entry<K>> range(int start, int count) {
+        List<Entry<K>> entries = new ArrayList<>(Math.max(0, Math.min(count, nodes.size() - start)));
+        if (start < 0 || start >= nodes.size() || count <= 0) return entries;
+        // Descend to the entry at 1-based position start + 1
+        Node<K> x = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= start + 1) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        for (int rank = start; x != null && entries.size() < count; rank++, x = x.next[0]) {
+            entries.add(new Entry<>(rank, x.key, x.score));
+        }
+        return entries;
+    }
+
+    private Node<K> insert(K key, long score) {
+        @SuppressWarnings("unchecked")
+        Node<K>[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node<K> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && before(x.next[i].score, x.next[i].key, score, key)) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        int size = nodes.size();
+        int height = randomLevel();
+        if (height > level) {
+            for (int i = level; i < height; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = height;
+        }
+        Node<K> node = new Node<>(key, score, height);
+        for (int i = 0; i < height; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = height; i < level; i++) {
+            update[i].span[i]++;
+        }
+        return node;
+    }
+
+    private void unlink(Node<K> node) {
+        Node<K> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && before(x.next[i].score, x.next[i].key, node.score, node.key)) {
+                x = x.next[i];
+            }
+            if (x.next[i] == node) {
+                x.span[i] += node.span[i] - 1;
+                x.next[i] = node.next[i];
+            } else {
+                x.span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            head.span[level - 1] = 0;
+            level--;
+        }
+    }
+
+    private int randomLevel() {
+        int height = 1;
+        // Each level holds about a quarter of the keys of the one below
+        while (height < MAX_LEVEL && (random.nextInt() & 3) == 0) {
+            height++;
+        }
+        return height;
+    }
+
+    private boolean before(long score, K key, Node<K> node) {
+        return before(score, key, node.score, node.key);
+    }
+
+    private static <K extends Comparable<K>> boolean before(long score, K key, long otherScore, K otherKey) {
+        return score > otherScore || (score == otherScore && key.compareTo(otherKey) < 0);
+    }
+
+    /**
+     * A key with its forward links. span[i] is the number of entries the
+     * link at level i moves past.
+     */
+    private static final class Node<K> {
+        private final K key;
+        private final long score;
+        private final Node<K>[] next;
+        private final int[] span;
+
+        @SuppressWarnings("unchecked")
+        private Node(K key, long score, int height) {
+            this.key = key;
+            this.score = score;
+            this.next = new Node[height];
+            this.span = new int[height];
+        }
+    }
+}
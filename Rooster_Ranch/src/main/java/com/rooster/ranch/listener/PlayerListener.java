@@ -24,10 +24,10 @@ public class PlayerListener implements Listener {
     @EventHandler
     public void onJoin(PlayerJoinEvent event) {
         // Delay sending a welcome message slightly to allow other login processes to complete
-        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+        event.getPlayer().getScheduler().runDelayed(plugin, task -> {
             if (professionManager.getProfession(event.getPlayer().getUniqueId()) == null) {
                 event.getPlayer().sendMessage("§6Welcome to Rooster Ranch!\nOnce your farm is created, use §e/profession§6 to choose a role.");
             }
-        }, 40L);
+        }, null, 40L);
     }
 }
\ No newline at end of file
@@ -1,94 +1,258 @@
 package com.rooster.ranch.manager;
 
+import com.rooster.ranch.economy.Journal;
+import com.rooster.ranch.economy.Ledger;
+import com.rooster.ranch.storage.BalanceRepository;
+import com.rooster.ranch.util.ChangeTracker;
 import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manages the Rooster Coins (RC) economy for each player. Balances are stored
- * persistently in an economy.yml file inside the plugin's data folder. Simple
- * methods are provided for querying, depositing and withdrawing currency.
+ * Manages the Rooster Coins (RC) economy for each player. Balances are loaded
+ * from the configured storage backend. Every change is appended to the
+ * economy {@link Journal}, which reaches disk within a few milliseconds; the
+ * balances in the storage backend are only rewritten as a snapshot when the
+ * journal is compacted, and only those that changed since the previous
+ * snapshot. After a crash the journal is replayed onto the last snapshot on
+ * startup. Simple methods are provided for querying, depositing and
+ * withdrawing currency. Every balance change is reported to the manager's
+ * change tracker with the {@link #FIELD_BALANCE} bit.
+ *
+ * Balances are kept in a {@link Ledger} as whole cents (minor units), so
+ * amounts never pick up rounding errors; the {@code double} methods convert
+ * RC to and from minor units at the edge. Balances may be changed from any
+ * thread; each change is a compare-and-set on the player's account. Changes
+ * that are journaled hold a lock striped by player, so the journal sees the
+ * changes of one account in the order they happened.
  */
 public class EconomyManager {
+    public static final int FIELD_BALANCE = 1;
 
     private final JavaPlugin plugin;
-    private final Map<UUID, Double> balances = new HashMap<>();
-    private File economyFile;
-    private FileConfiguration econConfig;
+    private final BalanceRepository repository;
+    private final Ledger ledger = new Ledger();
+    // Players whose balance changed since the last snapshot
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final ChangeTracker<UUID> changeTracker = new ChangeTracker<>();
+    private final Journal journal;
+    // Locks striped by player; a change and its journal record happen under the player's stripe
+    private final Object[] stripes = new Object[64];
 
-    public EconomyManager(JavaPlugin plugin) {
+    public EconomyManager(JavaPlugin plugin, BalanceRepository repository) {
         this.plugin = plugin;
+        this.repository = repository;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+        FileConfiguration config = plugin.getConfig();
+        this.journal = new Journal(new File(plugin.getDataFolder(), "economy.journal"),
+                config.getLong("economy.journal.commit-interval-ms", 20L),
+                config.getLong("economy.journal.compact-records", 100000L),
+                this::writeSnapshot, plugin.getLogger());
         loadEconomy();
+        journal.start();
     }
 
     /**
-     * Load balances from economy.yml. If the file does not exist, it will be
-     * created with an empty configuration. Any errors encountered during
-     * loading are logged to the console.
+     * Load balances from the storage backend and replay the journal onto
+     * them. Replayed players are written with the next snapshot. Any errors
+     * encountered during loading are logged to the console.
      */
     private void loadEconomy() {
         try {
-            if (!plugin.getDataFolder().exists()) {
-                plugin.getDataFolder().mkdirs();
+            for (Map.Entry<UUID, Double> entry : repository.loadBalances().entrySet()) {
+                ledger.set(entry.getKey(), Ledger.toMinor(entry.getValue()));
             }
-            economyFile = new File(plugin.getDataFolder(), "economy.yml");
-            if (!economyFile.exists()) {
-                economyFile.createNewFile();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to load economy data: " + e.getMessage());
+        }
+        try {
+            List<Journal.Entry> entries = journal.open();
+            for (Journal.Entry entry : entries) {
+                ledger.set(entry.account(), entry.balance());
+                dirty.add(entry.account());
             }
-            econConfig = YamlConfiguration.loadConfiguration(economyFile);
-            for (String key : econConfig.getKeys(false)) {
-                try {
-                    UUID uuid = UUID.fromString(key);
-                    double balance = econConfig.getDouble(key);
-                    balances.put(uuid, balance);
-                } catch (IllegalArgumentException ignored) {
-                    // Skip invalid UUID entries
-                }
+            if (!entries.isEmpty()) {
+                plugin.getLogger().info("Replayed " + entries.size() + " economy journal record(s).");
             }
         } catch (IOException e) {
-            plugin.getLogger().severe("Failed to load economy data: " + e.getMessage());
+            plugin.getLogger().severe("Failed to replay the economy journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the balances that changed since the last snapshot to the storage
+     * backend and wait for them to be stored. Called by the journal when it
+     * compacts.
+     *
+     * @return true if the snapshot was stored
+     */
+    private boolean writeSnapshot() {
+        if (dirty.isEmpty()) return true;
+        Map<UUID, Double> changed = new HashMap<>();
+        for (UUID uuid : dirty) {
+            // Removed one by one so changes made meanwhile stay marked
+            dirty.remove(uuid);
+            // Reserved funds are saved as part of the balance; reservations do not survive a restart
+            changed.put(uuid, Ledger.toRc(total(uuid)));
+        }
+        try {
+            repository.writeBalances(changed).join();
+            return true;
+        } catch (Exception e) {
+            dirty.addAll(changed.keySet());
+            plugin.getLogger().severe("Failed to save economy data: " + e.getMessage());
+            return false;
         }
     }
 
     /**
-     * Save balances to economy.yml. If saving fails, a severe log message is
-     * printed but the plugin will continue running.
+     * Commit the journal and write a snapshot of changed balances, waiting
+     * for both. If saving fails, a severe log message is printed but the
+     * plugin will continue running.
      */
     public void saveEconomy() {
         try {
-            if (econConfig == null || economyFile == null) return;
-            for (Map.Entry<UUID, Double> entry : balances.entrySet()) {
-                econConfig.set(entry.getKey().toString(), entry.getValue());
-            }
-            econConfig.save(economyFile);
+            journal.compact();
         } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save economy data: " + e.getMessage());
+            plugin.getLogger().severe("Failed to compact the economy journal: " + e.getMessage());
         }
     }
 
     /**
-     * Get the balance of a player. If the player does not yet have an
-     * associated balance, a new entry is created with zero RC.
+     * Write and fsync the journal records appended so far, waiting for it.
+     *
+     * @return true if they are on disk
+     */
+    public boolean commitJournal() {
+        try {
+            journal.commit();
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to commit the economy journal: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Run an action while the journal is not committed; the balance changes
+     * it makes reach disk only after it returned. See {@link Journal#hold}.
+     */
+    public void holdJournal(@NotNull Runnable action) {
+        journal.hold(action);
+    }
+
+    /**
+     * @return the journal sequence number the next balance change will get
+     */
+    public long getNextJournalSeq() {
+        return journal.getNextSeq();
+    }
+
+    /**
+     * @return the journal sequence number following the last change that was
+     * replayed at startup; changes numbered from here on were lost
+     */
+    public long getRecoveredJournalSeq() {
+        return journal.getRecoveredSeq();
+    }
+
+    /**
+     * Stop the journal writer after a final commit and snapshot. Called when
+     * the plugin is disabled, before the storage backend is closed.
+     */
+    public void shutdown() {
+        journal.close();
+    }
+
+    /**
+     * Read the most recent journal records of a player, newest first. Does
+     * file I/O, so it should not be called on a server thread.
+     *
+     * @param uuid  the player's UUID
+     * @param limit maximum number of records
+     * @return the records found
+     * @throws IOException if the journal cannot be read
+     */
+    public @NotNull List<Journal.Entry> getHistory(@NotNull UUID uuid, int limit) throws IOException {
+        return journal.history(uuid, limit);
+    }
+
+    private int stripeIndex(@NotNull UUID uuid) {
+        int h = uuid.hashCode();
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    private Object stripe(@NotNull UUID uuid) {
+        return stripes[stripeIndex(uuid)];
+    }
+
+    /**
+     * @return the balance as persisted: spendable plus reserved funds
+     */
+    private long total(@NotNull UUID uuid) {
+        return ledger.balance(uuid) + ledger.reserved(uuid);
+    }
+
+    /**
+     * Get the balance of a player in RC. Players without an account have
+     * zero RC. Reserved funds are not included.
      *
      * @param uuid the player's UUID
      * @return the player's balance
      */
     public double getBalance(@NotNull UUID uuid) {
-        return balances.getOrDefault(uuid, 0.0);
+        return Ledger.toRc(ledger.balance(uuid));
     }
 
     public double getBalance(@NotNull Player player) {
         return getBalance(player.getUniqueId());
     }
 
+    /**
+     * @return the player's balance in minor units
+     */
+    public long getBalanceMinor(@NotNull UUID uuid) {
+        return ledger.balance(uuid);
+    }
+
+    /**
+     * @return the players that have an account
+     */
+    public @NotNull Set<UUID> getAccounts() {
+        return ledger.accounts();
+    }
+
+    /**
+     * @return the tracker notified whenever a balance changes
+     */
+    public ChangeTracker<UUID> getChangeTracker() {
+        return changeTracker;
+    }
+
+    /**
+     * Record a change made under the player's stripe. The player is marked
+     * dirty before the record is appended, so a snapshot taken after the
+     * record is committed always includes the player.
+     */
+    private void changed(byte type, @NotNull UUID uuid, @Nullable UUID other, long amount) {
+        dirty.add(uuid);
+        journal.append(type, uuid, other, amount, total(uuid));
+        changeTracker.mark(uuid, FIELD_BALANCE);
+    }
+
     /**
      * Set a player's balance.
      *
@@ -96,7 +260,11 @@ public class EconomyManager {
      * @param amount the new balance
      */
     public void setBalance(@NotNull UUID uuid, double amount) {
-        balances.put(uuid, Math.max(0.0, amount));
+        long minor = Math.max(0L, Ledger.toMinor(amount));
+        synchronized (stripe(uuid)) {
+            ledger.set(uuid, minor);
+            changed(Journal.SET, uuid, null, minor);
+        }
     }
 
     /**
@@ -106,8 +274,21 @@ public class EconomyManager {
      * @param amount the amount to deposit
      */
     public void deposit(@NotNull UUID uuid, double amount) {
-        if (amount <= 0) return;
-        balances.put(uuid, getBalance(uuid) + amount);
+        depositMinor(uuid, Ledger.toMinor(amount));
+    }
+
+    /**
+     * Deposit minor units into a player's account.
+     *
+     * @param uuid   the player's UUID
+     * @param amount the amount to deposit
+     */
+    public void depositMinor(@NotNull UUID uuid, long amount) {
+        synchronized (stripe(uuid)) {
+            if (ledger.deposit(uuid, amount)) {
+                changed(Journal.DEPOSIT, uuid, null, amount);
+            }
+        }
     }
 
     /**
@@ -118,11 +299,95 @@ public class EconomyManager {
      * @return true if the withdrawal succeeded
      */
     public boolean withdraw(@NotNull UUID uuid, double amount) {
-        double balance = getBalance(uuid);
-        if (amount <= 0 || amount > balance) {
-            return false;
+        return withdrawMinor(uuid, Ledger.toMinor(amount));
+    }
+
+    /**
+     * Withdraw minor units from a player's account.
+     *
+     * @param uuid   the player's UUID
+     * @param amount the amount to withdraw
+     * @return true if the withdrawal succeeded
+     */
+    public boolean withdrawMinor(@NotNull UUID uuid, long amount) {
+        synchronized (stripe(uuid)) {
+            if (!ledger.withdraw(uuid, amount)) return false;
+            changed(Journal.WITHDRAW, uuid, null, amount);
+            return true;
+        }
+    }
+
+    /**
+     * Move RC from one player to another.
+     *
+     * @param from   the paying player's UUID
+     * @param to     the receiving player's UUID
+     * @param amount the amount to move
+     * @return true if the payer could cover the amount
+     */
+    public boolean transfer(@NotNull UUID from, @NotNull UUID to, double amount) {
+        return transferMinor(from, to, Ledger.toMinor(amount));
+    }
+
+    /**
+     * Move minor units from one player to another.
+     *
+     * @return true if the payer could cover the amount
+     */
+    public boolean transferMinor(@NotNull UUID from, @NotNull UUID to, long amount) {
+        // Take both stripes in index order so opposite transfers cannot deadlock
+        int a = stripeIndex(from);
+        int b = stripeIndex(to);
+        synchronized (stripes[Math.min(a, b)]) {
+            synchronized (stripes[Math.max(a, b)]) {
+                if (!ledger.transfer(from, to, amount)) return false;
+                changed(Journal.TRANSFER_OUT, from, to, amount);
+                changed(Journal.TRANSFER_IN, to, from, amount);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Set aside minor units of a player's balance for a later payment. The
+     * reservation must be settled with {@link #commitReserved} or
+     * {@link #releaseReserved} using the same amount.
+     *
+     * @return true if the balance covered the amount
+     */
+    public boolean tryReserve(@NotNull UUID uuid, long amount) {
+        // Not journaled: the persisted balance includes reserved funds, so it does not change
+        synchronized (stripe(uuid)) {
+            if (!ledger.tryReserve(uuid, amount)) return false;
+        }
+        changeTracker.mark(uuid, FIELD_BALANCE);
+        return true;
+    }
+
+    /**
+     * Spend previously reserved minor units.
+     *
+     * @return true if that much was reserved
+     */
+    public boolean commitReserved(@NotNull UUID uuid, long amount) {
+        synchronized (stripe(uuid)) {
+            if (!ledger.commit(uuid, amount)) return false;
+            dirty.add(uuid);
+            journal.append(Journal.COMMIT, uuid, null, amount, total(uuid));
+            return true;
+        }
+    }
+
+    /**
+     * Return previously reserved minor units to the player's balance.
+     *
+     * @return true if that much was reserved
+     */
+    public boolean releaseReserved(@NotNull UUID uuid, long amount) {
+        synchronized (stripe(uuid)) {
+            if (!ledger.release(uuid, amount)) return false;
         }
-        balances.put(uuid, balance - amount);
+        changeTracker.mark(uuid, FIELD_BALANCE);
         return true;
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,24 @@
 package com.rooster.ranch.manager;
 
 import com.rooster.ranch.farm.Farm;
+import com.rooster.ranch.farm.FarmStateTable;
+import com.rooster.ranch.farm.IslandActivity;
+import com.rooster.ranch.farm.IslandGrid;
+import com.rooster.ranch.farm.IslandSlots;
+import com.rooster.ranch.schematic.PasteQueue;
+import com.rooster.ranch.schematic.SchematicCache;
+import com.rooster.ranch.schematic.SchematicPreprocessor;
+import com.rooster.ranch.scoreboard.LineCache;
+import com.rooster.ranch.scoreboard.Sidebar;
+import com.rooster.ranch.storage.FarmHeader;
+import com.rooster.ranch.storage.FarmRecord;
+import com.rooster.ranch.storage.StorageBackend;
+import com.rooster.ranch.teleport.TeleportService;
+import com.rooster.ranch.util.ChangeTracker;
+import com.rooster.ranch.util.DayScheduler;
+import com.rooster.ranch.util.Platform;
 import com.rooster.ranch.util.VoidChunkGenerator;
-import com.sk89q.worldedit.WorldEdit;
-import com.sk89q.worldedit.bukkit.BukkitAdapter;
-import com.sk89q.worldedit.extent.clipboard.Clipboard;
-import com.sk89q.worldedit.session.ClipboardHolder;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
-import com.sk89q.worldedit.EditSession;
-import com.sk89q.worldedit.math.BlockVector3;
-import com.sk89q.worldedit.function.operation.Operation;
-import com.sk89q.worldedit.function.operation.Operations;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 import org.bukkit.*;
 import org.bukkit.block.Block;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -21,77 +27,199 @@ import org.bukkit.entity.Player;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.event.world.WorldLoadEvent;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitTask;
-import org.bukkit.scoreboard.DisplaySlot;
-import org.bukkit.scoreboard.Objective;
 import org.bukkit.scoreboard.Scoreboard;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages player farms, island creation, schematic pasting and scoreboard
- * updating. Farms are stored in a YAML file and loaded on plugin start. A
- * repeating task updates each player's sidebar while in farm or market worlds.
+ * updating. Farms are kept in the configured storage backend and loaded on
+ * demand: a player's farm is read in the background while they log in, and
+ * other farms when their island is loaded or touched. Farms of offline
+ * players are evicted least recently used first once more than a configured
+ * number are loaded, and written back if they changed. Changed farms are
+ * saved periodically in the background. Islands that someone needs are
+ * kept loaded with plugin chunk tickets and released once they go dormant.
+ * A repeating task updates each player's sidebar while in farm or market worlds;
+ * farm stats and balances on the sidebar are refreshed from change
+ * notifications rather than re-read on every update.
+ *
+ * Work is scheduled through Paper's schedulers so the manager also runs on
+ * Folia: global tasks (saving, the island pool, activity and the day counter)
+ * use the global region scheduler, daily farm ticks run on the region that
+ * owns each island, and player work runs on the player's own scheduler.
+ * Shared state is held in concurrent collections; loading and eviction of
+ * farms is serialised on {@link #offlineFarms}. Folia has no scoreboard
+ * support, so sidebars are only shown on Paper.
  */
 public class FarmManager implements Listener {
     private final JavaPlugin plugin;
     private final EconomyManager economyManager;
-    private final Map<UUID, Farm> farms = new HashMap<>();
+    // Farms currently in memory
+    private final Map<UUID, Farm> farms = new ConcurrentHashMap<>();
+    // Grid cell index of every farm, loaded or not, used by protection lookups
+    private final IslandGrid islandGrid = new IslandGrid();
+    // Loaded farms whose owner is offline, least recently used first; also guards loading and eviction
+    private final LinkedHashMap<UUID, Farm> offlineFarms = new LinkedHashMap<>(16, 0.75f, true);
+    private final int offlineCapacity;
+    // Evicted farms whose write-back has not succeeded yet; they are newer than the stored copy
+    private final Map<UUID, Farm> evictedFarms = new ConcurrentHashMap<>();
+    // Farm loads in progress, completed once the farm is in memory
+    private final Map<UUID, CompletableFuture<Farm>> preloadedFarms = new ConcurrentHashMap<>();
+    // Ticks in one simulated farm day
+    private static final int DAY_TICKS = 24000;
+    // Day clock for the farms; online players' farms are evaluated on their turn, the rest when they are read
+    private final DayScheduler<UUID> daySchedule;
+    // Optional engine that evaluates every loaded farm at the end of each day in parallel; null when disabled
+    private final FarmStateTable stateTable;
+    private final int tableChunkSize;
+    private volatile boolean tableRunning = false;
+    private volatile int lastTableRows = 0;
+    private volatile int lastTableApplied = 0;
+    private volatile long lastTableCopyNanos = 0;
+    private volatile long lastTableSimulateNanos = 0;
     private World farmWorld;
     private World marketWorld;
-    private File farmsFile;
-    private FileConfiguration farmsConfig;
-    private BukkitTask scoreboardTask;
-    private BukkitTask weedTask;
-    // Offsets for placing new islands so they don't overlap (each island spaced 200 blocks apart)
-    private int nextIslandIndex = 0;
+    private final StorageBackend storage;
+    private final TeleportService teleportService;
+    // Owners whose farm changed or was removed since the last save
+    private final Set<UUID> dirtyFarms = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> deletedFarms = ConcurrentHashMap.newKeySet();
+    private volatile boolean metaDirty = false;
+    private final long flushInterval;
+    private ScheduledTask flushTask;
+    private ScheduledTask scoreboardTask;
+    private ScheduledTask dayTask;
+    private ScheduledTask changeTask;
+    // Collects farm changes and publishes them once per tick
+    private final ChangeTracker<UUID> farmChanges = new ChangeTracker<>();
+    // Parsed schematics shared by every paste
+    private final SchematicCache schematicCache = new SchematicCache();
+    // Spreads schematic pastes over several ticks
+    private final PasteQueue pasteQueue;
+    // Island slots laid out in a spiral around the origin, with released slots reused first; guarded by itself
+    private final IslandSlots islandSlots = new IslandSlots();
+    // Older worlds placed this many islands along the X axis; their cells count as taken until released
+    private int legacyIslandCount = 0;
+    // Released slots whose island area is still being cleared
+    private final Set<Integer> clearingIslands = ConcurrentHashMap.newKeySet();
+    private final int releaseClearBelow;
+    private final int releaseClearAbove;
+    // Island pool: slots that are already pasted and cleaned, ready to be claimed
+    private final Deque<Integer> readyIslands = new ConcurrentLinkedDeque<>();
+    // Island pool: slots currently being pasted for the pool
+    private final Set<Integer> pendingIslands = ConcurrentHashMap.newKeySet();
+    private final int islandPoolSize;
+    private final double islandPoolMaxMspt;
+    private final long islandPoolRefillInterval;
+    private ScheduledTask poolTask;
+    // Island each online player stands on, by player; recorded on the player's own thread from their events
+    private final Map<UUID, UUID> standingOn = new ConcurrentHashMap<>();
+    // Islands holding chunk tickets: active ones and idle ones still within the grace period
+    private final Map<UUID, TrackedIsland> trackedIslands = new ConcurrentHashMap<>();
+    private final long activityInterval;
+    private final int ticketRadius;
+    private final long idleGraceMillis;
+    private ScheduledTask activityTask;
+    // When enabled, islands are re-scanned after pasting to check the preprocessed schematic
+    private final boolean verifyPreprocess;
+    private final AtomicLong poolHits = new AtomicLong();
+    private final AtomicLong poolMisses = new AtomicLong();
     // Scoreboards for players in farm and market worlds
-    private final Map<UUID, Scoreboard> playerFarmBoards = new HashMap<>();
-    private final Map<UUID, Scoreboard> playerMarketBoards = new HashMap<>();
+    private final Map<UUID, Sidebar> playerFarmBoards = new ConcurrentHashMap<>();
+    private final Map<UUID, Sidebar> playerMarketBoards = new ConcurrentHashMap<>();
+    // Shared sidebar line texts; players showing the same value share one string
+    private static final int ALL_FARM_FIELDS = Farm.FIELD_WEEDS | Farm.FIELD_UPKEEP
+            | Farm.FIELD_CROP_HEALTH | Farm.FIELD_ANIMAL_HEALTH;
+    private static final String[] SEASON_LINES = {"§fSeason: Spring", "§fSeason: Summer", "§fSeason: Autumn", "§fSeason: Winter"};
+    private final LineCache dayLines = new LineCache(4096, v -> "§fDay: " + v);
+    private final LineCache upkeepLines = new LineCache(101, v -> "§fUpkeep: " + v + "%");
+    private final LineCache cropLines = new LineCache(101, v -> "§fCrops: " + v + "%");
+    private final LineCache animalLines = new LineCache(101, v -> "§fAnimals: " + v + "%");
+    private final LineCache weedLines = new LineCache(1024, v -> "§fWeeds: " + v);
+    private final LineCache balanceLines = new LineCache(10000, tenths -> "§fBalance: " + (tenths / 10) + "." + (tenths % 10) + " RC");
 
-    public FarmManager(JavaPlugin plugin, EconomyManager economyManager) {
+    public FarmManager(JavaPlugin plugin, EconomyManager economyManager, StorageBackend storage,
+                       TeleportService teleportService) {
         this.plugin = plugin;
         this.economyManager = economyManager;
+        this.storage = storage;
+        this.teleportService = teleportService;
+        FileConfiguration config = plugin.getConfig();
+        this.pasteQueue = new PasteQueue(plugin, schematicCache,
+                config.getInt("paste.blocks-per-tick", 4000),
+                config.getLong("paste.max-millis-per-tick", 10L));
+        this.islandPoolSize = Math.max(0, config.getInt("island-pool.size", 3));
+        this.islandPoolMaxMspt = config.getDouble("island-pool.max-mspt", 30.0);
+        this.islandPoolRefillInterval = Math.max(1L, config.getLong("island-pool.refill-interval", 100L));
+        this.verifyPreprocess = config.getBoolean("schematics.verify-preprocess", false);
+        this.flushInterval = Math.max(20L, config.getLong("persistence.flush-interval", 6000L));
+        this.offlineCapacity = Math.max(16, config.getInt("farm-cache.offline-capacity", 256));
+        this.releaseClearBelow = Math.max(0, config.getInt("island-release.clear-below", 40));
+        this.releaseClearAbove = Math.max(0, config.getInt("island-release.clear-above", 60));
+        this.activityInterval = Math.max(20L, config.getLong("island-activity.check-interval", 100L));
+        this.ticketRadius = Math.max(0, Math.min(5, config.getInt("island-activity.ticket-radius", 2)));
+        this.idleGraceMillis = TimeUnit.MINUTES.toMillis(Math.max(0L, config.getLong("island-activity.idle-minutes", 5L)));
+        long dayBudgetNanos = (long) (Math.max(0.0, config.getDouble("daily-simulation.tick-budget-ms", 1.0)) * 1_000_000L);
+        this.daySchedule = new DayScheduler<>(DAY_TICKS, dayBudgetNanos, this::runFarmDay);
+        boolean tableEngine = "table".equalsIgnoreCase(config.getString("daily-simulation.engine", "lazy"));
+        this.stateTable = tableEngine ? new FarmStateTable(offlineCapacity * 2) : null;
+        this.tableChunkSize = Math.max(64, config.getInt("daily-simulation.table-chunk-size", 4096));
         Bukkit.getPluginManager().registerEvents(this, plugin);
+        farmChanges.subscribe(this::onFarmChanges);
+        farmChanges.subscribe(changes -> dirtyFarms.addAll(changes.keySet()));
+        economyManager.getChangeTracker().subscribe(this::onBalanceChanges);
         loadFarms();
     }
 
     /**
-     * Removes unwanted vegetation and closes trapdoors on a pasted island. This method scans
-     * a small area around the given center and removes plants such as grass and flowers
-     * while leaving the main tree intact. Trapdoors are closed to ensure a consistent
-     * starting state. This cleanup runs synchronously after the schematic is pasted.
+     * Close trapdoors and reinforce a pasted island by scanning the world.
      *
-     * @param center the centre of the island
-     */
-    /**
-     * Remove unwanted vegetation, crops and trapdoors and reinforce the island.
+     * Island pastes no longer need this scan: the same transforms are baked
+     * into the farm schematic by {@link SchematicPreprocessor} when it is
+     * loaded. It is kept as the reference implementation for the
+     * {@code schematics.verify-preprocess} mode, where it runs after the
+     * paste and any block it still has to change is a difference between the
+     * preprocessed schematic and the old scan-based result.
      *
-     * This method cleans up the pasted island so that players start with a blank farm.
-     * It removes flowers, tall grass and other decorative plants, converts any existing
-     * farmland back into plain dirt, removes pre‑planted crops, and closes any
-     * trapdoors that might be open. It also fills holes beneath the surface with
-     * dirt to provide a second supporting layer under the island, preventing water
-     * or players from falling into the void. The scan radius and height range are
-     * deliberately generous to cover most of the schematic but can be adjusted
-     * if you change the island size.
+     * The scan closes any trapdoors that might be open and fills holes
+     * beneath the surface with dirt to provide a second supporting layer
+     * under the island, preventing water or players from falling into the
+     * void. The scan radius and height range are deliberately generous to
+     * cover most of the schematic but can be adjusted if you change the
+     * island size.
      *
      * @param center the centre location of the island paste
+     * @return the number of blocks that had to be changed
      */
-    private void cleanupIsland(@NotNull Location center) {
+    private int cleanupIsland(@NotNull Location center) {
         World world = center.getWorld();
-        if (world == null) return;
+        if (world == null) return 0;
+        int changed = 0;
         // Radii around the centre to scan. Increase if your schematic is larger.
         int radiusX = 20;
         int radiusZ = 20;
@@ -109,6 +237,7 @@ public class FarmManager implements Listener {
                         if (trap.isOpen()) {
                             trap.setOpen(false);
                             block.setBlockData(trap, false);
+                            changed++;
                         }
                     }
                 }
@@ -128,57 +257,75 @@ public class FarmManager implements Listener {
                         Material belowType = below.getType();
                         if (belowType == Material.AIR || belowType == Material.WATER) {
                             below.setType(Material.DIRT, false);
+                            changed++;
                         }
                     }
                 }
             }
         }
+        return changed;
     }
 
     /**
-     * Load farm data from farms.yml. Each farm entry includes the owner, center
-     * location coordinates, statistics and trust lists. Missing or corrupt
-     * entries are skipped with a warning in the console.
+     * Load farm data. Global island data (island slots, pool and simulation
+     * day) comes from farms.yml. Only the owner and position of each farm are
+     * read from the storage backend to build the island index; the farms
+     * themselves are loaded when they are first needed.
      */
     private void loadFarms() {
         try {
-            if (!plugin.getDataFolder().exists()) {
-                plugin.getDataFolder().mkdirs();
-            }
-            farmsFile = new File(plugin.getDataFolder(), "farms.yml");
-            if (!farmsFile.exists()) {
-                farmsFile.createNewFile();
-            }
-            farmsConfig = YamlConfiguration.loadConfiguration(farmsFile);
-            // Load next island index
-            this.nextIslandIndex = farmsConfig.getInt("nextIslandIndex", 0);
-            if (farmsConfig.isConfigurationSection("farms")) {
-                for (String key : farmsConfig.getConfigurationSection("farms").getKeys(false)) {
-                    try {
-                        UUID owner = UUID.fromString(key);
-                        String worldName = farmsConfig.getString("farms." + key + ".world", "rooster_farms");
-                        double x = farmsConfig.getDouble("farms." + key + ".x");
-                        double y = farmsConfig.getDouble("farms." + key + ".y");
-                        double z = farmsConfig.getDouble("farms." + key + ".z");
-                        Location loc = new Location(Bukkit.getWorld(worldName), x, y, z);
-                        Farm farm = new Farm(owner, loc);
-                        farm.setWeedCount(farmsConfig.getInt("farms." + key + ".weed", 0));
-                        farm.setUpkeep(farmsConfig.getDouble("farms." + key + ".upkeep", 100.0));
-                        farm.setCropHealth(farmsConfig.getDouble("farms." + key + ".crop", 100.0));
-                        farm.setAnimalHealth(farmsConfig.getDouble("farms." + key + ".animal", 100.0));
-                        // Load trusted list
-                        List<String> trustedList = farmsConfig.getStringList("farms." + key + ".trusted");
-                        for (String s : trustedList) {
-                            try {
-                                farm.getTrusted().add(UUID.fromString(s));
-                            } catch (IllegalArgumentException ignored) {
-                            }
-                        }
-                        farms.put(owner, farm);
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("Failed to load farm for key " + key + ": " + e.getMessage());
+            FileConfiguration meta = storage.loadIslandData();
+            // Older files only kept the day count; start those at the beginning of the day
+            long tick = meta.getLong("simulationTick", meta.getInt("simulationDay", 0) * (long) DAY_TICKS);
+            long savedAt = meta.getLong("simulationSavedAt", 0L);
+            if (savedAt > 0L && plugin.getConfig().getBoolean("daily-simulation.simulate-downtime", true)) {
+                // Run the clock on through the time the server was stopped
+                long downtimeTicks = Math.max(0L, System.currentTimeMillis() - savedAt) / 50L;
+                if (downtimeTicks > 0L) {
+                    tick += downtimeTicks;
+                    metaDirty = true;
+                    plugin.getLogger().info(String.format("Advanced the day clock by %.2f day(s) of downtime.",
+                            downtimeTicks / (double) DAY_TICKS));
+                }
+            }
+            daySchedule.setTick(tick);
+            // Load the island slots and pool. Slots that were still being pasted
+            // or cleared when the server stopped are resumed once tasks start.
+            if (meta.isConfigurationSection("slots")) {
+                synchronized (islandSlots) {
+                    islandSlots.setNextSlot(meta.getInt("slots.next", 0));
+                    islandSlots.setFree(meta.getIntegerList("slots.free"));
+                }
+                legacyIslandCount = meta.getInt("slots.legacy", 0);
+                clearingIslands.addAll(meta.getIntegerList("slots.clearing"));
+                readyIslands.addAll(meta.getIntegerList("pool.ready"));
+                pendingIslands.addAll(meta.getIntegerList("pool.pending"));
+            } else {
+                // Islands used to be numbered along the X axis; map them onto spiral slots
+                legacyIslandCount = meta.getInt("nextIslandIndex", 0);
+                for (int index : meta.getIntegerList("pool.ready")) {
+                    readyIslands.add(IslandSlots.slotOf(index, 0));
+                }
+                for (int index : meta.getIntegerList("pool.pending")) {
+                    pendingIslands.add(IslandSlots.slotOf(index, 0));
+                }
+                metaDirty = true;
+            }
+            for (FarmHeader header : storage.loadFarmHeaders()) {
+                islandGrid.add(header.owner(), header.x(), header.z());
+            }
+            if (storage.needsFullSave()) {
+                // Move farms out of farms.yml into their own files; evicted farms are written back straight away
+                for (FarmRecord record : storage.loadFarms()) {
+                    if (loadFarm(record) != null) {
+                        dirtyFarms.add(record.owner());
                     }
                 }
+                metaDirty = true;
+            }
+            // Players already online after a reload get their farm loaded; online farms are never evicted
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                preloadFarm(player.getUniqueId());
             }
         } catch (IOException e) {
             plugin.getLogger().severe("Failed to load farms: " + e.getMessage());
@@ -186,43 +333,380 @@ public class FarmManager implements Listener {
     }
 
     /**
-     * Save farm data to farms.yml. The nextIslandIndex and each farm's fields
-     * are written to disk. Any errors are logged but not propagated.
+     * Put a farm read from storage into memory and attach it to the day
+     * clock. Days it missed while unloaded are applied the first time it is
+     * read. Farms of online owners join the daily schedule. Farms of offline owners go into the
+     * eviction order. If another thread loaded the farm first, that copy is
+     * kept.
+     *
+     * @param record the stored farm
+     * @return the loaded farm, or null if it was deleted while being read
      */
-    public void saveFarms() {
-        try {
-            if (farmsConfig == null || farmsFile == null) return;
-            farmsConfig.set("nextIslandIndex", this.nextIslandIndex);
-            farmsConfig.set("farms", null);
-            for (Map.Entry<UUID, Farm> entry : farms.entrySet()) {
-                String key = entry.getKey().toString();
-                Farm farm = entry.getValue();
-                farmsConfig.set("farms." + key + ".world", farm.getCenter().getWorld().getName());
-                farmsConfig.set("farms." + key + ".x", farm.getCenter().getX());
-                farmsConfig.set("farms." + key + ".y", farm.getCenter().getY());
-                farmsConfig.set("farms." + key + ".z", farm.getCenter().getZ());
-                farmsConfig.set("farms." + key + ".weed", farm.getWeedCount());
-                farmsConfig.set("farms." + key + ".upkeep", farm.getUpkeep());
-                farmsConfig.set("farms." + key + ".crop", farm.getCropHealth());
-                farmsConfig.set("farms." + key + ".animal", farm.getAnimalHealth());
-                List<String> trustedList = new ArrayList<>();
-                for (UUID uid : farm.getTrusted()) {
-                    trustedList.add(uid.toString());
+    private Farm loadFarm(@NotNull FarmRecord record) {
+        synchronized (offlineFarms) {
+            if (!islandGrid.contains(record.owner())) return null;
+            Farm loaded = farms.get(record.owner());
+            return loaded != null ? loaded : attachFarm(record);
+        }
+    }
+
+    private Farm attachFarm(@NotNull FarmRecord record) {
+        // A farm evicted with a write-back still pending or failed is newer than what was read
+        Farm farm = evictedFarms.remove(record.owner());
+        if (farm == null) {
+            farm = record.toFarm();
+        }
+        UUID owner = farm.getOwner();
+        if (farm.getCenter().getWorld() == null && farmWorld != null) {
+            farm.getCenter().setWorld(farmWorld);
+        }
+        farm.setChangeTracker(farmChanges);
+        farm.setDayClock(() -> daySchedule.dueDay(owner));
+        farms.put(owner, farm);
+        islandGrid.add(farm);
+        preloadedFarms.remove(owner);
+        if (Bukkit.getPlayer(owner) == null) {
+            offlineFarms.put(owner, farm);
+            trimOfflineFarms();
+        } else {
+            daySchedule.add(owner);
+        }
+        return farm;
+    }
+
+    /**
+     * Daily job run by the day schedule when a farm's turn comes. Only farms
+     * of online owners are scheduled; evaluating them publishes the day's
+     * changes so their sidebar stays current.
+     */
+    private void runFarmDay(@NotNull UUID owner) {
+        Farm farm = farms.get(owner);
+        if (farm != null) {
+            farm.catchUp();
+        }
+    }
+
+    /**
+     * Evaluate every loaded farm that is behind its day with the state table
+     * engine. The farms are copied into the table on the calling thread,
+     * evaluated in parallel on the common fork-join pool, and the results
+     * written back in one step on the global region thread. Does nothing
+     * while the previous run is still in progress.
+     */
+    private void runStateTable() {
+        if (tableRunning) return;
+        long start = System.nanoTime();
+        stateTable.clear();
+        for (Farm farm : farms.values()) {
+            int day = daySchedule.dueDay(farm.getOwner());
+            if (farm.getLastDay() < day) {
+                stateTable.add(farm, day);
+            }
+        }
+        if (stateTable.size() == 0) return;
+        long copyIn = System.nanoTime() - start;
+        tableRunning = true;
+        Bukkit.getAsyncScheduler().runNow(plugin, task -> {
+            long simulateStart = System.nanoTime();
+            stateTable.simulate(ForkJoinPool.commonPool(), tableChunkSize);
+            long simulate = System.nanoTime() - simulateStart;
+            Bukkit.getGlobalRegionScheduler().execute(plugin, () -> {
+                long applyStart = System.nanoTime();
+                lastTableRows = stateTable.size();
+                lastTableApplied = stateTable.apply();
+                stateTable.clear();
+                lastTableCopyNanos = copyIn + System.nanoTime() - applyStart;
+                lastTableSimulateNanos = simulate;
+                tableRunning = false;
+            });
+        });
+    }
+
+    /**
+     * @return whether the state table engine evaluates all loaded farms each day
+     */
+    public boolean isStateTableEnabled() {
+        return stateTable != null;
+    }
+
+    /**
+     * @return farms in the latest state table run
+     */
+    public int getLastTableRows() {
+        return lastTableRows;
+    }
+
+    /**
+     * @return farms that took the result of the latest state table run
+     */
+    public int getLastTableApplied() {
+        return lastTableApplied;
+    }
+
+    /**
+     * @return time the latest state table run spent copying farms in and out
+     *         on the owning thread, in milliseconds
+     */
+    public double getLastTableCopyMillis() {
+        return lastTableCopyNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return time the latest state table run spent evaluating in parallel, in milliseconds
+     */
+    public double getLastTableSimulateMillis() {
+        return lastTableSimulateNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return number of farms waiting for their daily tick
+     */
+    public int getDayBacklog() {
+        return daySchedule.getBacklog();
+    }
+
+    /**
+     * @return largest number of farms that waited for their daily tick at once
+     */
+    public int getMaxDayBacklog() {
+        return daySchedule.getMaxBacklog();
+    }
+
+    /**
+     * @return number of daily farm ticks run since startup
+     */
+    public long getDayRunCount() {
+        return daySchedule.getRunCount();
+    }
+
+    /**
+     * @return time the day task took in the latest tick, in milliseconds
+     */
+    public double getLastDayTickMillis() {
+        return daySchedule.getLastTickNanos() / 1_000_000.0;
+    }
+
+    /**
+     * @return number of whole days on the simulation day clock
+     */
+    public int getSimulationDay() {
+        return daySchedule.getDay();
+    }
+
+    /**
+     * @return the latest day an owner's farm is due to be evaluated for
+     */
+    public int getDueDay(@NotNull UUID owner) {
+        return daySchedule.dueDay(owner);
+    }
+
+    /**
+     * Start reading a farm in the background so it is ready when needed.
+     * When the read finishes the farm is loaded on the global region thread.
+     * Safe to call from any thread.
+     *
+     * @param owner the owner's UUID
+     * @return the pending load, completed with the farm once it is in memory
+     *         or with null if it could not be read; null if the owner has no farm
+     */
+    private CompletableFuture<Farm> preloadFarm(@NotNull UUID owner) {
+        if (!islandGrid.contains(owner)) return null;
+        return preloadedFarms.computeIfAbsent(owner, key -> {
+            CompletableFuture<Farm> loaded = new CompletableFuture<>();
+            storage.loadFarm(key).whenComplete((record, error) -> Bukkit.getGlobalRegionScheduler().execute(plugin, () -> {
+                if (!preloadedFarms.remove(key, loaded)) {
+                    // Dropped by an eviction or deletion; what was read may be stale, so read again
+                    CompletableFuture<Farm> retry = farms.containsKey(key) ? null : preloadFarm(key);
+                    if (retry == null) {
+                        loaded.complete(farms.get(key));
+                    } else {
+                        retry.thenAccept(loaded::complete);
+                    }
+                    return;
                 }
-                farmsConfig.set("farms." + key + ".trusted", trustedList);
+                if (error != null) {
+                    plugin.getLogger().severe("Failed to load farm " + key + ": " + error.getMessage());
+                    loaded.complete(null);
+                } else {
+                    loaded.complete(record != null ? loadFarm(record) : farms.get(key));
+                }
+            }));
+            return loaded;
+        });
+    }
+
+    /**
+     * Evict the least recently used farms of offline players until at most
+     * {@code farm-cache.offline-capacity} remain, writing back those with
+     * unsaved changes. Farms being written back stay in {@link #evictedFarms}
+     * until the write succeeds; if it fails they are marked for the next
+     * save. Must be called while holding the {@link #offlineFarms} lock.
+     */
+    private void trimOfflineFarms() {
+        if (offlineFarms.size() <= offlineCapacity) return;
+        // Publish pending change marks so dirtyFarms is complete
+        farmChanges.flush();
+        List<Farm> writeBack = new ArrayList<>();
+        Iterator<Farm> eldest = offlineFarms.values().iterator();
+        while (offlineFarms.size() > offlineCapacity && eldest.hasNext()) {
+            Farm farm = eldest.next();
+            eldest.remove();
+            UUID owner = farm.getOwner();
+            farms.remove(owner);
+            farm.setChangeTracker(null);
+            farm.setDayClock(null);
+            // A read started before this eviction would miss the write-back below
+            preloadedFarms.remove(owner);
+            if (dirtyFarms.remove(owner)) {
+                evictedFarms.put(owner, farm);
+                writeBack.add(farm);
+            }
+        }
+        if (writeBack.isEmpty()) return;
+        List<FarmRecord> records = new ArrayList<>(writeBack.size());
+        for (Farm farm : writeBack) {
+            records.add(FarmRecord.of(farm));
+        }
+        storage.writeFarms(records, List.of()).whenComplete((writeNanos, error) -> {
+            if (error != null) {
+                plugin.getLogger().severe("Failed to write back evicted farms, retrying with the next save: "
+                        + error.getMessage());
+                for (Farm farm : writeBack) {
+                    if (islandGrid.contains(farm.getOwner())) {
+                        dirtyFarms.add(farm.getOwner());
+                    }
+                }
+                return;
+            }
+            for (Farm farm : writeBack) {
+                // Leaves farms that were loaded again or re-evicted meanwhile alone
+                evictedFarms.remove(farm.getOwner(), farm);
+            }
+        });
+    }
+
+    /**
+     * Save every farm that changed since the last save, plus farms.yml if
+     * the island data changed. Farms are snapshotted on the calling thread and
+     * written by the storage backend's I/O thread, so the cost on the main
+     * thread grows with the number of changed farms only. The time taken is
+     * logged whenever something was written. If the write fails, everything
+     * in it is marked again so the next save retries it.
+     *
+     * @param wait whether to block until the data is on disk
+     */
+    public void flushFarms(boolean wait) {
+        // Pick up changes made since the change tracker last published
+        farmChanges.flush();
+        if (dirtyFarms.isEmpty() && deletedFarms.isEmpty() && !metaDirty) return;
+        long start = System.nanoTime();
+        // Entries are removed one by one so marks added meanwhile are kept for the next save
+        List<FarmRecord> changed = new ArrayList<>(dirtyFarms.size());
+        List<Farm> saved = new ArrayList<>(dirtyFarms.size());
+        for (UUID owner : dirtyFarms) {
+            dirtyFarms.remove(owner);
+            Farm farm = farms.get(owner);
+            if (farm == null) {
+                // Evicted, with a write-back that failed
+                farm = evictedFarms.get(owner);
+            }
+            if (farm != null) {
+                changed.add(FarmRecord.of(farm));
+                saved.add(farm);
+            }
+        }
+        List<UUID> deleted = new ArrayList<>(deletedFarms);
+        deletedFarms.removeAll(deleted);
+        int count = changed.size() + deleted.size();
+        String meta = null;
+        if (metaDirty) {
+            metaDirty = false;
+            YamlConfiguration metaConfig = new YamlConfiguration();
+            metaConfig.set("simulationDay", daySchedule.getDay());
+            metaConfig.set("simulationTick", daySchedule.getTick());
+            metaConfig.set("simulationSavedAt", System.currentTimeMillis());
+            synchronized (islandSlots) {
+                metaConfig.set("slots.next", islandSlots.getNextSlot());
+                metaConfig.set("slots.free", islandSlots.getFree());
+            }
+            metaConfig.set("slots.legacy", legacyIslandCount);
+            metaConfig.set("slots.clearing", new ArrayList<>(clearingIslands));
+            metaConfig.set("pool.ready", new ArrayList<>(readyIslands));
+            metaConfig.set("pool.pending", new ArrayList<>(pendingIslands));
+            meta = metaConfig.saveToString();
+        }
+        long mainThreadNanos = System.nanoTime() - start;
+        CompletableFuture<Long> write = storage.writeFarms(changed, deleted);
+        if (meta != null) {
+            write = write.thenCombine(storage.writeIslandData(meta), Long::sum);
+        }
+        boolean savedMeta = meta != null;
+        write = write.whenComplete((writeNanos, error) -> {
+            if (error != null) {
+                plugin.getLogger().severe("Failed to save farms, retrying with the next save: " + error.getMessage());
+                for (Farm farm : saved) {
+                    if (islandGrid.contains(farm.getOwner())) {
+                        dirtyFarms.add(farm.getOwner());
+                    }
+                }
+                for (UUID owner : deleted) {
+                    // Not if the owner has made a new farm since
+                    if (!islandGrid.contains(owner)) {
+                        deletedFarms.add(owner);
+                    }
+                }
+                if (savedMeta) {
+                    metaDirty = true;
+                }
+                return;
+            }
+            for (Farm farm : saved) {
+                evictedFarms.remove(farm.getOwner(), farm);
+            }
+            plugin.getLogger().info(String.format("Saved %d farm(s) in %.1f ms (%.1f ms on the main thread).",
+                    count, (mainThreadNanos + writeNanos) / 1_000_000.0, mainThreadNanos / 1_000_000.0));
+        });
+        if (wait) {
+            try {
+                write.join();
+            } catch (Exception ignored) {
+                // Already logged above
             }
-            farmsConfig.save(farmsFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save farms: " + e.getMessage());
         }
     }
 
+    /**
+     * Save all pending farm changes and wait for them to be written. Called
+     * when the plugin is disabled, before the storage backend is closed.
+     */
+    public void saveFarms() {
+        flushFarms(true);
+    }
+
     /**
      * Creates the farm and market worlds if they do not already exist. These
      * worlds are void worlds generated by {@link VoidChunkGenerator}. After
      * creation, gamerules are set to disable mob spawning and daylight cycles.
      */
     public void createWorlds() {
+        try {
+            loadWorlds();
+        } catch (UnsupportedOperationException e) {
+            // Folia cannot create worlds while running
+            plugin.getLogger().severe("The rooster_farms and rooster_market worlds could not be created: " + e.getMessage()
+                    + ". On Folia they have to exist before the plugin starts.");
+        }
+        // Farms are loaded before the worlds exist, so attach the farm world now
+        if (farmWorld != null) {
+            for (Farm farm : farms.values()) {
+                if (farm.getCenter().getWorld() == null) {
+                    farm.getCenter().setWorld(farmWorld);
+                }
+            }
+        }
+    }
+
+    private void loadWorlds() {
         if (Bukkit.getWorld("rooster_farms") == null) {
             WorldCreator creator = new WorldCreator("rooster_farms");
             creator.environment(World.Environment.NORMAL);
@@ -313,164 +797,655 @@ public class FarmManager implements Listener {
 
     /**
      * Pastes the market schematic into the market world at the origin. This
-     * method should be called once on plugin enable. The paste is synchronous
-     * and uses WorldEdit's API to perform the operation.
+     * method should be called once on plugin enable. The paste is spread over
+     * several ticks by the paste queue.
+     *
+     * @return a future completed once the market is in place
      */
-    public void pasteMarketIsland() {
-        if (marketWorld == null) return;
+    public CompletableFuture<Void> pasteMarketIsland() {
+        if (marketWorld == null) return CompletableFuture.completedFuture(null);
         File schematic = new File(plugin.getDataFolder(), "schematics/market.schem");
         Location location = new Location(marketWorld, 0, 100, 0);
-        pasteSchematic(schematic, location);
+        return pasteSchematic(schematic, location);
     }
 
     /**
-     * Create a new farm for a player. Each farm island is spaced 200 blocks
-     * apart along the X axis. If the player already owns a farm, the existing
-     * farm is returned. Otherwise, a schematic is pasted at the next island
-     * coordinate and the farm is recorded. Players are teleported to the new
-     * island.
+     * Create a new farm for a player. Islands are placed in grid slots 200
+     * blocks apart, spiralling out from the origin. If the player already
+     * owns a farm, the existing farm is returned; it must have been loaded
+     * with {@link #getFarmAsync(UUID)} first, since this never waits for
+     * storage. Otherwise, the next ready island from the pool is claimed; if
+     * the pool is empty, a schematic is queued for pasting in a newly
+     * allocated slot instead. The farm is recorded straight away and the
+     * player is teleported once the island is ready.
      *
      * @param player the player to create a farm for
-     * @return the newly created farm or existing one
+     * @return the newly created farm or existing one, or null if the player
+     *         owns a farm that is not loaded yet
      */
     public Farm createFarm(@NotNull Player player) {
         Farm existing = farms.get(player.getUniqueId());
         if (existing != null) {
             return existing;
         }
+        if (islandGrid.contains(player.getUniqueId())) {
+            preloadFarm(player.getUniqueId());
+            return null;
+        }
         if (farmWorld == null) {
             createWorlds();
         }
-        // Determine new island location based on nextIslandIndex
-        int spacing = 200;
-        double x = nextIslandIndex * spacing;
-        double y = 100;
-        double z = 0;
-        nextIslandIndex++;
-        Location center = new Location(farmWorld, x, y, z);
-        // Paste the player's island schematic
-        File schematic = new File(plugin.getDataFolder(), "schematics/rooster_farm_good.schem");
-        pasteSchematic(schematic, center);
-        // Remove vegetation and close trapdoors for a clean starting island
-        cleanupIsland(center);
+        Integer pooled = readyIslands.poll();
+        Location center = islandCenter(pooled != null ? pooled : allocateSlot());
         Farm farm = new Farm(player.getUniqueId(), center);
-        farms.put(player.getUniqueId(), farm);
+        farm.setLastDay(daySchedule.dueDay(player.getUniqueId()));
+        farm.setChangeTracker(farmChanges);
+        farm.setDayClock(() -> daySchedule.dueDay(farm.getOwner()));
+        synchronized (offlineFarms) {
+            farms.put(player.getUniqueId(), farm);
+            islandGrid.add(farm);
+            daySchedule.add(player.getUniqueId());
+        }
+        dirtyFarms.add(player.getUniqueId());
+        // Publish the new farm's stats to subscribers such as the leaderboards
+        farmChanges.mark(player.getUniqueId(), ALL_FARM_FIELDS);
+        metaDirty = true;
         // Give player some starting RC
         economyManager.deposit(player.getUniqueId(), 50.0);
+        if (pooled != null) {
+            poolHits.incrementAndGet();
+            welcomeToIsland(player, center);
+            return farm;
+        }
+        poolMisses.incrementAndGet();
+        player.sendMessage("§eYour farm island is being prepared...");
+        // The paste completes on the island's region; the player is handled on their own scheduler
+        prepareIsland(center).whenComplete((ignored, error) -> player.getScheduler().run(plugin, task -> {
+            if (error != null) {
+                player.sendMessage("§cYour farm island could not be built. Please contact an administrator.");
+                return;
+            }
+            welcomeToIsland(player, center);
+        }, null));
+        return farm;
+    }
+
+    /**
+     * Get the centre of the island in the given slot.
+     *
+     * @param slot island slot
+     * @return the paste location of that island
+     */
+    private Location islandCenter(int slot) {
+        return new Location(farmWorld, (double) IslandSlots.cellX(slot) * IslandGrid.SPACING, 100,
+                (double) IslandSlots.cellZ(slot) * IslandGrid.SPACING);
+    }
+
+    /**
+     * Claim a slot for a new island: a released slot if one is closer to the
+     * origin, otherwise the next free slot along the spiral.
+     */
+    private int allocateSlot() {
+        metaDirty = true;
+        synchronized (islandSlots) {
+            return islandSlots.allocate(slot -> {
+                int cellX = IslandSlots.cellX(slot);
+                int cellZ = IslandSlots.cellZ(slot);
+                return islandGrid.isOccupied(cellX, cellZ)
+                        || readyIslands.contains(slot) || pendingIslands.contains(slot) || clearingIslands.contains(slot)
+                        || (cellZ == 0 && cellX >= 0 && cellX < legacyIslandCount);
+            });
+        }
+    }
+
+    /**
+     * Release the islands of players who have not been online for the given
+     * number of days. Their farms are deleted and each island area is cleared
+     * through the paste queue; a slot becomes available again once its area
+     * is empty. Owners the server has no player data for are never released,
+     * since their last login is unknown.
+     *
+     * The owners' player data is read on the async scheduler; the islands
+     * are released on the global region thread afterwards.
+     *
+     * @param days minimum number of days since the owner was last seen
+     * @return a future completed with the number of islands released
+     */
+    public @NotNull CompletableFuture<Integer> releaseInactiveIslands(int days) {
+        if (farmWorld == null) return CompletableFuture.completedFuture(0);
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days);
+        List<UUID> owners = new ArrayList<>(islandGrid.owners());
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        Bukkit.getAsyncScheduler().runNow(plugin, lookup -> {
+            List<UUID> inactive = new ArrayList<>();
+            for (UUID owner : owners) {
+                long lastSeen = Bukkit.getOfflinePlayer(owner).getLastSeen();
+                // 0 means no player data, not a login long ago
+                if (lastSeen == 0L || lastSeen > cutoff) continue;
+                inactive.add(owner);
+            }
+            Bukkit.getGlobalRegionScheduler().execute(plugin, () -> {
+                int released = 0;
+                for (UUID owner : inactive) {
+                    // The owner may have joined while player data was read
+                    if (Bukkit.getPlayer(owner) != null) continue;
+                    int[] cell = islandGrid.findCell(owner);
+                    if (cell == null || !deleteFarm(owner)) continue;
+                    clearIsland(IslandSlots.slotOf(cell[0], cell[1]));
+                    released++;
+                }
+                if (released > 0) {
+                    plugin.getLogger().info("Released " + released + " inactive island(s).");
+                }
+                result.complete(released);
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Queue the area of a released island to be cleared and free its slot
+     * once that is done. Failed clears stay queued and are retried on the
+     * next start.
+     */
+    private void clearIsland(int slot) {
+        clearingIslands.add(slot);
+        metaDirty = true;
+        Location center = islandCenter(slot);
+        int radius = (int) IslandGrid.PROTECTION_RADIUS;
+        int minY = Math.max(farmWorld.getMinHeight(), center.getBlockY() - releaseClearBelow);
+        int maxY = Math.min(farmWorld.getMaxHeight() - 1, center.getBlockY() + releaseClearAbove);
+        Location min = new Location(farmWorld, center.getBlockX() - radius, minY, center.getBlockZ() - radius);
+        Location max = new Location(farmWorld, center.getBlockX() + radius, maxY, center.getBlockZ() + radius);
+        pasteQueue.clear(min, max).whenComplete((ignored, error) -> {
+            if (error != null) {
+                plugin.getLogger().severe("Failed to clear island at " + center.getBlockX() + ", " + center.getBlockZ()
+                        + ": " + error.getMessage());
+                return;
+            }
+            clearingIslands.remove(slot);
+            synchronized (islandSlots) {
+                islandSlots.release(slot);
+            }
+            metaDirty = true;
+        });
+    }
+
+    /**
+     * Paste the farm schematic at the given centre. The schematic is pasted
+     * in its preprocessed form, which already contains the island clean-up,
+     * so the world does not need to be scanned afterwards.
+     *
+     * @param center the island centre
+     * @return a future completed once the island is ready to be used
+     */
+    private CompletableFuture<Void> prepareIsland(@NotNull Location center) {
+        File schematic = new File(plugin.getDataFolder(), "schematics/rooster_farm_good.schem");
+        CompletableFuture<Void> future = pasteQueue.paste(() -> schematicCache.get(schematic,
+                SchematicPreprocessor.ISLAND_CLEANUP, SchematicPreprocessor::bakeIslandCleanup), center);
+        future.exceptionally(e -> {
+            plugin.getLogger().severe("Failed to paste schematic " + schematic.getName() + ": " + e.getMessage());
+            return null;
+        });
+        if (!verifyPreprocess) {
+            return future;
+        }
+        return future.thenRun(() -> {
+            int differences = cleanupIsland(center);
+            if (differences > 0) {
+                plugin.getLogger().warning("Preprocessed island at " + center.getBlockX() + ", " + center.getBlockZ()
+                        + " differs from the scan-based cleanup in " + differences + " block(s); the scan has fixed them.");
+            }
+        });
+    }
+
+    /**
+     * Hand a new farm owner their handbook and bring them to the island.
+     *
+     * @param player the new owner
+     * @param center the island centre
+     */
+    private void welcomeToIsland(@NotNull Player player, @NotNull Location center) {
+        if (!player.isOnline()) return;
         // Give the player a Farming Handbook – a book containing helpful
         // information about how to use their island. The book explains core
         // mechanics like upkeep, weeds, seasons and the market. This is
         // purely informational and can be expanded by server owners.
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            // Create and give the handbook after the island is pasted to avoid
-            // inventory conflicts during world creation.
-            org.bukkit.inventory.ItemStack book = new org.bukkit.inventory.ItemStack(org.bukkit.Material.WRITTEN_BOOK);
-            org.bukkit.inventory.meta.BookMeta meta = (org.bukkit.inventory.meta.BookMeta) book.getItemMeta();
-            if (meta != null) {
-                meta.setTitle("Farming Handbook");
-                meta.setAuthor("Rooster Ranch");
-                meta.addPage("Welcome to your farm!\n\nUse /farm trust to allow friends to help.\nWeeds spawn each day – keep them under control to maintain crop and animal health.");
-                meta.addPage("Seasons & Days:\nThe day counter and season are shown on your scoreboard. Each season lasts 20 days and affects crop growth.");
-                meta.addPage("Marketplace:\nVisit the market island to buy seeds, animals and tools with your RC balance. Sell extra produce to earn more coins!");
-                meta.addPage("Professions:\nYour profession gives you a starter kit. Try different roles to diversify your farm.");
-                book.setItemMeta(meta);
-            }
-            player.getInventory().addItem(book);
-            // Teleport player to a safe starting location inside the barn. The small barn
-            // schematic positions the barn at approximately (13,14) blocks east/z south of
-            // the island origin. We add 13.5 on the X and 14.5 on the Z axes and 1 Y
-            // block above the paste location so the player spawns inside on the floor.
-            player.teleport(center.clone().add(14.5, -9.0, -14.5));
-            player.sendMessage("§aYour farm has been created at " + center.getBlockX() + ", " + center.getBlockY() + ", " + center.getBlockZ() + ".");
+        org.bukkit.inventory.ItemStack book = new org.bukkit.inventory.ItemStack(org.bukkit.Material.WRITTEN_BOOK);
+        org.bukkit.inventory.meta.BookMeta meta = (org.bukkit.inventory.meta.BookMeta) book.getItemMeta();
+        if (meta != null) {
+            meta.setTitle("Farming Handbook");
+            meta.setAuthor("Rooster Ranch");
+            meta.addPage("Welcome to your farm!\n\nUse /farm trust to allow friends to help.\nWeeds spawn each day – keep them under control to maintain crop and animal health.");
+            meta.addPage("Seasons & Days:\nThe day counter and season are shown on your scoreboard. Each season lasts 20 days and affects crop growth.");
+            meta.addPage("Marketplace:\nVisit the market island to buy seeds, animals and tools with your RC balance. Sell extra produce to earn more coins!");
+            meta.addPage("Professions:\nYour profession gives you a starter kit. Try different roles to diversify your farm.");
+            book.setItemMeta(meta);
+        }
+        player.getInventory().addItem(book);
+        // Teleport player to a safe starting location inside the barn. The small barn
+        // schematic positions the barn at approximately (13,14) blocks east/z south of
+        // the island origin. We add 13.5 on the X and 14.5 on the Z axes and 1 Y
+        // block above the paste location so the player spawns inside on the floor.
+        player.sendMessage("§aYour farm has been created at " + center.getBlockX() + ", " + center.getBlockY() + ", " + center.getBlockZ() + ".");
+        teleportService.teleport(player, center.clone().add(14.5, -9.0, -14.5)).thenAccept(arrived -> {
+            if (!arrived && player.isOnline()) player.sendMessage("§eUse /farm home to go to your farm.");
         });
-        return farm;
     }
 
     /**
-     * Get a player's farm if it exists.
+     * Top up the island pool. At most one island is started per call, and only
+     * while the paste queue is idle and the server's average tick time is
+     * below the configured threshold, so refilling never competes with
+     * players for tick time.
+     */
+    private void refillIslandPool() {
+        if (farmWorld == null) return;
+        if (readyIslands.size() + pendingIslands.size() >= islandPoolSize) return;
+        if (pasteQueue.size() > 0 || Bukkit.getAverageTickTime() > islandPoolMaxMspt) return;
+        startPoolIsland(allocateSlot());
+    }
+
+    private void startPoolIsland(int slot) {
+        pendingIslands.add(slot);
+        metaDirty = true;
+        prepareIsland(islandCenter(slot)).whenComplete((ignored, error) -> {
+            pendingIslands.remove(slot);
+            if (error == null) {
+                readyIslands.add(slot);
+            }
+            metaDirty = true;
+        });
+    }
+
+    /**
+     * @return number of pre-built islands ready to be claimed
+     */
+    public int getReadyIslandCount() {
+        return readyIslands.size();
+    }
+
+    /**
+     * @return number of pool islands currently being pasted
+     */
+    public int getPendingIslandCount() {
+        return pendingIslands.size();
+    }
+
+    /**
+     * @return number of released slots ready to be reused
+     */
+    public int getFreeSlotCount() {
+        synchronized (islandSlots) {
+            return islandSlots.getFree().size();
+        }
+    }
+
+    /**
+     * @return number of released islands whose area is still being cleared
+     */
+    public int getClearingIslandCount() {
+        return clearingIslands.size();
+    }
+
+    /**
+     * @return configured number of islands kept in the pool
+     */
+    public int getIslandPoolSize() {
+        return islandPoolSize;
+    }
+
+    /**
+     * @return number of farms created from a pre-built island since startup
+     */
+    public long getPoolHits() {
+        return poolHits.get();
+    }
+
+    /**
+     * @return number of farms that had to wait for a paste since startup
+     */
+    public long getPoolMisses() {
+        return poolMisses.get();
+    }
+
+    /**
+     * Get a player's farm if it exists, loading it from storage in the
+     * background if it is not in memory. Never waits for storage: a farm in
+     * memory is returned as a completed future, otherwise the future
+     * completes on the global region thread once the farm is loaded. Callers
+     * that go on to touch a player continue on the player's scheduler.
      *
      * @param uuid the player's UUID
+     * @return the farm, or null if the player has none or it could not be read
+     */
+    public @NotNull CompletableFuture<Farm> getFarmAsync(@NotNull UUID uuid) {
+        Farm farm = farms.get(uuid);
+        if (farm != null) {
+            // Refresh the farm's place in the eviction order
+            synchronized (offlineFarms) {
+                offlineFarms.get(uuid);
+            }
+            return CompletableFuture.completedFuture(farm);
+        }
+        CompletableFuture<Farm> load = preloadFarm(uuid);
+        return load != null ? load : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Update island activity states. Islands whose owner or a trusted player
+     * is online, or that someone is standing on, become active and have their
+     * chunks held with plugin chunk tickets. Islands that stop being active
+     * stay idle for a grace period and then go dormant: the tickets are
+     * released and the chunks are asked to unload. Runs on the global region
+     * thread, so players' positions come from {@link #standingOn} rather
+     * than from the players, who may belong to other regions.
+     */
+    private void updateIslandActivity() {
+        if (farmWorld == null) return;
+        Set<UUID> active = new HashSet<>(standingOn.values());
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (islandGrid.contains(player.getUniqueId())) {
+                active.add(player.getUniqueId());
+            }
+        }
+        // Trust lists are only known for loaded farms; a trusted player's island loads once they walk onto it
+        for (Farm farm : farms.values()) {
+            if (active.contains(farm.getOwner())) continue;
+            for (UUID member : farm.getTrusted()) {
+                if (Bukkit.getPlayer(member) != null) {
+                    active.add(farm.getOwner());
+                    break;
+                }
+            }
+        }
+        long now = System.currentTimeMillis();
+        for (UUID owner : active) {
+            TrackedIsland island = trackedIslands.get(owner);
+            if (island == null) {
+                int[] cell = islandGrid.findCell(owner);
+                if (cell == null) continue;
+                island = new TrackedIsland(cell[0], cell[1]);
+                trackedIslands.put(owner, island);
+                holdIsland(island);
+            }
+            island.activity = IslandActivity.ACTIVE;
+        }
+        Iterator<Map.Entry<UUID, TrackedIsland>> tracked = trackedIslands.entrySet().iterator();
+        while (tracked.hasNext()) {
+            Map.Entry<UUID, TrackedIsland> entry = tracked.next();
+            if (active.contains(entry.getKey())) continue;
+            TrackedIsland island = entry.getValue();
+            if (island.activity == IslandActivity.ACTIVE) {
+                island.activity = IslandActivity.IDLE;
+                island.idleSince = now;
+            } else if (now - island.idleSince >= idleGraceMillis) {
+                tracked.remove();
+                releaseIsland(island);
+            }
+        }
+    }
+
+    /**
+     * Load an island's chunks asynchronously and add a plugin chunk ticket
+     * to each one.
+     */
+    private void holdIsland(@NotNull TrackedIsland island) {
+        int centerX = (island.cellX * IslandGrid.SPACING) >> 4;
+        int centerZ = (island.cellZ * IslandGrid.SPACING) >> 4;
+        for (int dx = -ticketRadius; dx <= ticketRadius; dx++) {
+            for (int dz = -ticketRadius; dz <= ticketRadius; dz++) {
+                farmWorld.getChunkAtAsync(centerX + dx, centerZ + dz).thenAccept(chunk -> {
+                    // The island may have gone dormant while the chunk was loading
+                    if (island.activity != IslandActivity.DORMANT) {
+                        chunk.addPluginChunkTicket(plugin);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Mark an island dormant, remove its chunk tickets and ask its loaded
+     * chunks to unload. Chunks that players can still see stay loaded until
+     * they leave. The chunks are touched on the island's own region.
+     */
+    private void releaseIsland(@NotNull TrackedIsland island) {
+        island.activity = IslandActivity.DORMANT;
+        int centerX = (island.cellX * IslandGrid.SPACING) >> 4;
+        int centerZ = (island.cellZ * IslandGrid.SPACING) >> 4;
+        Bukkit.getRegionScheduler().execute(plugin, farmWorld, centerX, centerZ, () -> {
+            for (int dx = -ticketRadius; dx <= ticketRadius; dx++) {
+                for (int dz = -ticketRadius; dz <= ticketRadius; dz++) {
+                    farmWorld.removePluginChunkTicket(centerX + dx, centerZ + dz, plugin);
+                    if (farmWorld.isChunkLoaded(centerX + dx, centerZ + dz)) {
+                        farmWorld.unloadChunkRequest(centerX + dx, centerZ + dz);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @param owner the island owner
+     * @return the island's current activity state
+     */
+    public IslandActivity getIslandActivity(@NotNull UUID owner) {
+        TrackedIsland island = trackedIslands.get(owner);
+        return island != null ? island.activity : IslandActivity.DORMANT;
+    }
+
+    /**
+     * @return the number of islands in the given activity state
+     */
+    public int getIslandCount(@NotNull IslandActivity activity) {
+        if (activity == IslandActivity.DORMANT) {
+            return islandGrid.size() - trackedIslands.size();
+        }
+        int count = 0;
+        for (TrackedIsland island : trackedIslands.values()) {
+            if (island.activity == activity) count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of chunks held by island chunk tickets
+     */
+    public int getHeldChunkCount() {
+        int side = 2 * ticketRadius + 1;
+        return trackedIslands.size() * side * side;
+    }
+
+    /**
+     * @return the number of chunks loaded in the farm world
+     */
+    public int getLoadedFarmChunkCount() {
+        return farmWorld != null ? farmWorld.getChunkCount() : 0;
+    }
+
+    /**
+     * Get a player's farm only if it is in memory. Unlike
+     * {@link #getFarmAsync(UUID)} this never reads from storage.
+     *
+     * @param uuid the owner's UUID
      * @return the farm or null
      */
-    public Farm getFarm(@NotNull UUID uuid) {
+    public @Nullable Farm getLoadedFarm(@NotNull UUID uuid) {
         return farms.get(uuid);
     }
 
     /**
-     * Finds a farm at a given location. Used by protection logic to determine
-     * whether a block interaction is allowed.
+     * @return true if the player owns a farm, loaded or not
+     */
+    public boolean hasFarm(@NotNull UUID uuid) {
+        return islandGrid.contains(uuid);
+    }
+
+    /**
+     * @return the number of farms currently in memory
+     */
+    public int getLoadedFarmCount() {
+        return farms.size();
+    }
+
+    /**
+     * @return the number of farms that exist, loaded or not
+     */
+    public int getFarmCount() {
+        return islandGrid.size();
+    }
+
+    /**
+     * @return the tracker that publishes farm changes, keyed by owner UUID
+     */
+    public ChangeTracker<UUID> getChangeTracker() {
+        return farmChanges;
+    }
+
+    /**
+     * Remove a player's farm record without loading it. The island blocks are
+     * left untouched; this only forgets ownership so the protection index no
+     * longer reports it.
+     *
+     * @param uuid the owner's UUID
+     * @return true if the player had a farm
+     */
+    public boolean deleteFarm(@NotNull UUID uuid) {
+        synchronized (offlineFarms) {
+            if (!islandGrid.contains(uuid)) return false;
+            Farm farm = farms.remove(uuid);
+            if (farm != null) {
+                farm.setChangeTracker(null);
+                farm.setDayClock(null);
+            }
+            daySchedule.remove(uuid);
+            offlineFarms.remove(uuid);
+            evictedFarms.remove(uuid);
+            preloadedFarms.remove(uuid);
+            islandGrid.remove(uuid);
+            dirtyFarms.remove(uuid);
+            deletedFarms.add(uuid);
+        }
+        // Subscribers see the farm gone; the save skips owners without a farm
+        farmChanges.mark(uuid, ALL_FARM_FIELDS);
+        TrackedIsland island = trackedIslands.remove(uuid);
+        if (island != null) {
+            releaseIsland(island);
+        }
+        return true;
+    }
+
+    /**
+     * Finds the owner of the island at a given location. The lookup goes
+     * through the island grid index, so its cost does not depend on the
+     * number of farms, and it never touches storage.
      *
      * @param loc the location to check
-     * @return the farm if the location is within a farm's radius, otherwise null
+     * @return the owner if the location is within a farm's radius, otherwise null
      */
-    public Farm findFarmAtLocation(@NotNull Location loc) {
+    public @Nullable UUID findFarmOwnerAtLocation(@NotNull Location loc) {
         if (farmWorld == null || !loc.getWorld().equals(farmWorld)) return null;
-        for (Farm farm : farms.values()) {
-            Location center = farm.getCenter();
-            double radius = 80.0; // Farm protection radius
-            if (loc.getX() >= center.getX() - radius && loc.getX() <= center.getX() + radius
-                    && loc.getZ() >= center.getZ() - radius && loc.getZ() <= center.getZ() + radius) {
-                return farm;
-            }
+        return islandGrid.get(loc.getX(), loc.getZ());
+    }
+
+    /**
+     * Protection check for block interactions. Farms that are not in memory
+     * are never read on the event's thread: the read is started in the
+     * background and the interaction is denied until the farm has loaded.
+     *
+     * @return true if the player may change blocks at the location
+     */
+    private boolean mayModify(@NotNull Player player, @NotNull Location loc) {
+        UUID owner = findFarmOwnerAtLocation(loc);
+        if (owner == null) return true;
+        Farm farm = farms.get(owner);
+        if (farm == null) {
+            preloadFarm(owner);
+            player.sendMessage("§eThis farm is still loading, try again in a moment.");
+            return false;
         }
-        return null;
+        if (farm.isTrusted(player.getUniqueId())) return true;
+        player.sendMessage("§cYou are not trusted on this farm!");
+        return false;
     }
 
     /**
      * Paste a schematic file at the specified location using WorldEdit's API.
-     * This method is synchronous and should only be run from the server thread.
-     * Errors are logged to the console.
+     * The file is parsed asynchronously and the blocks are placed over
+     * several ticks by the {@link PasteQueue}. Errors are logged to the
+     * console and reported through the returned future.
      *
      * @param schematicFile the schematic file
      * @param location      the location to paste at
+     * @return a future completed on the main thread when the paste is done
      */
-    public void pasteSchematic(@NotNull File schematicFile, @NotNull Location location) {
-        if (!schematicFile.exists()) {
-            plugin.getLogger().severe("Schematic not found: " + schematicFile.getName());
-            return;
-        }
-        try {
-            ClipboardFormat format = ClipboardFormats.findByFile(schematicFile);
-            if (format == null) {
-                plugin.getLogger().severe("Unknown schematic format for file: " + schematicFile.getName());
-                return;
-            }
-            try (ClipboardReader reader = format.getReader(new FileInputStream(schematicFile))) {
-                Clipboard clipboard = reader.read();
-                com.sk89q.worldedit.world.World weWorld = BukkitAdapter.adapt(location.getWorld());
-                try (EditSession editSession = WorldEdit.getInstance().getEditSessionFactory().getEditSession(weWorld, -1)) {
-                    Operation operation = new ClipboardHolder(clipboard)
-                            .createPaste(editSession)
-                            .to(BlockVector3.at(location.getBlockX(), location.getBlockY(), location.getBlockZ()))
-                            .ignoreAirBlocks(false)
-                            .build();
-                    Operations.complete(operation);
-                    editSession.flushSession();
-                }
-            }
-        } catch (Exception e) {
+    public CompletableFuture<Void> pasteSchematic(@NotNull File schematicFile, @NotNull Location location) {
+        CompletableFuture<Void> future = pasteQueue.paste(schematicFile, location);
+        future.exceptionally(e -> {
             plugin.getLogger().severe("Failed to paste schematic " + schematicFile.getName() + ": " + e.getMessage());
-        }
+            return null;
+        });
+        return future;
     }
 
     /**
      * Starts repeating tasks for updating scoreboards and spawning weeds. Scoreboards
-     * are updated every second (20 ticks) while weed tasks run every in-game
-     * day (24000 ticks). These tasks are cancelled automatically on plugin
-     * disable.
+     * are updated every second (20 ticks). Farms degrade once per in-game day
+     * (24000 ticks); the farms of online players are evaluated each at their
+     * own time of day, so the day task runs every tick and only handles the
+     * farms whose turn it is. The paste queue, the island pool refill task
+     * and the periodic save of changed farms are started here as well. These
+     * tasks are cancelled automatically on plugin disable.
      */
     public void startTasks() {
-        // Scoreboard task: update both farm and market scoreboards every second
-        this.scoreboardTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            updateFarmScoreboards();
-            updateMarketScoreboards();
-        }, 20L, 20L);
-        // Weed task: degrade farms each in-game day
-        this.weedTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            for (Farm farm : farms.values()) {
-                farm.tickDay();
+        pasteQueue.start();
+        // Resume pool islands and island clears that were interrupted by a restart
+        if (farmWorld != null) {
+            for (Integer slot : new ArrayList<>(pendingIslands)) {
+                startPoolIsland(slot);
+            }
+            for (Integer slot : new ArrayList<>(clearingIslands)) {
+                clearIsland(slot);
+            }
+        }
+        // Flush task: save changed farms in the background
+        this.flushTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> flushFarms(false),
+                flushInterval, flushInterval);
+        // Pool task: keep pre-built islands ready while the server is quiet
+        this.poolTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> refillIslandPool(),
+                islandPoolRefillInterval, islandPoolRefillInterval);
+        // Activity task: hold the chunks of islands in use and release dormant ones
+        this.activityTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> updateIslandActivity(),
+                20L, activityInterval);
+        // Change task: publish coalesced farm and balance changes once per tick
+        this.changeTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> {
+            farmChanges.flush();
+            economyManager.getChangeTracker().flush();
+        }, 1L, 1L);
+        // Scoreboard task: update both farm and market scoreboards every second.
+        // Folia has no scoreboard API, so the sidebars are Paper only.
+        if (Platform.isFolia()) {
+            plugin.getLogger().info("Running on Folia, farm and market sidebars are disabled.");
+        } else {
+            this.scoreboardTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> {
+                updateFarmScoreboards();
+                updateMarketScoreboards();
+            }, 20L, 20L);
+        }
+        // Day task: advance the day clock and evaluate the farms whose turn it is.
+        // Only online players' farms are scheduled; the rest catch up when read,
+        // or at the end of the day when the state table engine is enabled.
+        this.dayTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> {
+            daySchedule.tick();
+            long tick = daySchedule.getTick() % DAY_TICKS;
+            if (tick == 0) {
+                metaDirty = true;
+            } else if (tick == DAY_TICKS - 1 && stateTable != null) {
+                // Every farm's phase has passed by the last tick of the day
+                runStateTable();
             }
-        }, 24000L, 24000L);
+        }, 1L, 1L);
     }
 
     /**
@@ -479,50 +1454,52 @@ public class FarmManager implements Listener {
      */
     public void stopTasks() {
         if (scoreboardTask != null) scoreboardTask.cancel();
-        if (weedTask != null) weedTask.cancel();
+        if (dayTask != null) dayTask.cancel();
+        // Save the day clock exactly, it is otherwise only written once a day
+        metaDirty = true;
+        if (poolTask != null) poolTask.cancel();
+        if (changeTask != null) changeTask.cancel();
+        if (activityTask != null) activityTask.cancel();
+        // The server drops this plugin's chunk tickets when it is disabled
+        trackedIslands.clear();
+        if (flushTask != null) flushTask.cancel();
+        pasteQueue.stop();
     }
 
     /**
      * Update scoreboard for all players in the farm world. Each player gets a
-     * personalised scoreboard showing farm stats and RC balance. Scoreboard
-     * entries are recreated each update to reflect changes without flickering.
+     * personalised sidebar showing farm stats and RC balance. This pass only
+     * refreshes the day and season and creates or removes sidebars; stats and
+     * balances are filled in when a sidebar is created and afterwards only
+     * when a change notification arrives. Lines are only sent to the client
+     * when their text changed since the last update.
      */
     private void updateFarmScoreboards() {
         if (farmWorld == null) return;
+        // Day and season are the same for everyone in the world
+        long time = farmWorld.getFullTime();
+        int day = (int) (time / 24000L) + 1;
+        String dayLine = dayLines.get(day);
+        String seasonLine = SEASON_LINES[((day - 1) / 20) % SEASON_LINES.length];
         // Update scoreboards for players currently in the farm world
         for (Player player : farmWorld.getPlayers()) {
             Farm farm = farms.get(player.getUniqueId());
             // Only show scoreboard if player owns a farm; otherwise revert
             if (farm == null) {
-                player.setScoreboard(Bukkit.getScoreboardManager().getMainScoreboard());
+                playerFarmBoards.remove(player.getUniqueId());
+                showMainScoreboard(player);
                 continue;
             }
-            Scoreboard scoreboard = playerFarmBoards.computeIfAbsent(player.getUniqueId(), id -> Bukkit.getScoreboardManager().getNewScoreboard());
-            Objective obj = scoreboard.getObjective("farm");
-            if (obj == null) {
-                obj = scoreboard.registerNewObjective("farm", org.bukkit.scoreboard.Criteria.DUMMY, Component.text("Rooster Farm", NamedTextColor.GOLD));
-                obj.setDisplaySlot(DisplaySlot.SIDEBAR);
-            }
-            // Clear previous entries
-            for (String entry : scoreboard.getEntries()) {
-                scoreboard.resetScores(entry);
-            }
-            // Compute day and season
-            long time = farmWorld.getFullTime();
-            int day = (int) (time / 24000L) + 1;
-            String[] seasons = {"Spring", "Summer", "Autumn", "Winter"};
-            int seasonIndex = ((day - 1) / 20) % seasons.length;
-            String season = seasons[seasonIndex];
-            int score = 7;
-            obj.getScore("§fDay: " + day).setScore(score--);
-            obj.getScore("§fSeason: " + season).setScore(score--);
-            obj.getScore("§fUpkeep: " + String.format("%.0f%%", farm.getUpkeep())).setScore(score--);
-            obj.getScore("§fCrops: " + String.format("%.0f%%", farm.getCropHealth())).setScore(score--);
-            obj.getScore("§fAnimals: " + String.format("%.0f%%", farm.getAnimalHealth())).setScore(score--);
-            obj.getScore("§fWeeds: " + farm.getWeedCount()).setScore(score--);
-            double balance = economyManager.getBalance(player);
-            obj.getScore("§fBalance: " + String.format("%.1f RC", balance)).setScore(score--);
-            player.setScoreboard(scoreboard);
+            Sidebar sidebar = playerFarmBoards.get(player.getUniqueId());
+            if (sidebar == null) {
+                sidebar = new Sidebar("farm", Component.text("Rooster Farm", NamedTextColor.GOLD), 7);
+                playerFarmBoards.put(player.getUniqueId(), sidebar);
+                renderFarmStats(sidebar, farm, ALL_FARM_FIELDS);
+                sidebar.setLine(6, balanceLine(economyManager.getBalance(player)));
+            }
+            sidebar.setLine(0, dayLine);
+            sidebar.setLine(1, seasonLine);
+            sidebar.show(player);
         }
         // Remove scoreboards for players who have left the farm world
         for (UUID uuid : new HashSet<>(playerFarmBoards.keySet())) {
@@ -530,7 +1507,7 @@ public class FarmManager implements Listener {
             if (player == null || !player.getWorld().equals(farmWorld)) {
                 playerFarmBoards.remove(uuid);
                 if (player != null) {
-                    player.setScoreboard(Bukkit.getScoreboardManager().getMainScoreboard());
+                    showMainScoreboard(player);
                 }
             }
         }
@@ -544,23 +1521,16 @@ public class FarmManager implements Listener {
     private void updateMarketScoreboards() {
         if (marketWorld == null) return;
         for (Player player : marketWorld.getPlayers()) {
-            Scoreboard scoreboard = playerMarketBoards.computeIfAbsent(player.getUniqueId(), id -> Bukkit.getScoreboardManager().getNewScoreboard());
-            Objective obj = scoreboard.getObjective("market");
-            if (obj == null) {
-                obj = scoreboard.registerNewObjective("market", org.bukkit.scoreboard.Criteria.DUMMY, Component.text("Rooster Market", NamedTextColor.GOLD));
-                obj.setDisplaySlot(DisplaySlot.SIDEBAR);
-            }
-            // Clear previous entries
-            for (String entry : scoreboard.getEntries()) {
-                scoreboard.resetScores(entry);
+            Sidebar sidebar = playerMarketBoards.get(player.getUniqueId());
+            if (sidebar == null) {
+                sidebar = new Sidebar("market", Component.text("Rooster Market", NamedTextColor.GOLD), 3);
+                playerMarketBoards.put(player.getUniqueId(), sidebar);
+                sidebar.setLine(0, "§fPlayer: " + player.getName());
+                sidebar.setLine(2, balanceLine(economyManager.getBalance(player)));
             }
             Location loc = player.getLocation();
-            int score = 4;
-            obj.getScore("§fPlayer: " + player.getName()).setScore(score--);
-            obj.getScore(String.format("§fPos: %d, %d, %d", loc.getBlockX(), loc.getBlockY(), loc.getBlockZ())).setScore(score--);
-            double balance = economyManager.getBalance(player);
-            obj.getScore("§fBalance: " + String.format("%.1f RC", balance)).setScore(score--);
-            player.setScoreboard(scoreboard);
+            sidebar.setLine(1, "§fPos: " + loc.getBlockX() + ", " + loc.getBlockY() + ", " + loc.getBlockZ());
+            sidebar.show(player);
         }
         // Players not in market world should revert scoreboard
         for (UUID uuid : new HashSet<>(playerMarketBoards.keySet())) {
@@ -568,12 +1538,68 @@ public class FarmManager implements Listener {
             if (player == null || !player.getWorld().equals(marketWorld)) {
                 playerMarketBoards.remove(uuid);
                 if (player != null) {
-                    player.setScoreboard(Bukkit.getScoreboardManager().getMainScoreboard());
+                    showMainScoreboard(player);
                 }
             }
         }
     }
 
+    /**
+     * Refresh the farm stat lines selected by the changed field bits.
+     */
+    private void renderFarmStats(@NotNull Sidebar sidebar, @NotNull Farm farm, int fields) {
+        if ((fields & Farm.FIELD_UPKEEP) != 0) {
+            sidebar.setLine(2, upkeepLines.get(Math.round(farm.getUpkeep())));
+        }
+        if ((fields & Farm.FIELD_CROP_HEALTH) != 0) {
+            sidebar.setLine(3, cropLines.get(Math.round(farm.getCropHealth())));
+        }
+        if ((fields & Farm.FIELD_ANIMAL_HEALTH) != 0) {
+            sidebar.setLine(4, animalLines.get(Math.round(farm.getAnimalHealth())));
+        }
+        if ((fields & Farm.FIELD_WEEDS) != 0) {
+            sidebar.setLine(5, weedLines.get(farm.getWeedCount()));
+        }
+    }
+
+    /**
+     * Change subscriber: update the sidebars of owners whose farm changed.
+     */
+    private void onFarmChanges(@NotNull Map<UUID, Integer> changes) {
+        for (Map.Entry<UUID, Integer> change : changes.entrySet()) {
+            Sidebar sidebar = playerFarmBoards.get(change.getKey());
+            Farm farm = farms.get(change.getKey());
+            if (sidebar != null && farm != null) {
+                renderFarmStats(sidebar, farm, change.getValue());
+            }
+        }
+    }
+
+    /**
+     * Change subscriber: update the balance line of players whose balance changed.
+     */
+    private void onBalanceChanges(@NotNull Map<UUID, Integer> changes) {
+        for (UUID uuid : changes.keySet()) {
+            Sidebar farmBoard = playerFarmBoards.get(uuid);
+            Sidebar marketBoard = playerMarketBoards.get(uuid);
+            if (farmBoard == null && marketBoard == null) continue;
+            String line = balanceLine(economyManager.getBalance(uuid));
+            if (farmBoard != null) farmBoard.setLine(6, line);
+            if (marketBoard != null) marketBoard.setLine(2, line);
+        }
+    }
+
+    private String balanceLine(double balance) {
+        return balanceLines.get(Math.round(balance * 10.0));
+    }
+
+    private void showMainScoreboard(@NotNull Player player) {
+        Scoreboard main = Bukkit.getScoreboardManager().getMainScoreboard();
+        if (player.getScoreboard() != main) {
+            player.setScoreboard(main);
+        }
+    }
+
     /**
      * Event listener: prevent players from breaking blocks on farms they do not
      * own or have been trusted to interact with. This ensures that farms are
@@ -581,41 +1607,23 @@ public class FarmManager implements Listener {
      */
     @EventHandler
     public void onBlockBreak(BlockBreakEvent event) {
-        Location loc = event.getBlock().getLocation();
-        Farm farm = findFarmAtLocation(loc);
-        if (farm != null) {
-            Player player = event.getPlayer();
-            if (!farm.isTrusted(player.getUniqueId())) {
-                player.sendMessage("§cYou are not trusted on this farm!");
-                event.setCancelled(true);
-            }
+        if (!mayModify(event.getPlayer(), event.getBlock().getLocation())) {
+            event.setCancelled(true);
         }
     }
 
     @EventHandler
     public void onBlockPlace(BlockPlaceEvent event) {
-        Location loc = event.getBlock().getLocation();
-        Farm farm = findFarmAtLocation(loc);
-        if (farm != null) {
-            Player player = event.getPlayer();
-            if (!farm.isTrusted(player.getUniqueId())) {
-                player.sendMessage("§cYou are not trusted on this farm!");
-                event.setCancelled(true);
-            }
+        if (!mayModify(event.getPlayer(), event.getBlock().getLocation())) {
+            event.setCancelled(true);
         }
     }
 
     @EventHandler
     public void onInteract(PlayerInteractEvent event) {
         if (event.getClickedBlock() == null) return;
-        Location loc = event.getClickedBlock().getLocation();
-        Farm farm = findFarmAtLocation(loc);
-        if (farm != null) {
-            Player player = event.getPlayer();
-            if (!farm.isTrusted(player.getUniqueId())) {
-                player.sendMessage("§cYou are not trusted on this farm!");
-                event.setCancelled(true);
-            }
+        if (!mayModify(event.getPlayer(), event.getClickedBlock().getLocation())) {
+            event.setCancelled(true);
         }
     }
 
@@ -628,15 +1636,136 @@ public class FarmManager implements Listener {
     @EventHandler
     public void onJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
+        // Uses the farm preloaded during login; online players' farms are never evicted
+        if (farms.containsKey(player.getUniqueId())) {
+            daySchedule.add(player.getUniqueId());
+        } else {
+            // Still being read; it is scheduled when it is attached
+            preloadFarm(player.getUniqueId());
+        }
+        synchronized (offlineFarms) {
+            offlineFarms.remove(player.getUniqueId());
+        }
+        updateStandingOn(player.getUniqueId(), player.getLocation());
+        if (Platform.isFolia()) return;
         // Force scoreboard update on next tick
-        Bukkit.getScheduler().runTask(plugin, () -> {
+        player.getScheduler().run(plugin, task -> {
             if (player.getWorld().equals(farmWorld)) {
                 updateFarmScoreboards();
             } else if (player.getWorld().equals(marketWorld)) {
                 updateMarketScoreboards();
             } else {
-                player.setScoreboard(Bukkit.getScoreboardManager().getMainScoreboard());
+                showMainScoreboard(player);
+            }
+        }, null);
+    }
+
+    /**
+     * Event listener: read the farm of a player who is logging in on the
+     * login thread, so it is ready by the time they join.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+        CompletableFuture<Farm> read = preloadFarm(event.getUniqueId());
+        if (read == null) return;
+        try {
+            read.get(5, TimeUnit.SECONDS);
+        } catch (Exception ignored) {
+            // The farm is loaded on join instead; failures are logged there
+        }
+    }
+
+    /**
+     * Event listener: once a player leaves, their farm becomes eligible for
+     * eviction. The eviction runs on the global region thread, so the change
+     * subscribers it flushes never run on the quitting player's region.
+     */
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        playerFarmBoards.remove(uuid);
+        playerMarketBoards.remove(uuid);
+        standingOn.remove(uuid);
+        daySchedule.remove(uuid);
+        Bukkit.getGlobalRegionScheduler().execute(plugin, () -> {
+            // The player may have joined again meanwhile; online farms are never evicted
+            if (Bukkit.getPlayer(uuid) != null) return;
+            Farm farm = farms.get(uuid);
+            if (farm != null) {
+                synchronized (offlineFarms) {
+                    offlineFarms.put(uuid, farm);
+                    trimOfflineFarms();
+                }
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Event listener: record the island a player walks onto. Only moves to
+     * another block are looked at.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (from.getBlockX() == to.getBlockX() && from.getBlockZ() == to.getBlockZ()
+                && from.getWorld() == to.getWorld()) return;
+        updateStandingOn(event.getPlayer().getUniqueId(), to);
+    }
+
+    /**
+     * Event listener: record the island a player teleports onto.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        updateStandingOn(event.getPlayer().getUniqueId(), event.getTo());
+    }
+
+    /**
+     * Event listener: record the island a player respawns on.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        updateStandingOn(event.getPlayer().getUniqueId(), event.getRespawnLocation());
+    }
+
+    private void updateStandingOn(@NotNull UUID player, @NotNull Location location) {
+        UUID island = farmWorld != null && farmWorld.equals(location.getWorld())
+                ? islandGrid.get(location.getX(), location.getZ()) : null;
+        if (island != null) {
+            standingOn.put(player, island);
+        } else {
+            standingOn.remove(player);
+        }
+    }
+
+    /**
+     * Event listener: start loading a farm when a chunk of its island is
+     * loaded, so protection checks there do not have to wait for storage.
+     */
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (farmWorld == null || !event.getWorld().equals(farmWorld)) return;
+        UUID owner = islandGrid.get((event.getChunk().getX() << 4) + 8, (event.getChunk().getZ() << 4) + 8);
+        if (owner != null && !farms.containsKey(owner)) {
+            preloadFarm(owner);
+        }
+    }
+
+    /**
+     * An island holding chunk tickets, identified by its grid cell.
+     */
+    private static final class TrackedIsland {
+        private final int cellX;
+        private final int cellZ;
+        private volatile IslandActivity activity = IslandActivity.ACTIVE;
+        // When the island became idle, in epoch milliseconds
+        private long idleSince = 0L;
+
+        private TrackedIsland(int cellX, int cellZ) {
+            this.cellX = cellX;
+            this.cellZ = cellZ;
+        }
+    }
+}
@@ -1,94 +1,113 @@
 package com.rooster.ranch.manager;
 
+import com.rooster.ranch.economy.Ledger;
+import com.rooster.ranch.gui.Menu;
+import com.rooster.ranch.gui.MenuAction;
+import com.rooster.ranch.market.PriceTable;
+import com.rooster.ranch.market.PricingEngine;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
-import org.bukkit.NamespacedKey;
-import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Villager;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
-import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.player.PlayerInteractEntityEvent;
-import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.InventoryView;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.persistence.PersistentDataContainer;
-import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.java.JavaPlugin;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * Handles the community market functionality. A single market vendor is spawned
  * in the market world and offers a range of goods to buy or sell. Players can
- * interact with the vendor to open a custom GUI. Prices are defined in this
- * class and transactions use the {@link EconomyManager} for RC balance
- * adjustments.
+ * interact with the vendor to open a custom GUI. Prices come from the
+ * {@link PricingEngine}, which follows supply and demand from the configured
+ * base prices, and transactions use the {@link EconomyManager} for RC
+ * balance adjustments. Buying and selling can be done one item, one stack or, for
+ * selling, everything at a time; every trade is a single pass over the
+ * player's inventory, one balance change and one message.
+ *
+ * Every player gets their own menu, so repricing never touches an inventory
+ * someone on another region thread is looking at. The menu slots are drawn
+ * once per published price table on the global region thread, redrawing
+ * only the slots whose price changed; opening a menu copies them.
  */
 public class MarketManager implements Listener {
     private final JavaPlugin plugin;
     private final EconomyManager economyManager;
-    private final Map<Material, Double> buyPrices = new HashMap<>();
-    private final Map<Material, Double> sellPrices = new HashMap<>();
-    private Inventory buyInventory;
-    private Inventory sellInventory;
-    private NamespacedKey priceKey;
+    private final PricingEngine pricing;
+    private final MenuAction[] buyActions = new MenuAction[27];
+    private final MenuAction[] sellActions = new MenuAction[27];
+    // Slots drawn from the latest price table; replaced as a whole, never changed
+    private volatile Page page;
+
+    /**
+     * The menu slots drawn from one price table.
+     */
+    private record Page(PriceTable prices, ItemStack[] buy, ItemStack[] sell) {
+    }
 
     public MarketManager(JavaPlugin plugin, EconomyManager economyManager) {
         this.plugin = plugin;
         this.economyManager = economyManager;
-        // Define buy prices (players pay RC to obtain the item)
-        buyPrices.put(Material.WHEAT_SEEDS, 2.0);
-        buyPrices.put(Material.CARROT, 3.0);
-        buyPrices.put(Material.POTATO, 3.0);
-        buyPrices.put(Material.COW_SPAWN_EGG, 50.0);
-        buyPrices.put(Material.CHICKEN_SPAWN_EGG, 20.0);
-        buyPrices.put(Material.SHEEP_SPAWN_EGG, 30.0);
-        // Milk bucket constant changed name in newer versions (Paper 1.21)
-        buyPrices.put(Material.MILK_BUCKET, 5.0);
-        buyPrices.put(Material.BREAD, 4.0);
-        // Define sell prices (players get RC when selling)
-        sellPrices.put(Material.WHEAT, 1.0);
-        sellPrices.put(Material.CARROT, 1.5);
-        sellPrices.put(Material.POTATO, 1.5);
-        sellPrices.put(Material.EGG, 0.5);
-        sellPrices.put(Material.BEEF, 2.0);
-        // Build GUI inventories
-        buildInventories();
-        this.priceKey = new NamespacedKey(plugin, "price");
+        ConfigurationSection config = plugin.getConfig().getConfigurationSection("market");
+        if (config == null) {
+            config = plugin.getConfig().createSection("market");
+        }
+        long interval = Math.max(1L, config.getLong("reprice-interval-seconds", 60L)) * 20L;
+        this.pricing = new PricingEngine(config, interval, plugin.getLogger());
+        warnIfFull(pricing.getBuyMaterials(), 26, "buy");
+        warnIfFull(pricing.getSellMaterials(), 25, "sell");
+        createActions();
+        this.page = render(null, pricing.getPrices());
         // Register listeners
         Bukkit.getPluginManager().registerEvents(this, plugin);
+        // Open menus keep their items; menus opened later copy the redrawn slots
+        Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> {
+            pricing.reprice();
+            PriceTable prices = pricing.getPrices();
+            if (prices != page.prices()) {
+                page = render(page, prices);
+            }
+        }, interval, interval);
     }
 
     /**
      * Spawns the market vendor NPC in the market world. The NPC is a villager
      * without AI and with a custom name so players can easily find and
      * interact with the market. If the vendor already exists, this method
-     * returns without creating a duplicate.
+     * returns without creating a duplicate. The work runs on the region that
+     * owns the vendor's position.
      */
     public void spawnVendor(@NotNull org.bukkit.World marketWorld) {
-        // Check if a vendor already exists
-        for (var entity : marketWorld.getEntities()) {
-            if (entity instanceof Villager villager && villager.customName() != null
-                    && villager.customName().equals(Component.text("Market Vendor", NamedTextColor.GOLD))) {
-                return; // Vendor already present
-            }
-        }
         // Spawn new vendor on the market walkway. Determine the highest solid block at
         // the desired X/Z coordinate (approx. x=16, z=-5) and place the villager one
         // block above. This ensures the vendor stands on the path rather than
         // floating in mid‑air.
         int spawnX = 16;
         int spawnZ = -5;
+        Bukkit.getRegionScheduler().execute(plugin, marketWorld, spawnX >> 4, spawnZ >> 4,
+                () -> spawnVendorAt(marketWorld, spawnX, spawnZ));
+    }
+
+    private void spawnVendorAt(@NotNull org.bukkit.World marketWorld, int spawnX, int spawnZ) {
+        // Check if a vendor already exists
+        var around = new org.bukkit.Location(marketWorld, spawnX + 0.5, 100, spawnZ + 0.5);
+        for (Villager villager : around.getNearbyEntitiesByType(Villager.class, 32)) {
+            if (villager.customName() != null
+                    && villager.customName().equals(Component.text("Market Vendor", NamedTextColor.GOLD))) {
+                return; // Vendor already present
+            }
+        }
         // Drop the vendor 9 blocks lower than the default highest‑block spawn. This
         // prevents the villager from standing in the tree canopy.
         int highestY = marketWorld.getHighestBlockYAt(spawnX, spawnZ);
@@ -106,60 +125,153 @@ public class MarketManager implements Listener {
         villager.setRotation(180f, 0f);
     }
 
+    private void warnIfFull(java.util.List<Material> materials, int slots, String menu) {
+        for (int i = slots; i < materials.size(); i++) {
+            plugin.getLogger().warning("The market " + menu + " menu is full; " + materials.get(i).name() + " is not shown.");
+        }
+    }
+
     /**
-     * Build the buy and sell inventories. Each slot contains an item with a
-     * display name and lore containing its price. We attach a PersistentData
-     * key to store the price on the item, allowing us to determine cost when
-     * clicked without referencing maps.
+     * Set what each market slot does. Buy slots buy one item or, with shift,
+     * a stack; sell slots sell one item, a stack or all of it. Trades use the
+     * prices current when they are clicked. The bottom-right slot switches
+     * menus and the one next to it in the sell menu sells everything
+     * sellable at once.
      */
-    private void buildInventories() {
-        buyInventory = Bukkit.createInventory(null, 27, "Market: Buy Items");
-        sellInventory = Bukkit.createInventory(null, 27, "Market: Sell Items");
-        // Populate buy inventory
-        int buySlot = 0;
-        for (Map.Entry<Material, Double> entry : buyPrices.entrySet()) {
-            ItemStack item = new ItemStack(entry.getKey());
-            ItemMeta meta = item.getItemMeta();
-            assert meta != null;
-            meta.displayName(Component.text(entry.getKey().name(), NamedTextColor.GREEN));
-            java.util.List<Component> lore = new java.util.ArrayList<>();
-            lore.add(Component.text("Price: " + entry.getValue() + " RC", NamedTextColor.YELLOW));
-            meta.lore(lore);
-            // Store price in persistent data
-            meta.getPersistentDataContainer().set(new NamespacedKey(plugin, "price"), PersistentDataType.DOUBLE, entry.getValue());
-            // Mark as buy item
-            meta.getPersistentDataContainer().set(new NamespacedKey(plugin, "type"), PersistentDataType.STRING, "buy");
-            item.setItemMeta(meta);
-            buyInventory.setItem(buySlot++, item);
+    private void createActions() {
+        int slot = 0;
+        for (Material material : pricing.getBuyMaterials()) {
+            if (slot == 26) break;
+            buyActions[slot++] = (player, click) ->
+                    buy(player, material, click.isShiftClick() ? material.getMaxStackSize() : 1);
         }
-        // Populate sell inventory
-        int sellSlot = 0;
-        for (Map.Entry<Material, Double> entry : sellPrices.entrySet()) {
-            ItemStack item = new ItemStack(entry.getKey());
-            ItemMeta meta = item.getItemMeta();
-            assert meta != null;
-            meta.displayName(Component.text(entry.getKey().name(), NamedTextColor.RED));
-            java.util.List<Component> lore = new java.util.ArrayList<>();
-            lore.add(Component.text("Sell: " + entry.getValue() + " RC per item", NamedTextColor.YELLOW));
-            meta.lore(lore);
-            meta.getPersistentDataContainer().set(new NamespacedKey(plugin, "price"), PersistentDataType.DOUBLE, entry.getValue());
-            meta.getPersistentDataContainer().set(new NamespacedKey(plugin, "type"), PersistentDataType.STRING, "sell");
-            item.setItemMeta(meta);
-            sellInventory.setItem(sellSlot++, item);
+        buyActions[26] = (player, click) -> switchMenu(player, sellMenu());
+        slot = 0;
+        for (Material material : pricing.getSellMaterials()) {
+            if (slot == 25) break;
+            sellActions[slot++] = (player, click) -> {
+                int limit;
+                if (click.isShiftClick()) {
+                    limit = material.getMaxStackSize();
+                } else if (click.isRightClick()) {
+                    limit = Integer.MAX_VALUE;
+                } else {
+                    limit = 1;
+                }
+                sell(player, material, limit);
+            };
         }
+        sellActions[25] = (player, click) -> sell(player, null, Integer.MAX_VALUE);
+        sellActions[26] = (player, click) -> switchMenu(player, buyMenu());
     }
 
     /**
-     * Open the market GUI (buy or sell) for a player. Players right-click
-     * the vendor to open the buy inventory. A button in the corner toggles
-     * between buying and selling.
+     * Draw the menu slots for a price table. Slots whose price is the same
+     * as in the previous page keep their item, so a reprice only builds the
+     * items of the materials whose price moved.
+     *
+     * @param previous the page drawn from the previous table, or null to draw everything
+     * @param prices   the table to draw
      */
-    private void openMarketGUI(Player player, boolean selling) {
-        if (selling) {
-            player.openInventory(sellInventory);
+    private Page render(Page previous, PriceTable prices) {
+        ItemStack[] buy;
+        ItemStack[] sell;
+        if (previous == null) {
+            buy = new ItemStack[27];
+            sell = new ItemStack[27];
+            buy[26] = button(Material.GOLD_INGOT, "Sell Items", "Switch to selling");
+            sell[25] = button(Material.HOPPER, "Sell Everything", "Sell every sellable item you carry");
+            sell[26] = button(Material.EMERALD, "Buy Items", "Switch to buying");
         } else {
-            player.openInventory(buyInventory);
+            buy = previous.buy().clone();
+            sell = previous.sell().clone();
+        }
+        int slot = 0;
+        for (Material material : pricing.getBuyMaterials()) {
+            if (slot == 26) break;
+            long price = prices.buyPrice(material);
+            if (previous == null || previous.prices().buyPrice(material) != price) {
+                buy[slot] = buyItem(material, price);
+            }
+            slot++;
         }
+        slot = 0;
+        for (Material material : pricing.getSellMaterials()) {
+            if (slot == 25) break;
+            long price = prices.sellPrice(material);
+            if (previous == null || previous.prices().sellPrice(material) != price) {
+                sell[slot] = sellItem(material, price);
+            }
+            slot++;
+        }
+        return new Page(prices, buy, sell);
+    }
+
+    /**
+     * Create a buy menu for one player from the slots of the latest page.
+     */
+    private Menu buyMenu() {
+        return new Menu("Market: Buy Items", page.buy(), buyActions);
+    }
+
+    /**
+     * Create a sell menu for one player from the slots of the latest page.
+     */
+    private Menu sellMenu() {
+        return new Menu("Market: Sell Items", page.sell(), sellActions);
+    }
+
+    private ItemStack buyItem(Material material, long price) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        assert meta != null;
+        meta.displayName(Component.text(material.name(), NamedTextColor.GREEN));
+        java.util.List<Component> lore = new java.util.ArrayList<>();
+        lore.add(Component.text("Price: " + formatRc(price) + " RC", NamedTextColor.YELLOW));
+        lore.add(Component.text("Shift-click to buy a stack", NamedTextColor.GRAY));
+        meta.lore(lore);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    private ItemStack sellItem(Material material, long price) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        assert meta != null;
+        meta.displayName(Component.text(material.name(), NamedTextColor.RED));
+        java.util.List<Component> lore = new java.util.ArrayList<>();
+        lore.add(Component.text("Sell: " + formatRc(price) + " RC per item", NamedTextColor.YELLOW));
+        lore.add(Component.text("Click to sell one", NamedTextColor.GRAY));
+        lore.add(Component.text("Shift-click to sell a stack", NamedTextColor.GRAY));
+        lore.add(Component.text("Right-click to sell all", NamedTextColor.GRAY));
+        meta.lore(lore);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    private static String formatRc(long minor) {
+        return String.format("%.2f", Ledger.toRc(minor));
+    }
+
+    /**
+     * Create a GUI button item.
+     */
+    private ItemStack button(Material material, String name, String description) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        assert meta != null;
+        meta.displayName(Component.text(name, NamedTextColor.GOLD));
+        meta.lore(java.util.List.of(Component.text(description, NamedTextColor.GRAY)));
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    /**
+     * Open another market menu from a click in the current one.
+     */
+    private void switchMenu(Player player, Menu menu) {
+        // Inventories must not be switched from inside their own click event
+        player.getScheduler().run(plugin, task -> menu.open(player), null);
     }
 
     @EventHandler
@@ -168,65 +280,92 @@ public class MarketManager implements Listener {
         if (villager.customName() == null) return;
         if (!villager.customName().equals(Component.text("Market Vendor", NamedTextColor.GOLD))) return;
         event.setCancelled(true);
-        openMarketGUI(event.getPlayer(), false);
+        buyMenu().open(event.getPlayer());
     }
 
     /**
-     * Handle clicks in the market inventories. If the player clicks on a buy
-     * item, we attempt to withdraw RC equal to the price and give the item.
-     * If the player clicks on a sell item, we remove one item from the
-     * player's inventory and deposit RC.
+     * Buy up to a number of items, limited by the free space in the player's
+     * inventory. The space is counted in one pass over the inventory and the
+     * whole purchase is one withdrawal.
      */
-    @EventHandler
-    public void onInventoryClick(InventoryClickEvent event) {
-        InventoryView view = event.getView();
-        if (view == null) return;
-        String title = view.getTitle();
-        if (!title.startsWith("Market: ")) return;
-        event.setCancelled(true);
-        Player player = (Player) event.getWhoClicked();
-        ItemStack clicked = event.getCurrentItem();
-        if (clicked == null || !clicked.hasItemMeta()) return;
-        ItemMeta meta = clicked.getItemMeta();
-        PersistentDataContainer data = meta.getPersistentDataContainer();
-        Double price = data.get(new NamespacedKey(plugin, "price"), PersistentDataType.DOUBLE);
-        String type = data.get(new NamespacedKey(plugin, "type"), PersistentDataType.STRING);
-        if (price == null || type == null) return;
-        UUID uuid = player.getUniqueId();
-        switch (type) {
-            case "buy" -> {
-                double balance = economyManager.getBalance(uuid);
-                if (balance < price) {
-                    player.sendMessage(ChatColor.RED + "You do not have enough RC to buy this.");
-                    return;
-                }
-                // Deduct and give
-                economyManager.withdraw(uuid, price);
-                ItemStack toGive = new ItemStack(clicked.getType());
-                player.getInventory().addItem(toGive);
-                player.sendMessage(ChatColor.GREEN + "Purchased " + clicked.getType().name() + " for " + price + " RC.");
-            }
-            case "sell" -> {
-                Material sellMat = clicked.getType();
-                // Check if player has at least one item
-                int count = 0;
-                for (ItemStack item : player.getInventory().getContents()) {
-                    if (item != null && item.getType() == sellMat) {
-                        count += item.getAmount();
-                    }
-                }
-                if (count <= 0) {
-                    player.sendMessage(ChatColor.RED + "You have none of that item to sell.");
-                    return;
-                }
-                // Remove one item and deposit price
-                player.getInventory().removeItem(new ItemStack(sellMat, 1));
-                economyManager.deposit(uuid, price);
-                player.sendMessage(ChatColor.GREEN + "Sold 1 " + sellMat.name() + " for " + price + " RC.");
+    private void buy(Player player, Material material, int amount) {
+        PlayerInventory inventory = player.getInventory();
+        ItemStack single = new ItemStack(material);
+        int maxStack = material.getMaxStackSize();
+        int space = 0;
+        for (ItemStack item : inventory.getStorageContents()) {
+            if (item == null || item.getType().isAir()) {
+                space += maxStack;
+            } else if (item.isSimilar(single)) {
+                space += Math.max(0, maxStack - item.getAmount());
             }
-            default -> {
-                // nothing
+            if (space >= amount) break;
+        }
+        int count = Math.min(amount, space);
+        if (count <= 0) {
+            player.sendMessage(ChatColor.RED + "You have no room for that item.");
+            return;
+        }
+        long cost = pricing.getPrices().buyPrice(material) * count;
+        // Deduct and give; the withdrawal fails if the balance is too low
+        if (!economyManager.withdrawMinor(player.getUniqueId(), cost)) {
+            player.sendMessage(ChatColor.RED + "You do not have enough RC to buy this.");
+            return;
+        }
+        inventory.addItem(new ItemStack(material, count));
+        pricing.recordBought(material, count);
+        player.sendMessage(ChatColor.GREEN + "Purchased " + count + " " + material.name() + " for "
+                + formatRc(cost) + " RC.");
+    }
+
+    /**
+     * Sell items from the player's inventory in one pass: every slot holding
+     * a sellable item is reduced or cleared as it is counted, then the
+     * proceeds are deposited at once and reported in one message. Items with
+     * custom meta such as names or enchantments are never sold.
+     *
+     * @param player   the seller
+     * @param material the material to sell, or null for every sellable material
+     * @param limit    the maximum number of items to sell per material
+     */
+    private void sell(Player player, Material material, int limit) {
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getStorageContents();
+        // One table for the whole trade, even if prices are republished meanwhile
+        PriceTable prices = pricing.getPrices();
+        Map<Material, Integer> sold = new EnumMap<>(Material.class);
+        long proceeds = 0L;
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (item == null || item.hasItemMeta()) continue;
+            Material type = item.getType();
+            if (material != null && type != material) continue;
+            long price = prices.sellPrice(type);
+            if (price == 0) continue;
+            int already = sold.getOrDefault(type, 0);
+            int take = Math.min(item.getAmount(), limit - already);
+            if (take <= 0) continue;
+            sold.put(type, already + take);
+            proceeds += price * take;
+            if (take == item.getAmount()) {
+                inventory.setItem(slot, null);
+            } else {
+                item.setAmount(item.getAmount() - take);
+                inventory.setItem(slot, item);
             }
         }
+        if (sold.isEmpty()) {
+            player.sendMessage(ChatColor.RED + (material != null ? "You have none of that item to sell."
+                    : "You have nothing the market buys."));
+            return;
+        }
+        economyManager.depositMinor(player.getUniqueId(), proceeds);
+        StringBuilder items = new StringBuilder();
+        for (Map.Entry<Material, Integer> entry : sold.entrySet()) {
+            pricing.recordSold(entry.getKey(), entry.getValue());
+            if (items.length() > 0) items.append(", ");
+            items.append(entry.getValue()).append(' ').append(entry.getKey().name());
+        }
+        player.sendMessage(ChatColor.GREEN + "Sold " + items + " for " + formatRc(proceeds) + " RC.");
     }
-}
\ No newline at end of file
+}
@@ -1,54 +1,49 @@
 package com.rooster.ranch.manager;
 
-import org.bukkit.Bukkit;
+import com.rooster.ranch.gui.Menu;
+import com.rooster.ranch.storage.ProfessionRepository;
 import org.bukkit.Material;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
-import org.bukkit.event.inventory.InventoryClickEvent;
-import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.InventoryView;
-import net.kyori.adventure.text.Component;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handles player profession selection and persistence. Players choose a
  * profession via a simple GUI; each profession grants a unique starter kit.
- * Professions are saved to a YAML file and loaded when the plugin starts.
+ * Professions are kept in the configured storage backend and loaded when the
+ * plugin starts. Professions may be read and changed from any thread.
  */
-public class ProfessionManager implements Listener {
+public class ProfessionManager {
     private final JavaPlugin plugin;
-    private final Map<UUID, Profession> professions = new HashMap<>();
-    private File professionFile;
-    private FileConfiguration professionConfig;
+    private final Map<UUID, Profession> professions = new ConcurrentHashMap<>();
+    private final ProfessionRepository repository;
+    // Players whose profession changed since the last save
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final Menu menu;
 
-    public ProfessionManager(JavaPlugin plugin) {
+    public ProfessionManager(JavaPlugin plugin, ProfessionRepository repository) {
         this.plugin = plugin;
+        this.repository = repository;
         loadProfessions();
-        // Register this manager as an event listener for inventory clicks
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        this.menu = buildMenu();
     }
 
     /**
-     * Opens the profession selection GUI for a player. Each profession is
-     * represented by a unique item with a display name. Clicking an item will
-     * assign that profession to the player and close the inventory.
-     *
-     * @param player the player to present with the GUI
+     * Build the profession selection menu. Each profession is represented by
+     * a unique item with a display name. Clicking an item will assign that
+     * profession to the player and close the inventory.
      */
-    public void openProfessionGUI(@NotNull Player player) {
-        Inventory inv = Bukkit.createInventory(null, 9, "Select Profession");
+    private Menu buildMenu() {
+        Menu selection = new Menu(9, "Select Profession");
         int slot = 1;
         for (Profession profession : Profession.values()) {
             Material mat;
@@ -64,38 +59,35 @@ public class ProfessionManager implements Listener {
             ItemMeta meta = item.getItemMeta();
             meta.setDisplayName(profession.getDisplayName());
             item.setItemMeta(meta);
-            inv.setItem(slot++, item);
+            selection.set(slot++, item, (player, click) -> choose(player, profession));
         }
-        player.openInventory(inv);
+        return selection;
     }
 
-    @EventHandler
-    public void onInventoryClick(InventoryClickEvent event) {
-        // Use the InventoryView and title component; Inventory#getTitle() was removed in newer Paper versions.
-        InventoryView view = event.getView();
-        Component title = view.title();
-        if (!Component.text("Select Profession").equals(title)) {
-            return;
-        }
-        event.setCancelled(true);
-        Player player = (Player) event.getWhoClicked();
-        ItemStack clicked = event.getCurrentItem();
-        if (clicked == null || !clicked.hasItemMeta()) return;
-        String name = clicked.getItemMeta().getDisplayName();
-        for (Profession profession : Profession.values()) {
-            if (profession.getDisplayName().equals(name)) {
-                setProfession(player.getUniqueId(), profession);
-                // Give starter kit
-                for (ItemStack kitItem : profession.getStarterKit()) {
-                    if (kitItem != null) {
-                        player.getInventory().addItem(kitItem.clone());
-                    }
+    /**
+     * Opens the profession selection GUI for a player.
+     *
+     * @param player the player to present with the GUI
+     */
+    public void openProfessionGUI(@NotNull Player player) {
+        menu.open(player);
+    }
+
+    private void choose(Player player, Profession profession) {
+        // Inventories must not be changed or closed from inside their own click event
+        player.getScheduler().run(plugin, task -> {
+            // A second click before the menu closed must not hand out another kit
+            if (player.getOpenInventory().getTopInventory() != menu.getInventory()) return;
+            setProfession(player.getUniqueId(), profession);
+            // Give starter kit
+            for (ItemStack kitItem : profession.getStarterKit()) {
+                if (kitItem != null) {
+                    player.getInventory().addItem(kitItem.clone());
                 }
-                player.sendMessage("§aYou are now a " + profession.getDisplayName() + "!");
-                player.closeInventory();
-                return;
             }
-        }
+            player.sendMessage("§aYou are now a " + profession.getDisplayName() + "!");
+            player.closeInventory();
+        }, null);
     }
 
     /**
@@ -116,24 +108,14 @@ public class ProfessionManager implements Listener {
      */
     public void setProfession(@NotNull UUID uuid, @NotNull Profession profession) {
         professions.put(uuid, profession);
+        dirty.add(uuid);
     }
 
     private void loadProfessions() {
         try {
-            if (!plugin.getDataFolder().exists()) {
-                plugin.getDataFolder().mkdirs();
-            }
-            professionFile = new File(plugin.getDataFolder(), "professions.yml");
-            if (!professionFile.exists()) {
-                professionFile.createNewFile();
-            }
-            professionConfig = YamlConfiguration.loadConfiguration(professionFile);
-            for (String key : professionConfig.getKeys(false)) {
+            for (Map.Entry<UUID, String> entry : repository.loadProfessions().entrySet()) {
                 try {
-                    UUID uuid = UUID.fromString(key);
-                    String profName = professionConfig.getString(key);
-                    Profession profession = Profession.valueOf(profName);
-                    professions.put(uuid, profession);
+                    professions.put(entry.getKey(), Profession.valueOf(entry.getValue()));
                 } catch (IllegalArgumentException ignored) {
                     // Skip invalid entries
                 }
@@ -144,14 +126,18 @@ public class ProfessionManager implements Listener {
     }
 
     public void saveProfessions() {
+        if (dirty.isEmpty()) return;
+        Map<UUID, String> changed = new HashMap<>();
+        for (UUID uuid : dirty) {
+            // Removed one by one so changes made meanwhile stay marked
+            dirty.remove(uuid);
+            changed.put(uuid, professions.get(uuid).name());
+        }
         try {
-            if (professionConfig == null || professionFile == null) return;
-            for (Map.Entry<UUID, Profession> entry : professions.entrySet()) {
-                professionConfig.set(entry.getKey().toString(), entry.getValue().name());
-            }
-            professionConfig.save(professionFile);
-        } catch (IOException e) {
+            repository.writeProfessions(changed).join();
+        } catch (Exception e) {
+            dirty.addAll(changed.keySet());
             plugin.getLogger().severe("Failed to save professions: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
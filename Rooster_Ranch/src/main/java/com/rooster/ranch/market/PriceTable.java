@@ -0,0 +1,41 @@
+package com.rooster.ranch.market;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One published set of market prices in minor units. A table never changes
+ * after it is created; the {@link PricingEngine} replaces it as a whole, so
+ * a trade that reads the table once sees consistent prices throughout.
+ *
+ * @param buy  price players pay per item, by material
+ * @param sell price players receive per item, by material
+ */
+public record PriceTable(@NotNull Map<Material, Long> buy, @NotNull Map<Material, Long> sell) {
+    public PriceTable {
+        buy = Collections.unmodifiableMap(copy(buy));
+        sell = Collections.unmodifiableMap(copy(sell));
+    }
+
+    private static Map<Material, Long> copy(Map<Material, Long> prices) {
+        return prices.isEmpty() ? new EnumMap<>(Material.class) : new EnumMap<>(prices);
+    }
+
+    /**
+     * @return the price of buying one item, or 0 if the market does not sell it
+     */
+    public long buyPrice(@NotNull Material material) {
+        return buy.getOrDefault(material, 0L);
+    }
+
+    /**
+     * @return the price paid for one item, or 0 if the market does not buy it
+     */
+    public long sellPrice(@NotNull Material material) {
+        return sell.getOrDefault(material, 0L);
+    }
+}
@@ -0,0 +1,167 @@
+package com.rooster.ranch.market;
+
+import com.rooster.ranch.economy.Ledger;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Prices market goods by supply and demand. Every trade adds its quantity
+ * to the material's bought or sold volume. Volumes decay exponentially with
+ * a configured half-life, so recent trades weigh most and old floods are
+ * forgotten. On each {@link #reprice()} a material's prices are its base
+ * prices scaled by
+ * <pre>
+ *   ((reference + bought) / (reference + sold)) ^ elasticity
+ * </pre>
+ * clamped to the configured minimum and maximum factor: selling a lot of
+ * something lowers what it is worth, buying a lot raises it. The reference
+ * volume keeps small trades from moving prices much.
+ *
+ * Trades only add to striped counters and read the current
+ * {@link PriceTable}; the decayed volumes are kept by the thread that calls
+ * {@link #reprice()}, which folds the counters in and publishes a new table
+ * in one atomic swap.
+ */
+public class PricingEngine {
+    private final List<Material> buyMaterials;
+    private final List<Material> sellMaterials;
+    private final Map<Material, Item> items = new EnumMap<>(Material.class);
+    private final double decay;
+    private final double referenceVolume;
+    private final double minFactor;
+    private final double maxFactor;
+    private final AtomicReference<PriceTable> prices;
+
+    /**
+     * @param config        the {@code market} configuration section
+     * @param intervalTicks ticks between {@link #reprice()} calls
+     * @param logger        logger for configuration problems
+     */
+    public PricingEngine(@NotNull ConfigurationSection config, long intervalTicks, @NotNull Logger logger) {
+        double halfLifeTicks = Math.max(1.0, config.getDouble("half-life-minutes", 60.0)) * 60.0 * 20.0;
+        this.decay = Math.pow(0.5, intervalTicks / halfLifeTicks);
+        this.referenceVolume = Math.max(1.0, config.getDouble("reference-volume", 256.0));
+        this.minFactor = Math.max(0.01, config.getDouble("min-factor", 0.25));
+        this.maxFactor = Math.max(minFactor, config.getDouble("max-factor", 4.0));
+        double elasticity = Math.max(0.0, config.getDouble("elasticity", 0.5));
+        List<Material> buy = new ArrayList<>();
+        List<Material> sell = new ArrayList<>();
+        ConfigurationSection goods = config.getConfigurationSection("items");
+        if (goods != null) {
+            for (String key : goods.getKeys(false)) {
+                Material material = Material.matchMaterial(key);
+                ConfigurationSection entry = goods.getConfigurationSection(key);
+                if (material == null || entry == null) {
+                    logger.warning("Ignoring unknown market item " + key + ".");
+                    continue;
+                }
+                long buyPrice = entry.contains("buy") ? Math.max(1L, Ledger.toMinor(entry.getDouble("buy"))) : 0L;
+                long sellPrice = entry.contains("sell") ? Math.max(1L, Ledger.toMinor(entry.getDouble("sell"))) : 0L;
+                if (buyPrice > 0) buy.add(material);
+                if (sellPrice > 0) sell.add(material);
+                items.put(material, new Item(buyPrice, sellPrice,
+                        Math.max(0.0, entry.getDouble("elasticity", elasticity))));
+            }
+        }
+        this.buyMaterials = Collections.unmodifiableList(buy);
+        this.sellMaterials = Collections.unmodifiableList(sell);
+        this.prices = new AtomicReference<>(buildTable());
+    }
+
+    /**
+     * @return the current prices
+     */
+    public @NotNull PriceTable getPrices() {
+        return prices.get();
+    }
+
+    /**
+     * @return the materials the market sells, in configuration order
+     */
+    public @NotNull List<Material> getBuyMaterials() {
+        return buyMaterials;
+    }
+
+    /**
+     * @return the materials the market buys, in configuration order
+     */
+    public @NotNull List<Material> getSellMaterials() {
+        return sellMaterials;
+    }
+
+    /**
+     * Record items bought from the market by players.
+     */
+    public void recordBought(@NotNull Material material, int amount) {
+        Item item = items.get(material);
+        if (item != null) item.pendingBought.add(amount);
+    }
+
+    /**
+     * Record items sold to the market by players.
+     */
+    public void recordSold(@NotNull Material material, int amount) {
+        Item item = items.get(material);
+        if (item != null) item.pendingSold.add(amount);
+    }
+
+    /**
+     * Decay the volumes by one interval, add the trades since the previous
+     * call and publish new prices if any of them changed. Must always be
+     * called from the same thread, or at least never concurrently.
+     */
+    public void reprice() {
+        for (Item item : items.values()) {
+            item.bought = item.bought * decay + item.pendingBought.sumThenReset();
+            item.sold = item.sold * decay + item.pendingSold.sumThenReset();
+        }
+        PriceTable next = buildTable();
+        PriceTable previous = prices.get();
+        if (next.equals(previous)) return;
+        prices.set(next);
+    }
+
+    private PriceTable buildTable() {
+        Map<Material, Long> buy = new EnumMap<>(Material.class);
+        Map<Material, Long> sell = new EnumMap<>(Material.class);
+        for (Map.Entry<Material, Item> entry : items.entrySet()) {
+            Item item = entry.getValue();
+            double factor = Math.pow((referenceVolume + item.bought) / (referenceVolume + item.sold), item.elasticity);
+            factor = Math.max(minFactor, Math.min(maxFactor, factor));
+            if (item.baseBuy > 0) buy.put(entry.getKey(), Math.max(1L, Math.round(item.baseBuy * factor)));
+            if (item.baseSell > 0) sell.put(entry.getKey(), Math.max(1L, Math.round(item.baseSell * factor)));
+        }
+        return new PriceTable(buy, sell);
+    }
+
+    /**
+     * Base prices and trade volume of one material. Base prices are in minor
+     * units, 0 if the market does not trade that way.
+     */
+    private static final class Item {
+        private final long baseBuy;
+        private final long baseSell;
+        private final double elasticity;
+        private final LongAdder pendingBought = new LongAdder();
+        private final LongAdder pendingSold = new LongAdder();
+        // Decayed volumes, only touched by reprice()
+        private double bought = 0.0;
+        private double sold = 0.0;
+
+        private Item(long baseBuy, long baseSell, double elasticity) {
+            this.baseBuy = baseBuy;
+            this.baseSell = baseSell;
+            this.elasticity = elasticity;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.rooster.ranch.schematic;
+
+import com.sk89q.worldedit.EditSession;
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.entity.BaseEntity;
+import com.sk89q.worldedit.entity.Entity;
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.math.Vector3;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.world.block.BaseBlock;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import com.rooster.ranch.util.Platform;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Pastes schematics without blocking the server for the whole operation.
+ * Schematic files are loaded through the {@link SchematicCache} on an
+ * asynchronous thread, so each file is only parsed once; the resulting
+ * clipboard is then written into the world a slice at a time, bounded by a
+ * block budget and a time budget per tick. Pastes run one after another, each
+ * on the region scheduler of its paste location, so on Folia the blocks are
+ * placed by the thread that owns that island. Every paste returns a future
+ * that completes on that region's thread once the last block and the
+ * schematic's entities have been placed. Areas can be cleared back to air
+ * through the same queue and budgets. Pastes may be queued from any thread.
+ */
+public class PasteQueue {
+    // How many blocks are placed between two checks of the time budget
+    private static final int TIME_CHECK_INTERVAL = 256;
+    private static final BaseBlock AIR = BlockTypes.AIR.getDefaultState().toBaseBlock();
+
+    private final JavaPlugin plugin;
+    private final SchematicCache cache;
+    private final int blocksPerTick;
+    private final long maxNanosPerTick;
+    private final Deque<PasteJob> jobs = new ConcurrentLinkedDeque<>();
+    // Guarded by this: whether the queue is started and the task running the head job
+    private boolean running = false;
+    private ScheduledTask task;
+
+    /**
+     * @param plugin           owning plugin, used for scheduling
+     * @param cache            cache used to load schematic files
+     * @param blocksPerTick    maximum number of blocks placed per tick
+     * @param maxMillisPerTick maximum time spent pasting per tick
+     */
+    public PasteQueue(@NotNull JavaPlugin plugin, @NotNull SchematicCache cache, int blocksPerTick, long maxMillisPerTick) {
+        this.plugin = plugin;
+        this.cache = cache;
+        this.blocksPerTick = Math.max(1, blocksPerTick);
+        this.maxNanosPerTick = Math.max(1L, maxMillisPerTick) * 1_000_000L;
+    }
+
+    /**
+     * Start working through queued pastes.
+     */
+    public synchronized void start() {
+        running = true;
+        startNext();
+    }
+
+    /**
+     * Stop working through the queue. Pastes that were already started are
+     * finished synchronously so that no island is left half built when the
+     * plugin is disabled. Folia does not allow touching the world while
+     * disabling, so there they are dropped and pool islands are pasted again
+     * on the next start.
+     */
+    public void stop() {
+        synchronized (this) {
+            running = false;
+            if (task != null) {
+                task.cancel();
+                task = null;
+            }
+        }
+        if (Platform.isFolia()) {
+            if (!jobs.isEmpty()) {
+                plugin.getLogger().warning(jobs.size() + " unfinished paste(s) dropped on shutdown.");
+            }
+            jobs.clear();
+            return;
+        }
+        while (!jobs.isEmpty()) {
+            PasteJob job = jobs.poll();
+            if (job.run(Integer.MAX_VALUE, Long.MAX_VALUE) >= 0) {
+                job.finish();
+            }
+        }
+    }
+
+    /**
+     * Load a schematic file asynchronously and queue it for pasting at the
+     * given location.
+     *
+     * @param schematicFile the schematic file
+     * @param location      the location the clipboard origin is pasted at
+     * @return a future completed on the location's region thread when the paste is done
+     */
+    public CompletableFuture<Void> paste(@NotNull File schematicFile, @NotNull Location location) {
+        return paste(() -> cache.get(schematicFile), location);
+    }
+
+    /**
+     * Obtain a clipboard asynchronously and queue it for pasting at the given
+     * location. Use this for clipboards that need loading or preprocessing
+     * off the main thread.
+     *
+     * @param loader   produces the clipboard; called on an asynchronous thread
+     * @param location the location the clipboard origin is pasted at
+     * @return a future completed on the location's region thread when the paste is done
+     */
+    public CompletableFuture<Void> paste(@NotNull Callable<Clipboard> loader, @NotNull Location location) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Bukkit.getAsyncScheduler().runNow(plugin, task -> {
+            try {
+                Clipboard clipboard = loader.call();
+                enqueue(new PasteJob(clipboard, location, future));
+            } catch (Exception e) {
+                Bukkit.getRegionScheduler().execute(plugin, location, () -> future.completeExceptionally(e));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Queue an already loaded clipboard for pasting.
+     *
+     * @param clipboard the clipboard to paste; it must not be modified while queued
+     * @param location  the location the clipboard origin is pasted at
+     * @return a future completed on the location's region thread when the paste is done
+     */
+    public CompletableFuture<Void> paste(@NotNull Clipboard clipboard, @NotNull Location location) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        enqueue(new PasteJob(clipboard, location, future));
+        return future;
+    }
+
+    /**
+     * Queue a cuboid area to be set to air. Once the last block is cleared,
+     * the non-player entities inside the area are removed as well.
+     *
+     * @param min lowest corner of the area
+     * @param max highest corner of the area, in the same world
+     * @return a future completed on the area's region thread when the area is empty
+     */
+    public CompletableFuture<Void> clear(@NotNull Location min, @NotNull Location max) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        CuboidRegion region = new CuboidRegion(
+                BlockVector3.at(min.getBlockX(), min.getBlockY(), min.getBlockZ()),
+                BlockVector3.at(max.getBlockX(), max.getBlockY(), max.getBlockZ()));
+        Location center = min.clone().add(max.toVector()).multiply(0.5);
+        enqueue(new PasteJob(min.getWorld(), center, region, future));
+        return future;
+    }
+
+    /**
+     * @return number of pastes waiting for or currently receiving blocks
+     */
+    public int size() {
+        return jobs.size();
+    }
+
+    private void enqueue(@NotNull PasteJob job) {
+        jobs.add(job);
+        startNext();
+    }
+
+    /**
+     * Start a repeating task for the job at the head of the queue on the
+     * region that owns its location, unless one is already running.
+     */
+    private synchronized void startNext() {
+        if (!running || task != null) return;
+        PasteJob job = jobs.peek();
+        if (job == null) return;
+        task = Bukkit.getRegionScheduler().runAtFixedRate(plugin, job.anchor, scheduled -> tick(job), 1L, 1L);
+    }
+
+    /**
+     * Place one tick's worth of blocks for a job, then move on to the next
+     * job once it is complete or has failed.
+     */
+    private void tick(@NotNull PasteJob job) {
+        long deadline = System.nanoTime() + maxNanosPerTick;
+        int placed = job.run(blocksPerTick, deadline);
+        if (placed >= 0 && job.blocks.hasNext()) return;
+        synchronized (this) {
+            // A stop may have interrupted this job; the shutdown finishes it instead
+            if (!running || jobs.peek() != job) return;
+            jobs.poll();
+            task.cancel();
+            task = null;
+        }
+        if (placed >= 0) {
+            job.finish();
+        }
+        startNext();
+    }
+
+    /**
+     * A single queued paste or clear. Keeps its own iterator over the region
+     * so work can resume where the previous tick stopped.
+     */
+    private final class PasteJob {
+        // Null for clear jobs
+        private final Clipboard clipboard;
+        private final com.sk89q.worldedit.world.World world;
+        // Decides which region runs the job
+        private final Location anchor;
+        private final Region region;
+        private final BlockVector3 offset;
+        private final Iterator<BlockVector3> blocks;
+        private final CompletableFuture<Void> future;
+
+        private PasteJob(Clipboard clipboard, Location location, CompletableFuture<Void> future) {
+            this.clipboard = clipboard;
+            this.world = BukkitAdapter.adapt(location.getWorld());
+            this.anchor = location.clone();
+            this.region = clipboard.getRegion();
+            this.offset = BlockVector3.at(location.getBlockX(), location.getBlockY(), location.getBlockZ())
+                    .subtract(clipboard.getOrigin());
+            this.blocks = region.iterator();
+            this.future = future;
+        }
+
+        private PasteJob(World world, Location anchor, Region region, CompletableFuture<Void> future) {
+            this.clipboard = null;
+            this.world = BukkitAdapter.adapt(world);
+            this.anchor = anchor;
+            this.region = region;
+            this.offset = BlockVector3.ZERO;
+            this.blocks = region.iterator();
+            this.future = future;
+        }
+
+        /**
+         * Place up to {@code budget} blocks or until the deadline passes.
+         *
+         * @return number of blocks placed, or -1 if the paste failed
+         */
+        private int run(int budget, long deadline) {
+            int placed = 0;
+            try (EditSession editSession = WorldEdit.getInstance().getEditSessionFactory().getEditSession(world, -1)) {
+                while (placed < budget && blocks.hasNext()) {
+                    BlockVector3 point = blocks.next();
+                    editSession.setBlock(point.add(offset), clipboard != null ? clipboard.getFullBlock(point) : AIR);
+                    placed++;
+                    if (placed % TIME_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                        break;
+                    }
+                }
+            } catch (WorldEditException e) {
+                future.completeExceptionally(e);
+                return -1;
+            }
+            return placed;
+        }
+
+        /**
+         * Spawn the clipboard's entities, or remove the cleared area's
+         * entities, and complete the future.
+         */
+        private void finish() {
+            if (clipboard == null) {
+                BlockVector3 min = region.getMinimumPoint();
+                BlockVector3 max = region.getMaximumPoint();
+                BoundingBox box = new BoundingBox(min.x(), min.y(), min.z(), max.x() + 1, max.y() + 1, max.z() + 1);
+                BukkitAdapter.adapt(world).getNearbyEntities(box, entity -> !(entity instanceof Player))
+                        .forEach(org.bukkit.entity.Entity::remove);
+                future.complete(null);
+                return;
+            }
+            try (EditSession editSession = WorldEdit.getInstance().getEditSessionFactory().getEditSession(world, -1)) {
+                Vector3 shift = offset.toVector3();
+                for (Entity entity : clipboard.getEntities()) {
+                    BaseEntity state = entity.getState();
+                    if (state == null) continue;
+                    com.sk89q.worldedit.util.Location from = entity.getLocation();
+                    editSession.createEntity(new com.sk89q.worldedit.util.Location(editSession,
+                            from.toVector().add(shift), from.getYaw(), from.getPitch()), state);
+                }
+            }
+            future.complete(null);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.rooster.ranch.schematic;
+
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps parsed schematics in memory so that each file is read and decoded
+ * only once. Entries are revalidated on every lookup: if the file's
+ * modification time and size are unchanged the cached clipboard is returned
+ * directly, otherwise the file's checksum decides whether it really has to be
+ * parsed again. Preprocessed variants of a schematic are cached alongside
+ * the parsed clipboard and rebuilt whenever it is. Clipboards handed out by
+ * this cache are shared and must be treated as read-only.
+ */
+public class SchematicCache {
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Variant> variants = new HashMap<>();
+
+    /**
+     * Get the clipboard for a schematic file, parsing it if it is not cached
+     * or has changed on disk. Safe to call from any thread.
+     *
+     * @param schematicFile the schematic file
+     * @return the parsed clipboard
+     * @throws IOException if the file is missing, unreadable or of an unknown format
+     */
+    public synchronized @NotNull Clipboard get(@NotNull File schematicFile) throws IOException {
+        if (!schematicFile.exists()) {
+            throw new IOException("Schematic not found: " + schematicFile.getName());
+        }
+        String key = schematicFile.getAbsolutePath();
+        long lastModified = schematicFile.lastModified();
+        long length = schematicFile.length();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+            return entry.clipboard;
+        }
+        byte[] data = Files.readAllBytes(schematicFile.toPath());
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        long checksum = crc.getValue();
+        if (entry != null && entry.checksum == checksum && entry.length == data.length) {
+            // Touched but not modified (e.g. re-extracted from the jar on startup)
+            entries.put(key, new Entry(lastModified, length, checksum, entry.clipboard));
+            return entry.clipboard;
+        }
+        ClipboardFormat format = ClipboardFormats.findByFile(schematicFile);
+        if (format == null) {
+            throw new IOException("Unknown schematic format for file: " + schematicFile.getName());
+        }
+        Clipboard clipboard;
+        try (ClipboardReader reader = format.getReader(new ByteArrayInputStream(data))) {
+            clipboard = reader.read();
+        }
+        entries.put(key, new Entry(lastModified, data.length, checksum, clipboard));
+        return clipboard;
+    }
+
+    /**
+     * Get a preprocessed variant of a schematic. The transform is applied to
+     * the parsed clipboard the first time the variant is requested and again
+     * only after the file itself has changed. Safe to call from any thread.
+     *
+     * @param schematicFile the schematic file
+     * @param variant       name identifying the transform
+     * @param transform     produces the variant from the parsed clipboard without modifying it
+     * @return the preprocessed clipboard
+     * @throws IOException if the file is missing, unreadable or of an unknown format
+     */
+    public synchronized @NotNull Clipboard get(@NotNull File schematicFile, @NotNull String variant,
+                                               @NotNull UnaryOperator<Clipboard> transform) throws IOException {
+        Clipboard source = get(schematicFile);
+        String key = schematicFile.getAbsolutePath() + "#" + variant;
+        Variant cached = variants.get(key);
+        if (cached != null && cached.source == source) {
+            return cached.clipboard;
+        }
+        Clipboard result = transform.apply(source);
+        variants.put(key, new Variant(source, result));
+        return result;
+    }
+
+    /**
+     * Drop every cached clipboard.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        variants.clear();
+    }
+
+    private record Entry(long lastModified, long length, long checksum, Clipboard clipboard) {
+    }
+
+    private record Variant(Clipboard source, Clipboard clipboard) {
+    }
+}
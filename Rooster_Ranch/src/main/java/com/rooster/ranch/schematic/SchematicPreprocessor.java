@@ -0,0 +1,114 @@
+package com.rooster.ranch.schematic;
+
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.entity.BaseEntity;
+import com.sk89q.worldedit.entity.Entity;
+import com.sk89q.worldedit.extent.clipboard.BlockArrayClipboard;
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockType;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.TrapDoor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Applies the farm island clean-up to a clipboard instead of to the world.
+ * The transforms are the same ones {@code FarmManager#cleanupIsland} performs
+ * after a paste: open trapdoors around the island are closed and every solid
+ * surface column gets up to two blocks of dirt underneath. Because they only
+ * depend on the schematic, they can be applied once when the schematic is
+ * loaded and the result pasted as-is.
+ */
+public final class SchematicPreprocessor {
+    /** Cache variant name for clipboards produced by {@link #bakeIslandCleanup}. */
+    public static final String ISLAND_CLEANUP = "island-cleanup";
+
+    // Scan area relative to the paste origin; must match FarmManager#cleanupIsland
+    private static final int RADIUS_X = 20;
+    private static final int RADIUS_Z = 20;
+    private static final int BELOW_BASE = 3;
+    private static final int ABOVE_BASE = 8;
+    private static final int SUPPORT_DEPTH = 2;
+
+    private SchematicPreprocessor() {
+    }
+
+    /**
+     * Produce a copy of the clipboard with the island clean-up applied. The
+     * copy's region is extended downwards when the dirt support layer reaches
+     * below the original schematic. The source clipboard is not modified.
+     *
+     * @param source the parsed farm island schematic
+     * @return a new clipboard that can be pasted without post-processing
+     */
+    public static @NotNull Clipboard bakeIslandCleanup(@NotNull Clipboard source) {
+        Region region = source.getRegion();
+        BlockVector3 origin = source.getOrigin();
+        BlockVector3 min = region.getMinimumPoint();
+        BlockVector3 max = region.getMaximumPoint();
+        int baseY = origin.y();
+        CuboidRegion bakedRegion = new CuboidRegion(
+                BlockVector3.at(min.x(), Math.min(min.y(), baseY - SUPPORT_DEPTH), min.z()), max);
+        BlockArrayClipboard baked = new BlockArrayClipboard(bakedRegion);
+        baked.setOrigin(origin);
+        try {
+            for (BlockVector3 point : region) {
+                baked.setBlock(point, source.getFullBlock(point));
+            }
+            for (Entity entity : source.getEntities()) {
+                BaseEntity state = entity.getState();
+                if (state != null) {
+                    baked.createEntity(entity.getLocation(), state);
+                }
+            }
+            // First pass: close any trapdoors found in the island area
+            for (int dx = -RADIUS_X; dx <= RADIUS_X; dx++) {
+                for (int dz = -RADIUS_Z; dz <= RADIUS_Z; dz++) {
+                    for (int dy = -BELOW_BASE; dy <= ABOVE_BASE; dy++) {
+                        BlockVector3 point = origin.add(dx, dy, dz);
+                        if (!bakedRegion.contains(point)) continue;
+                        BlockData data = BukkitAdapter.adapt(baked.getBlock(point));
+                        if (data instanceof TrapDoor trap && trap.isOpen()) {
+                            trap.setOpen(false);
+                            baked.setBlock(point, BukkitAdapter.adapt(trap));
+                        }
+                    }
+                }
+            }
+            // Second pass: fill one and two blocks below every solid surface block
+            // with dirt if those spaces are empty or water
+            BlockState dirt = BlockTypes.DIRT.getDefaultState();
+            for (int dx = -RADIUS_X; dx <= RADIUS_X; dx++) {
+                for (int dz = -RADIUS_Z; dz <= RADIUS_Z; dz++) {
+                    BlockVector3 surface = origin.add(dx, 0, dz);
+                    if (isEmpty(baked, bakedRegion, surface)) continue;
+                    for (int depth = 1; depth <= SUPPORT_DEPTH; depth++) {
+                        BlockVector3 below = surface.subtract(0, depth, 0);
+                        if (bakedRegion.contains(below) && isEmpty(baked, bakedRegion, below)) {
+                            baked.setBlock(below, dirt);
+                        }
+                    }
+                }
+            }
+        } catch (WorldEditException e) {
+            throw new IllegalStateException("Failed to preprocess island schematic: " + e.getMessage(), e);
+        }
+        return baked;
+    }
+
+    /**
+     * Air or water, the two block types the world-based clean-up treats as
+     * empty. Positions outside the clipboard count as air, as they would in
+     * the void world.
+     */
+    private static boolean isEmpty(Clipboard clipboard, Region region, BlockVector3 point) {
+        if (!region.contains(point)) return true;
+        BlockType type = clipboard.getBlock(point).getBlockType();
+        return type == BlockTypes.AIR || type == BlockTypes.WATER;
+    }
+}
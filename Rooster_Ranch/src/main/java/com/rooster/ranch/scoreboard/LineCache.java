@@ -0,0 +1,41 @@
+package com.rooster.ranch.scoreboard;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.LongFunction;
+
+/**
+ * Caches the formatted text of a sidebar line for small non-negative values.
+ * Players whose stats are equal get the very same string instance, and a
+ * value is only formatted the first time it is seen. Values outside the
+ * cached range are formatted on every call.
+ */
+public class LineCache {
+    private final LongFunction<String> formatter;
+    private final String[] cache;
+
+    /**
+     * @param size      number of values, starting at zero, to cache
+     * @param formatter turns a value into the full line text
+     */
+    public LineCache(int size, @NotNull LongFunction<String> formatter) {
+        this.formatter = formatter;
+        this.cache = new String[size];
+    }
+
+    /**
+     * @param value the value to display
+     * @return the formatted line
+     */
+    public @NotNull String get(long value) {
+        if (value < 0 || value >= cache.length) {
+            return formatter.apply(value);
+        }
+        String line = cache[(int) value];
+        if (line == null) {
+            line = formatter.apply(value);
+            cache[(int) value] = line;
+        }
+        return line;
+    }
+}
@@ -0,0 +1,90 @@
+package com.rooster.ranch.scoreboard;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.Criteria;
+import org.bukkit.scoreboard.DisplaySlot;
+import org.bukkit.scoreboard.Objective;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A per-player sidebar made of fixed lines. Every line is backed by its own
+ * team whose single entry is an invisible colour code with a constant score,
+ * so a line's text is changed by updating the team prefix rather than by
+ * removing and re-adding scores. The last text sent for each line is kept and
+ * a line is only updated when its text actually changed, which means an
+ * unchanged sidebar costs no packets at all.
+ */
+public class Sidebar {
+    /** Maximum number of lines the client displays in the sidebar. */
+    public static final int MAX_LINES = 15;
+
+    private static final LegacyComponentSerializer LEGACY = LegacyComponentSerializer.legacySection();
+
+    private final Scoreboard scoreboard;
+    private final Team[] teams;
+    private final String[] lines;
+
+    /**
+     * Create a sidebar on a fresh scoreboard.
+     *
+     * @param objectiveName internal objective name
+     * @param title         title shown above the lines
+     * @param lineCount     number of lines, at most {@link #MAX_LINES}
+     */
+    public Sidebar(@NotNull String objectiveName, @NotNull Component title, int lineCount) {
+        if (lineCount < 1 || lineCount > MAX_LINES) {
+            throw new IllegalArgumentException("Sidebar must have between 1 and " + MAX_LINES + " lines");
+        }
+        this.scoreboard = Bukkit.getScoreboardManager().getNewScoreboard();
+        Objective objective = scoreboard.registerNewObjective(objectiveName, Criteria.DUMMY, title);
+        objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+        this.teams = new Team[lineCount];
+        this.lines = new String[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            // "§0", "§1", ... render as nothing, so only the team prefix is visible
+            String entry = "§" + Integer.toHexString(i);
+            Team team = scoreboard.registerNewTeam("line" + i);
+            team.addEntry(entry);
+            objective.getScore(entry).setScore(lineCount - i);
+            teams[i] = team;
+        }
+    }
+
+    /**
+     * Set the text of a line. Nothing is sent if the line already shows the
+     * same text.
+     *
+     * @param index line index, 0 being the top line
+     * @param text  legacy formatted text
+     * @return true if the line changed
+     */
+    public boolean setLine(int index, @NotNull String text) {
+        String previous = lines[index];
+        if (previous == text || text.equals(previous)) {
+            return false;
+        }
+        lines[index] = text;
+        teams[index].prefix(LEGACY.deserialize(text));
+        return true;
+    }
+
+    /**
+     * Make this sidebar the player's active scoreboard if it is not already.
+     *
+     * @param player the player to show the sidebar to
+     */
+    public void show(@NotNull Player player) {
+        if (player.getScoreboard() != scoreboard) {
+            player.setScoreboard(scoreboard);
+        }
+    }
+
+    public Scoreboard getScoreboard() {
+        return scoreboard;
+    }
+}
@@ -0,0 +1,30 @@
+package com.rooster.ranch.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persists player balances in RC.
+ */
+public interface BalanceRepository {
+
+    /**
+     * Load every stored balance. Called once on startup.
+     *
+     * @return balances keyed by player
+     * @throws IOException if the data cannot be read
+     */
+    @NotNull Map<UUID, Double> loadBalances() throws IOException;
+
+    /**
+     * Queue a write of changed balances on the backend's I/O thread.
+     *
+     * @param changed new balances keyed by player
+     * @return a future completed with the time spent writing, in nanoseconds
+     */
+    @NotNull CompletableFuture<Long> writeBalances(@NotNull Map<UUID, Double> changed);
+}
@@ -0,0 +1,51 @@
+package com.rooster.ranch.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary balance store ({@code balances.dat}), one 32-byte slot per player.
+ *
+ * Slot layout, version 1 (big-endian):
+ * <pre>
+ *  0  byte    type (1 = balance)
+ *  8  16 B    player UUID
+ * 24  double  balance in RC
+ * </pre>
+ */
+public class BinaryBalanceStore extends UuidSlotStore {
+    public static final int MAGIC = 0x52524243; // "RRBC"
+    public static final short VERSION = 1;
+    static final int SLOT_SIZE = 32;
+    private static final int BALANCE_OFFSET = 24;
+
+    public BinaryBalanceStore(@NotNull File file) throws IOException {
+        super(file, MAGIC, VERSION, SLOT_SIZE);
+    }
+
+    /**
+     * @return every stored balance keyed by player
+     */
+    public @NotNull Map<UUID, Double> loadAll() {
+        Map<UUID, Double> loaded = new HashMap<>(size());
+        ByteBuffer buffer = file.buffer();
+        for (UUID uuid : keys()) {
+            loaded.put(uuid, buffer.getDouble(file.offset(find(uuid)) + BALANCE_OFFSET));
+        }
+        return loaded;
+    }
+
+    /**
+     * Write a player's balance in place.
+     */
+    public void put(@NotNull UUID uuid, double balance) throws IOException {
+        int slot = slotFor(uuid);
+        file.buffer().putDouble(file.offset(slot) + BALANCE_OFFSET, balance);
+    }
+}
@@ -0,0 +1,219 @@
+package com.rooster.ranch.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary farm store ({@code farms.dat}). Each farm occupies one fixed-size
+ * slot in a memory-mapped file and is rewritten in place when it changes.
+ * Trusted players beyond what fits in the farm's own slot are stored in a
+ * chain of continuation slots.
+ *
+ * Farm slot layout, version 1 (256 bytes, big-endian):
+ * <pre>
+ *   0  byte    type (1 = farm)
+ *   1  byte    world name length
+ *   2  short   trusted UUIDs in this slot
+ *   4  int     next continuation slot, -1 if none
+ *   8  16 B    owner UUID
+ *  24  double  centre x
+ *  32  double  centre y
+ *  40  double  centre z
+ *  48  int     weed count
+ *  52  int     last simulation day
+ *  56  double  upkeep
+ *  64  double  crop health
+ *  72  double  animal health
+ *  80  32 B    world name (UTF-8)
+ * 112  9 x 16 B trusted UUIDs
+ * </pre>
+ * Continuation slots use type 2, the same count and next fields, and hold up
+ * to 15 trusted UUIDs from offset 8.
+ */
+public class BinaryFarmStore extends UuidSlotStore {
+    public static final int MAGIC = 0x5252464D; // "RRFM"
+    public static final short VERSION = 1;
+    static final int SLOT_SIZE = 256;
+
+    private static final byte TYPE_CONTINUATION = 2;
+    private static final int WORLD_LENGTH_OFFSET = 1;
+    private static final int COUNT_OFFSET = 2;
+    private static final int NEXT_OFFSET = 4;
+    private static final int X_OFFSET = 24;
+    private static final int Y_OFFSET = 32;
+    private static final int Z_OFFSET = 40;
+    private static final int WEEDS_OFFSET = 48;
+    private static final int DAY_OFFSET = 52;
+    private static final int UPKEEP_OFFSET = 56;
+    private static final int CROP_OFFSET = 64;
+    private static final int ANIMAL_OFFSET = 72;
+    private static final int WORLD_OFFSET = 80;
+    private static final int WORLD_MAX_BYTES = 32;
+    private static final int HEAD_TRUSTED_OFFSET = 112;
+    private static final int HEAD_TRUSTED_MAX = 9;
+    private static final int CONTINUATION_TRUSTED_OFFSET = 8;
+    private static final int CONTINUATION_TRUSTED_MAX = 15;
+
+    public BinaryFarmStore(@NotNull File file) throws IOException {
+        super(file, MAGIC, VERSION, SLOT_SIZE);
+    }
+
+    /**
+     * Read every stored farm.
+     *
+     * @return the stored farms
+     */
+    public @NotNull List<FarmRecord> loadAll() {
+        List<FarmRecord> loaded = new ArrayList<>(size());
+        for (UUID owner : keys()) {
+            FarmRecord farm = load(owner);
+            if (farm != null) {
+                loaded.add(farm);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Read the owner, centre and statistics of every stored farm.
+     *
+     * @return one header per stored farm
+     */
+    public @NotNull List<FarmHeader> loadHeaders() {
+        List<FarmHeader> headers = new ArrayList<>(size());
+        ByteBuffer buffer = file.buffer();
+        for (UUID owner : keys()) {
+            int offset = file.offset(find(owner));
+            headers.add(new FarmHeader(owner, buffer.getDouble(offset + X_OFFSET), buffer.getDouble(offset + Z_OFFSET),
+                    buffer.getInt(offset + WEEDS_OFFSET), buffer.getDouble(offset + UPKEEP_OFFSET),
+                    buffer.getDouble(offset + CROP_OFFSET), buffer.getDouble(offset + ANIMAL_OFFSET),
+                    buffer.getInt(offset + DAY_OFFSET)));
+        }
+        return headers;
+    }
+
+    /**
+     * Read a single farm.
+     *
+     * @param owner the owner's UUID
+     * @return the farm or null if it is not stored
+     */
+    public FarmRecord load(@NotNull UUID owner) {
+        int slot = find(owner);
+        if (slot < 0) return null;
+        ByteBuffer buffer = file.buffer();
+        int offset = file.offset(slot);
+        byte[] worldBytes = new byte[buffer.get(offset + WORLD_LENGTH_OFFSET)];
+        for (int i = 0; i < worldBytes.length; i++) {
+            worldBytes[i] = buffer.get(offset + WORLD_OFFSET + i);
+        }
+        List<UUID> trusted = new ArrayList<>();
+        readTrusted(buffer, offset + HEAD_TRUSTED_OFFSET, buffer.getShort(offset + COUNT_OFFSET), trusted);
+        int next = buffer.getInt(offset + NEXT_OFFSET);
+        while (next >= 0) {
+            int contOffset = file.offset(next);
+            readTrusted(buffer, contOffset + CONTINUATION_TRUSTED_OFFSET, buffer.getShort(contOffset + COUNT_OFFSET), trusted);
+            next = buffer.getInt(contOffset + NEXT_OFFSET);
+        }
+        return new FarmRecord(owner, new String(worldBytes, StandardCharsets.UTF_8),
+                buffer.getDouble(offset + X_OFFSET), buffer.getDouble(offset + Y_OFFSET), buffer.getDouble(offset + Z_OFFSET),
+                buffer.getInt(offset + WEEDS_OFFSET), buffer.getDouble(offset + UPKEEP_OFFSET),
+                buffer.getDouble(offset + CROP_OFFSET), buffer.getDouble(offset + ANIMAL_OFFSET),
+                buffer.getInt(offset + DAY_OFFSET), trusted);
+    }
+
+    private static void readTrusted(ByteBuffer buffer, int offset, int count, List<UUID> trusted) {
+        for (int i = 0; i < count; i++) {
+            trusted.add(readUuid(buffer, offset + i * 16));
+        }
+    }
+
+    /**
+     * Write a farm into its slot, claiming one if the farm is new. The
+     * continuation chain is reused, extended or shortened to fit the trusted
+     * list.
+     *
+     * @param farm the farm to store
+     * @throws IOException if the file needs to grow and cannot be remapped
+     */
+    public void put(@NotNull FarmRecord farm) throws IOException {
+        byte[] worldBytes = farm.world().getBytes(StandardCharsets.UTF_8);
+        if (worldBytes.length > WORLD_MAX_BYTES) {
+            throw new IOException("World name too long for binary farm record: " + farm.world());
+        }
+        List<UUID> trusted = farm.trusted();
+        boolean existed = find(farm.owner()) >= 0;
+        int slot = slotFor(farm.owner());
+        ByteBuffer buffer = file.buffer();
+        int offset = file.offset(slot);
+        buffer.put(offset + WORLD_LENGTH_OFFSET, (byte) worldBytes.length);
+        for (int i = 0; i < WORLD_MAX_BYTES; i++) {
+            buffer.put(offset + WORLD_OFFSET + i, i < worldBytes.length ? worldBytes[i] : 0);
+        }
+        buffer.putDouble(offset + X_OFFSET, farm.x());
+        buffer.putDouble(offset + Y_OFFSET, farm.y());
+        buffer.putDouble(offset + Z_OFFSET, farm.z());
+        buffer.putInt(offset + WEEDS_OFFSET, farm.weeds());
+        buffer.putDouble(offset + UPKEEP_OFFSET, farm.upkeep());
+        buffer.putDouble(offset + CROP_OFFSET, farm.cropHealth());
+        buffer.putDouble(offset + ANIMAL_OFFSET, farm.animalHealth());
+        buffer.putInt(offset + DAY_OFFSET, farm.day());
+        int written = writeTrusted(buffer, offset, HEAD_TRUSTED_OFFSET, HEAD_TRUSTED_MAX, trusted, 0);
+        // Walk the existing chain, reusing its slots and allocating more as needed
+        int previous = slot;
+        int existing = existed ? buffer.getInt(offset + NEXT_OFFSET) : -1;
+        while (written < trusted.size()) {
+            int cont;
+            int existingNext;
+            if (existing >= 0) {
+                cont = existing;
+                existingNext = file.buffer().getInt(file.offset(cont) + NEXT_OFFSET);
+            } else {
+                cont = allocate();
+                existingNext = -1;
+            }
+            buffer = file.buffer();
+            int contOffset = file.offset(cont);
+            buffer.put(contOffset + TYPE_OFFSET, TYPE_CONTINUATION);
+            written += writeTrusted(buffer, contOffset, CONTINUATION_TRUSTED_OFFSET, CONTINUATION_TRUSTED_MAX, trusted, written);
+            buffer.putInt(file.offset(previous) + NEXT_OFFSET, cont);
+            previous = cont;
+            existing = existingNext;
+        }
+        file.buffer().putInt(file.offset(previous) + NEXT_OFFSET, -1);
+        // Free whatever is left of the old chain
+        releaseChain(existing);
+    }
+
+    private static int writeTrusted(ByteBuffer buffer, int slotOffset, int trustedOffset, int max,
+                                    List<UUID> trusted, int from) {
+        int count = Math.min(max, trusted.size() - from);
+        for (int i = 0; i < count; i++) {
+            writeUuid(buffer, slotOffset + trustedOffset + i * 16, trusted.get(from + i));
+        }
+        buffer.putShort(slotOffset + COUNT_OFFSET, (short) count);
+        return count;
+    }
+
+    @Override
+    protected void releaseRecord(int slot) {
+        int next = file.buffer().getInt(file.offset(slot) + NEXT_OFFSET);
+        release(slot);
+        releaseChain(next);
+    }
+
+    private void releaseChain(int slot) {
+        while (slot >= 0) {
+            int next = file.buffer().getInt(file.offset(slot) + NEXT_OFFSET);
+            release(slot);
+            slot = next;
+        }
+    }
+}
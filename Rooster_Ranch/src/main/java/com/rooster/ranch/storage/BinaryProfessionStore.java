@@ -0,0 +1,70 @@
+package com.rooster.ranch.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary profession store ({@code professions.dat}), one 48-byte slot per
+ * player holding the profession's enum name.
+ *
+ * Slot layout, version 1 (big-endian):
+ * <pre>
+ *  0  byte    type (1 = profession)
+ *  1  byte    name length
+ *  8  16 B    player UUID
+ * 24  24 B    profession name (UTF-8)
+ * </pre>
+ */
+public class BinaryProfessionStore extends UuidSlotStore {
+    public static final int MAGIC = 0x52525052; // "RRPR"
+    public static final short VERSION = 1;
+    static final int SLOT_SIZE = 48;
+    private static final int LENGTH_OFFSET = 1;
+    private static final int NAME_OFFSET = 24;
+    private static final int NAME_MAX_BYTES = 24;
+
+    public BinaryProfessionStore(@NotNull File file) throws IOException {
+        super(file, MAGIC, VERSION, SLOT_SIZE);
+    }
+
+    /**
+     * @return every stored profession name keyed by player
+     */
+    public @NotNull Map<UUID, String> loadAll() {
+        Map<UUID, String> loaded = new HashMap<>(size());
+        ByteBuffer buffer = file.buffer();
+        for (UUID uuid : keys()) {
+            int offset = file.offset(find(uuid));
+            byte[] name = new byte[buffer.get(offset + LENGTH_OFFSET)];
+            for (int i = 0; i < name.length; i++) {
+                name[i] = buffer.get(offset + NAME_OFFSET + i);
+            }
+            loaded.put(uuid, new String(name, StandardCharsets.UTF_8));
+        }
+        return loaded;
+    }
+
+    /**
+     * Write a player's profession name in place.
+     */
+    public void put(@NotNull UUID uuid, @NotNull String profession) throws IOException {
+        byte[] name = profession.getBytes(StandardCharsets.UTF_8);
+        if (name.length > NAME_MAX_BYTES) {
+            throw new IOException("Profession name too long for binary record: " + profession);
+        }
+        int slot = slotFor(uuid);
+        ByteBuffer buffer = file.buffer();
+        int offset = file.offset(slot);
+        buffer.put(offset + LENGTH_OFFSET, (byte) name.length);
+        for (int i = 0; i < NAME_MAX_BYTES; i++) {
+            buffer.put(offset + NAME_OFFSET + i, i < name.length ? name[i] : 0);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.rooster.ranch.storage;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Binary storage backend. Farms, balances and professions are fixed-size
+ * records in the memory-mapped files farms.dat, balances.dat and
+ * professions.dat, updated in place on the I/O thread and then synced to
+ * disk.
+ */
+public class BinaryStorage extends StorageBackend {
+    public static final String FARMS_FILE = "farms.dat";
+    public static final String BALANCES_FILE = "balances.dat";
+    public static final String PROFESSIONS_FILE = "professions.dat";
+
+    private final boolean created;
+    private final BinaryFarmStore farms;
+    private final BinaryBalanceStore balances;
+    private final BinaryProfessionStore professions;
+
+    public BinaryStorage(@NotNull JavaPlugin plugin, @NotNull File folder) throws IOException {
+        super(plugin, folder);
+        File farmsFile = new File(folder, FARMS_FILE);
+        this.created = !farmsFile.exists();
+        this.farms = new BinaryFarmStore(farmsFile);
+        try {
+            this.balances = new BinaryBalanceStore(new File(folder, BALANCES_FILE));
+            this.professions = new BinaryProfessionStore(new File(folder, PROFESSIONS_FILE));
+        } catch (IOException e) {
+            farms.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isNew() {
+        return created;
+    }
+
+    @Override
+    public @NotNull Collection<FarmRecord> loadFarms() {
+        return farms.loadAll();
+    }
+
+    @Override
+    public @NotNull Collection<FarmHeader> loadFarmHeaders() {
+        return farms.loadHeaders();
+    }
+
+    @Override
+    public @NotNull CompletableFuture<FarmRecord> loadFarm(@NotNull UUID owner) {
+        return query(() -> farms.load(owner));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Long> writeFarms(@NotNull Collection<FarmRecord> changed, @NotNull Collection<UUID> deleted) {
+        return submit(() -> {
+            for (FarmRecord farm : changed) {
+                farms.put(farm);
+            }
+            for (UUID owner : deleted) {
+                farms.remove(owner);
+            }
+            farms.force();
+        });
+    }
+
+    @Override
+    public @NotNull Map<UUID, Double> loadBalances() {
+        return balances.loadAll();
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Long> writeBalances(@NotNull Map<UUID, Double> changed) {
+        return submit(() -> {
+            for (Map.Entry<UUID, Double> entry : changed.entrySet()) {
+                balances.put(entry.getKey(), entry.getValue());
+            }
+            balances.force();
+        });
+    }
+
+    @Override
+    public @NotNull Map<UUID, String> loadProfessions() {
+        return professions.loadAll();
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Long> writeProfessions(@NotNull Map<UUID, String> changed) {
+        return submit(() -> {
+            for (Map.Entry<UUID, String> entry : changed.entrySet()) {
+                professions.put(entry.getKey(), entry.getValue());
+            }
+            professions.force();
+        });
+    }
+
+    @Override
+    protected void closeStores() throws IOException {
+        farms.close();
+        balances.close();
+        professions.close();
+    }
+}
@@ -0,0 +1,22 @@
+package com.rooster.ranch.storage;
+
+import com.rooster.ranch.farm.FarmDecay;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * The part of a stored farm needed without loading it: its owner and the
+ * X/Z coordinates of its centre for the island index, and its statistics as
+ * last saved, with the day they were evaluated for, so the leaderboards can
+ * apply the days since.
+ */
+public record FarmHeader(@NotNull UUID owner, double x, double z, int weeds, double upkeep, double cropHealth,
+                         double animalHealth, int day) {
+    /**
+     * @return the seed of the farm's weed stream
+     */
+    public long seed() {
+        return FarmDecay.seedOf(owner.getMostSignificantBits(), owner.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,52 @@
+package com.rooster.ranch.storage;
+
+import com.rooster.ranch.farm.Farm;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a farm's persisted fields. {@code day} is the last
+ * simulation day the farm was evaluated for; the farm applies the days after
+ * it once it is loaded again. Snapshots are taken on the
+ * thread that owns the farm and handed to a storage backend, which may write
+ * them from its I/O thread.
+ */
+public record FarmRecord(@NotNull UUID owner, @NotNull String world, double x, double y, double z,
+                         int weeds, double upkeep, double cropHealth, double animalHealth, int day,
+                         @NotNull List<UUID> trusted) {
+    public static final String DEFAULT_WORLD = "rooster_farms";
+
+    /**
+     * Take a snapshot of a farm, evaluated up to its current day.
+     */
+    public static @NotNull FarmRecord of(@NotNull Farm farm) {
+        Location center = farm.getCenter();
+        String world = center.getWorld() != null ? center.getWorld().getName() : DEFAULT_WORLD;
+        // Hold the farm's lock so the statistics and their day match
+        synchronized (farm) {
+            farm.catchUp();
+            return new FarmRecord(farm.getOwner(), world, center.getX(), center.getY(), center.getZ(),
+                    farm.getWeedCount(), farm.getUpkeep(), farm.getCropHealth(), farm.getAnimalHealth(),
+                    farm.getLastDay(), List.copyOf(farm.getTrusted()));
+        }
+    }
+
+    /**
+     * Create a farm from this snapshot. The world is looked up by name and
+     * may be null if it is not loaded yet.
+     */
+    public @NotNull Farm toFarm() {
+        Farm farm = new Farm(owner, new Location(Bukkit.getWorld(world), x, y, z));
+        farm.setWeedCount(weeds);
+        farm.setUpkeep(upkeep);
+        farm.setCropHealth(cropHealth);
+        farm.setAnimalHealth(animalHealth);
+        farm.setLastDay(day);
+        farm.getTrusted().addAll(trusted);
+        return farm;
+    }
+}
@@ -0,0 +1,50 @@
+package com.rooster.ranch.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persists player farms.
+ */
+public interface FarmRepository {
+
+    /**
+     * Load every stored farm. Called once on startup.
+     *
+     * @return the stored farms
+     * @throws IOException if the data cannot be read
+     */
+    @NotNull Collection<FarmRecord> loadFarms() throws IOException;
+
+    /**
+     * Load the owner, centre and statistics of every stored farm without loading
+     * the farms themselves. Called on startup to build the island index and
+     * the leaderboards.
+     *
+     * @return one header per stored farm
+     * @throws IOException if the data cannot be read
+     */
+    @NotNull Collection<FarmHeader> loadFarmHeaders() throws IOException;
+
+    /**
+     * Queue a read of a single farm on the backend's I/O thread. Reads are
+     * ordered after every write queued before them.
+     *
+     * @param owner the owner's UUID
+     * @return a future completed with the farm, or null if it is not stored
+     */
+    @NotNull CompletableFuture<FarmRecord> loadFarm(@NotNull UUID owner);
+
+    /**
+     * Queue a write of changed and deleted farms on the backend's I/O thread.
+     *
+     * @param changed farms to insert or update
+     * @param deleted owners whose farms should be removed
+     * @return a future completed with the time spent writing, in nanoseconds
+     */
+    @NotNull CompletableFuture<Long> writeFarms(@NotNull Collection<FarmRecord> changed, @NotNull Collection<UUID> deleted);
+}
@@ -0,0 +1,152 @@
+package com.rooster.ranch.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A memory-mapped file made of a fixed header followed by equally sized
+ * slots. Records are read and written in place through the mapped buffer, so
+ * updating a record costs the same no matter how large the file is. The
+ * header stores a magic number, a format version, the slot size and the
+ * current slot capacity; opening a file with a different magic, version or
+ * slot size fails instead of misreading it.
+ *
+ * Header layout (64 bytes, big-endian):
+ * <pre>
+ *  0  int   magic
+ *  4  short version
+ *  8  int   slot size in bytes
+ * 12  int   slot capacity
+ * </pre>
+ */
+class MappedSlotFile implements Closeable {
+    static final int HEADER_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SLOT_SIZE_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 12;
+
+    private final FileChannel channel;
+    private final int slotSize;
+    private volatile MappedByteBuffer buffer;
+    private int capacity;
+
+    private MappedSlotFile(FileChannel channel, int slotSize) {
+        this.channel = channel;
+        this.slotSize = slotSize;
+    }
+
+    /**
+     * Open or create a slot file.
+     *
+     * @param file            the file
+     * @param magic           magic number identifying the record type
+     * @param version         expected format version
+     * @param slotSize        size of a slot in bytes
+     * @param initialCapacity number of slots to allocate for a new file
+     * @return the opened file
+     * @throws IOException if the file cannot be mapped or has an incompatible header
+     */
+    static @NotNull MappedSlotFile open(@NotNull File file, int magic, short version, int slotSize,
+                                        int initialCapacity) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedSlotFile slots = new MappedSlotFile(channel, slotSize);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                slots.map(initialCapacity);
+                slots.buffer.putInt(MAGIC_OFFSET, magic);
+                slots.buffer.putShort(VERSION_OFFSET, version);
+                slots.buffer.putInt(SLOT_SIZE_OFFSET, slotSize);
+                slots.buffer.putInt(CAPACITY_OFFSET, initialCapacity);
+                return slots;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            if (header.getInt(MAGIC_OFFSET) != magic) {
+                throw new IOException(file.getName() + " is not a " + Integer.toHexString(magic) + " file");
+            }
+            if (header.getShort(VERSION_OFFSET) != version) {
+                throw new IOException(file.getName() + " has unsupported version " + header.getShort(VERSION_OFFSET));
+            }
+            if (header.getInt(SLOT_SIZE_OFFSET) != slotSize) {
+                throw new IOException(file.getName() + " has unexpected slot size " + header.getInt(SLOT_SIZE_OFFSET));
+            }
+            slots.map(header.getInt(CAPACITY_OFFSET));
+            return slots;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void map(int newCapacity) throws IOException {
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * slotSize);
+        this.capacity = newCapacity;
+    }
+
+    /**
+     * Grow the file so that it holds at least the given number of slots. New
+     * slots are zero-filled, which marks them as free.
+     */
+    void ensureCapacity(int minCapacity) throws IOException {
+        if (minCapacity <= capacity) return;
+        int newCapacity = Math.max(minCapacity, capacity * 2);
+        buffer.force();
+        map(newCapacity);
+        buffer.putInt(CAPACITY_OFFSET, newCapacity);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int slotSize() {
+        return slotSize;
+    }
+
+    /**
+     * @return byte offset of a slot within {@link #buffer()}
+     */
+    int offset(int slot) {
+        return HEADER_SIZE + slot * slotSize;
+    }
+
+    /**
+     * The mapped buffer. Only absolute get/put methods may be used on it, and
+     * the reference must not be kept across {@link #ensureCapacity} calls.
+     */
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Zero a slot, marking it free.
+     */
+    void clear(int slot) {
+        int offset = offset(slot);
+        for (int i = 0; i < slotSize; i += 8) {
+            buffer.putLong(offset + i, 0L);
+        }
+    }
+
+    /**
+     * Write modified pages back to disk.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
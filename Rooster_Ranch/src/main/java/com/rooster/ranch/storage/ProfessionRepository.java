@@ -0,0 +1,30 @@
+package com.rooster.ranch.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persists player professions by enum name.
+ */
+public interface ProfessionRepository {
+
+    /**
+     * Load every stored profession. Called once on startup.
+     *
+     * @return profession names keyed by player
+     * @throws IOException if the data cannot be read
+     */
+    @NotNull Map<UUID, String> loadProfessions() throws IOException;
+
+    /**
+     * Queue a write of changed professions on the backend's I/O thread.
+     *
+     * @param changed profession names keyed by player
+     * @return a future completed with the time spent writing, in nanoseconds
+     */
+    @NotNull CompletableFuture<Long> writeProfessions(@NotNull Map<UUID, String> changed);
+}
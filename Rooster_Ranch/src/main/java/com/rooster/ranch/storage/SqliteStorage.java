@@ -0,0 +1,302 @@
+package com.rooster.ranch.storage;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Embedded SQL storage backend using the SQLite JDBC driver bundled with the
+ * server. Data lives in a single {@code ranch.db} file. Each write runs on
+ * the I/O thread as one transaction of batched upserts through prepared
+ * statements, so saving a handful of changed rows does not rewrite anything
+ * else. Reads run on the I/O thread too, so the connection and its open
+ * transaction are only ever used by that thread.
+ */
+public class SqliteStorage extends StorageBackend {
+    public static final String DATABASE_FILE = "ranch.db";
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS farms (owner TEXT PRIMARY KEY, world TEXT NOT NULL, x REAL NOT NULL, "
+                    + "y REAL NOT NULL, z REAL NOT NULL, weeds INTEGER NOT NULL, upkeep REAL NOT NULL, "
+                    + "crop REAL NOT NULL, animal REAL NOT NULL, day INTEGER NOT NULL DEFAULT 0)",
+            "CREATE TABLE IF NOT EXISTS farm_trusted (owner TEXT NOT NULL, trusted TEXT NOT NULL, "
+                    + "PRIMARY KEY (owner, trusted))",
+            "CREATE TABLE IF NOT EXISTS balances (uuid TEXT PRIMARY KEY, balance REAL NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS professions (uuid TEXT PRIMARY KEY, profession TEXT NOT NULL)"
+    };
+    private static final String FARM_COLUMNS = "owner, world, x, y, z, weeds, upkeep, crop, animal, day";
+    private static final String UPSERT_FARM = "INSERT INTO farms (" + FARM_COLUMNS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (owner) DO UPDATE SET world = excluded.world, "
+            + "x = excluded.x, y = excluded.y, z = excluded.z, weeds = excluded.weeds, upkeep = excluded.upkeep, "
+            + "crop = excluded.crop, animal = excluded.animal, day = excluded.day";
+    private static final String SELECT_FARM = "SELECT " + FARM_COLUMNS + " FROM farms WHERE owner = ?";
+    private static final String SELECT_TRUSTED = "SELECT trusted FROM farm_trusted WHERE owner = ?";
+    private static final String DELETE_FARM = "DELETE FROM farms WHERE owner = ?";
+    private static final String DELETE_TRUSTED = "DELETE FROM farm_trusted WHERE owner = ?";
+    private static final String INSERT_TRUSTED = "INSERT INTO farm_trusted (owner, trusted) VALUES (?, ?)";
+    private static final String UPSERT_BALANCE = "INSERT INTO balances (uuid, balance) VALUES (?, ?) "
+            + "ON CONFLICT (uuid) DO UPDATE SET balance = excluded.balance";
+    private static final String UPSERT_PROFESSION = "INSERT INTO professions (uuid, profession) VALUES (?, ?) "
+            + "ON CONFLICT (uuid) DO UPDATE SET profession = excluded.profession";
+
+    private final boolean created;
+    private final Connection connection;
+
+    public SqliteStorage(@NotNull JavaPlugin plugin, @NotNull File folder) throws IOException {
+        super(plugin, folder);
+        File database = new File(folder, DATABASE_FILE);
+        this.created = !database.exists();
+        try {
+            this.connection = DriverManager.getConnection("jdbc:sqlite:" + database.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                // NORMAL may roll back the last commits on power loss, after the journal has dropped them
+                statement.execute("PRAGMA synchronous=FULL");
+                for (String sql : SCHEMA) {
+                    statement.execute(sql);
+                }
+                addColumnIfMissing(statement, "farms", "day", "INTEGER NOT NULL DEFAULT 0");
+            }
+            connection.setAutoCommit(false);
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IOException("Could not open " + database.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isNew() {
+        return created;
+    }
+
+    @Override
+    public @NotNull Collection<FarmRecord> loadFarms() throws IOException {
+        return await(() -> {
+            try (Statement statement = connection.createStatement()) {
+                Map<UUID, List<UUID>> trusted = new HashMap<>();
+                try (ResultSet rows = statement.executeQuery("SELECT owner, trusted FROM farm_trusted")) {
+                    while (rows.next()) {
+                        trusted.computeIfAbsent(UUID.fromString(rows.getString(1)), k -> new ArrayList<>())
+                                .add(UUID.fromString(rows.getString(2)));
+                    }
+                }
+                Map<UUID, FarmRecord> loaded = new LinkedHashMap<>();
+                try (ResultSet rows = statement.executeQuery("SELECT " + FARM_COLUMNS + " FROM farms")) {
+                    while (rows.next()) {
+                        UUID owner = UUID.fromString(rows.getString(1));
+                        loaded.put(owner, readFarm(rows, trusted.getOrDefault(owner, List.of())));
+                    }
+                }
+                connection.commit();
+                return loaded.values();
+            } catch (SQLException | IllegalArgumentException e) {
+                throw new IOException("Could not load farms: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @Override
+    public @NotNull Collection<FarmHeader> loadFarmHeaders() throws IOException {
+        return await(() -> {
+            List<FarmHeader> headers = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT owner, x, z, weeds, upkeep, crop, animal, day FROM farms")) {
+                while (rows.next()) {
+                    headers.add(new FarmHeader(UUID.fromString(rows.getString(1)), rows.getDouble(2), rows.getDouble(3),
+                            rows.getInt(4), rows.getDouble(5), rows.getDouble(6), rows.getDouble(7), rows.getInt(8)));
+                }
+                connection.commit();
+            } catch (SQLException | IllegalArgumentException e) {
+                throw new IOException("Could not load farms: " + e.getMessage(), e);
+            }
+            return headers;
+        });
+    }
+
+    @Override
+    public @NotNull CompletableFuture<FarmRecord> loadFarm(@NotNull UUID owner) {
+        return query(() -> {
+            try (PreparedStatement selectFarm = connection.prepareStatement(SELECT_FARM);
+                 PreparedStatement selectTrusted = connection.prepareStatement(SELECT_TRUSTED)) {
+                selectTrusted.setString(1, owner.toString());
+                List<UUID> trusted = new ArrayList<>();
+                try (ResultSet rows = selectTrusted.executeQuery()) {
+                    while (rows.next()) {
+                        trusted.add(UUID.fromString(rows.getString(1)));
+                    }
+                }
+                selectFarm.setString(1, owner.toString());
+                FarmRecord farm = null;
+                try (ResultSet rows = selectFarm.executeQuery()) {
+                    if (rows.next()) {
+                        farm = readFarm(rows, trusted);
+                    }
+                }
+                connection.commit();
+                return farm;
+            }
+        });
+    }
+
+    private static FarmRecord readFarm(ResultSet row, List<UUID> trusted) throws SQLException {
+        return new FarmRecord(UUID.fromString(row.getString(1)), row.getString(2), row.getDouble(3),
+                row.getDouble(4), row.getDouble(5), row.getInt(6), row.getDouble(7), row.getDouble(8),
+                row.getDouble(9), row.getInt(10), trusted);
+    }
+
+    /**
+     * Add a column to a table created by an older version of the schema.
+     */
+    private static void addColumnIfMissing(Statement statement, String table, String column, String definition)
+            throws SQLException {
+        try (ResultSet columns = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (columns.next()) {
+                if (column.equalsIgnoreCase(columns.getString("name"))) return;
+            }
+        }
+        statement.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Long> writeFarms(@NotNull Collection<FarmRecord> changed, @NotNull Collection<UUID> deleted) {
+        return submit(() -> inTransaction(() -> {
+            try (PreparedStatement upsert = connection.prepareStatement(UPSERT_FARM);
+                 PreparedStatement deleteFarm = connection.prepareStatement(DELETE_FARM);
+                 PreparedStatement deleteTrusted = connection.prepareStatement(DELETE_TRUSTED);
+                 PreparedStatement insertTrusted = connection.prepareStatement(INSERT_TRUSTED)) {
+                for (FarmRecord farm : changed) {
+                    String owner = farm.owner().toString();
+                    upsert.setString(1, owner);
+                    upsert.setString(2, farm.world());
+                    upsert.setDouble(3, farm.x());
+                    upsert.setDouble(4, farm.y());
+                    upsert.setDouble(5, farm.z());
+                    upsert.setInt(6, farm.weeds());
+                    upsert.setDouble(7, farm.upkeep());
+                    upsert.setDouble(8, farm.cropHealth());
+                    upsert.setDouble(9, farm.animalHealth());
+                    upsert.setInt(10, farm.day());
+                    upsert.addBatch();
+                    deleteTrusted.setString(1, owner);
+                    deleteTrusted.addBatch();
+                    for (UUID uuid : farm.trusted()) {
+                        insertTrusted.setString(1, owner);
+                        insertTrusted.setString(2, uuid.toString());
+                        insertTrusted.addBatch();
+                    }
+                }
+                for (UUID owner : deleted) {
+                    deleteFarm.setString(1, owner.toString());
+                    deleteFarm.addBatch();
+                    deleteTrusted.setString(1, owner.toString());
+                    deleteTrusted.addBatch();
+                }
+                // Clear old trusted rows before inserting the new ones
+                deleteTrusted.executeBatch();
+                upsert.executeBatch();
+                deleteFarm.executeBatch();
+                insertTrusted.executeBatch();
+            }
+        }));
+    }
+
+    @Override
+    public @NotNull Map<UUID, Double> loadBalances() throws IOException {
+        return await(() -> {
+            Map<UUID, Double> loaded = new HashMap<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT uuid, balance FROM balances")) {
+                while (rows.next()) {
+                    loaded.put(UUID.fromString(rows.getString(1)), rows.getDouble(2));
+                }
+                connection.commit();
+            } catch (SQLException | IllegalArgumentException e) {
+                throw new IOException("Could not load balances: " + e.getMessage(), e);
+            }
+            return loaded;
+        });
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Long> writeBalances(@NotNull Map<UUID, Double> changed) {
+        return submit(() -> inTransaction(() -> {
+            try (PreparedStatement upsert = connection.prepareStatement(UPSERT_BALANCE)) {
+                for (Map.Entry<UUID, Double> entry : changed.entrySet()) {
+                    upsert.setString(1, entry.getKey().toString());
+                    upsert.setDouble(2, entry.getValue());
+                    upsert.addBatch();
+                }
+                upsert.executeBatch();
+            }
+        }));
+    }
+
+    @Override
+    public @NotNull Map<UUID, String> loadProfessions() throws IOException {
+        return await(() -> {
+            Map<UUID, String> loaded = new HashMap<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT uuid, profession FROM professions")) {
+                while (rows.next()) {
+                    loaded.put(UUID.fromString(rows.getString(1)), rows.getString(2));
+                }
+                connection.commit();
+            } catch (SQLException | IllegalArgumentException e) {
+                throw new IOException("Could not load professions: " + e.getMessage(), e);
+            }
+            return loaded;
+        });
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Long> writeProfessions(@NotNull Map<UUID, String> changed) {
+        return submit(() -> inTransaction(() -> {
+            try (PreparedStatement upsert = connection.prepareStatement(UPSERT_PROFESSION)) {
+                for (Map.Entry<UUID, String> entry : changed.entrySet()) {
+                    upsert.setString(1, entry.getKey().toString());
+                    upsert.setString(2, entry.getValue());
+                    upsert.addBatch();
+                }
+                upsert.executeBatch();
+            }
+        }));
+    }
+
+    /**
+     * Run statements as one transaction, rolling back if any of them fails.
+     */
+    private void inTransaction(IoTask task) throws Exception {
+        try {
+            task.run();
+            connection.commit();
+        } catch (Exception e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void closeStores() throws IOException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
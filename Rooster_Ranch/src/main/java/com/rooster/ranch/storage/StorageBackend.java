@@ -0,0 +1,257 @@
+package com.rooster.ranch.storage;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A storage backend holding farms, balances and professions. Every backend
+ * writes on a single dedicated I/O thread so the main thread only takes
+ * snapshots, and writes are applied in the order they were queued.
+ *
+ * Global island data (island slots and the island pool) is kept in
+ * farms.yml for every backend.
+ *
+ * The backend is chosen with {@code storage.backend} in config.yml:
+ * {@code yaml} (the default), {@code binary} or {@code sqlite}.
+ */
+public abstract class StorageBackend implements FarmRepository, BalanceRepository, ProfessionRepository, Closeable {
+    protected final JavaPlugin plugin;
+    protected final File folder;
+    private final File islandDataFile;
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "RoosterRanch-Storage");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    protected StorageBackend(@NotNull JavaPlugin plugin, @NotNull File folder) {
+        this.plugin = plugin;
+        this.folder = folder;
+        this.islandDataFile = new File(folder, "farms.yml");
+    }
+
+    /**
+     * Open the backend selected in config.yml. If it cannot be opened the
+     * YAML backend is used instead.
+     *
+     * @param plugin the plugin
+     * @return the opened backend
+     */
+    public static @NotNull StorageBackend open(@NotNull JavaPlugin plugin) {
+        String type = backendName(plugin);
+        File folder = plugin.getDataFolder();
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        try {
+            return switch (type) {
+                case "binary" -> new BinaryStorage(plugin, folder);
+                case "sqlite" -> new SqliteStorage(plugin, folder);
+                default -> new YamlStorage(plugin, folder);
+            };
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to open " + type + " storage, falling back to YAML: " + e.getMessage());
+            return new YamlStorage(plugin, folder);
+        }
+    }
+
+    /**
+     * @return the configured backend name in lower case
+     */
+    public static @NotNull String backendName(@NotNull JavaPlugin plugin) {
+        return plugin.getConfig().getString("storage.backend", "yaml").toLowerCase();
+    }
+
+    /**
+     * @return true if this backend stores data in the plugin's YAML files
+     */
+    public boolean isYaml() {
+        return false;
+    }
+
+    /**
+     * @return true if the backend's files did not exist before it was opened,
+     *         meaning existing YAML data should be copied into it
+     */
+    public abstract boolean isNew();
+
+    /**
+     * @return true if loaded data is in an outdated layout and every farm and
+     *         the island data should be written again on the next save
+     */
+    public boolean needsFullSave() {
+        return false;
+    }
+
+    /**
+     * Load farms.yml, creating it if needed.
+     *
+     * @return the global island data
+     * @throws IOException if the file cannot be created
+     */
+    public @NotNull FileConfiguration loadIslandData() throws IOException {
+        if (!islandDataFile.exists()) {
+            islandDataFile.createNewFile();
+        }
+        return YamlConfiguration.loadConfiguration(islandDataFile);
+    }
+
+    /**
+     * Queue a rewrite of farms.yml on the I/O thread.
+     *
+     * @param contents the new YAML contents
+     * @return a future completed with the time spent writing, in nanoseconds
+     */
+    public @NotNull CompletableFuture<Long> writeIslandData(@NotNull String contents) {
+        return submit(() -> writeAtomically(islandDataFile, contents));
+    }
+
+    /**
+     * Run a write on the I/O thread and time it.
+     */
+    protected @NotNull CompletableFuture<Long> submit(@NotNull IoTask task) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+            return System.nanoTime() - start;
+        }, io);
+    }
+
+    /**
+     * Run a read on the I/O thread, after every write queued before it.
+     */
+    protected <T> @NotNull CompletableFuture<T> query(@NotNull IoQuery<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return query.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, io);
+    }
+
+    /**
+     * Run a read on the I/O thread and wait for it. Used by the loads made
+     * while the plugin starts, which return their result directly.
+     */
+    protected <T> T await(@NotNull IoQuery<T> query) throws IOException {
+        try {
+            return query(query).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Wait for queued writes to finish, stop the I/O thread and release the
+     * backend's files or connections.
+     */
+    @Override
+    public void close() {
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().severe("Timed out waiting for data to be written.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            closeStores();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to close storage: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Release files or connections after the I/O thread has stopped.
+     */
+    protected abstract void closeStores() throws IOException;
+
+    /**
+     * Write a file by writing a temporary file next to it and moving it over
+     * the old one, so a crash never leaves a half-written file behind. The
+     * temporary file and then the directory are forced to disk, so once this
+     * returns the new contents survive a power loss; the economy journal
+     * relies on that before it drops the records a snapshot covers.
+     */
+    protected static void writeAtomically(@NotNull File target, @NotNull String contents) throws IOException {
+        Path path = target.toPath();
+        Path temp = path.resolveSibling(target.getName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer data = StandardCharsets.UTF_8.encode(contents);
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory(path.getParent());
+    }
+
+    /**
+     * Force a directory's entries to disk so a file moved into it stays
+     * there after a crash. Some platforms cannot open directories; there
+     * this does nothing.
+     */
+    private static void forceDirectory(Path directory) {
+        if (directory == null) return;
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // Not supported on this platform
+        }
+    }
+
+    /**
+     * A unit of work for the I/O thread.
+     */
+    @FunctionalInterface
+    protected interface IoTask {
+        void run() throws Exception;
+    }
+
+    /**
+     * A read for the I/O thread.
+     */
+    @FunctionalInterface
+    protected interface IoQuery<T> {
+        T run() throws Exception;
+    }
+}
@@ -0,0 +1,109 @@
+package com.rooster.ranch.storage;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Copies plugin data between storage backends. {@link #migrateIfNeeded}
+ * runs once when a non-YAML backend is opened for the first time and fills
+ * it from the YAML files; {@link #export} writes a backend's data out as
+ * YAML into the {@code export} folder so it can be inspected.
+ *
+ * A migration marks itself as pending with a file in the data folder before
+ * it starts and removes the mark once everything is written. A migration
+ * cut short leaves the mark behind, so it is run again on the next start
+ * even though the backend's files now exist.
+ */
+public final class StorageMigrator {
+
+    private StorageMigrator() {
+    }
+
+    /**
+     * Copy farms, balances and professions from the YAML files into a newly
+     * created backend, or finish a migration that failed before. Must run
+     * before the managers load their data. The YAML files are left in place.
+     * Copying overwrites entries by owner, so repeating it is safe.
+     *
+     * @param plugin the plugin
+     * @param target the opened backend
+     * @return false if the migration failed and the plugin must not start
+     *         with the incomplete backend
+     */
+    public static boolean migrateIfNeeded(@NotNull JavaPlugin plugin, @NotNull StorageBackend target) {
+        if (target.isYaml()) return true;
+        String backend = StorageBackend.backendName(plugin);
+        File pending = new File(plugin.getDataFolder(), "migration-" + backend + ".pending");
+        boolean retry = pending.exists();
+        if (!target.isNew() && !retry) return true;
+        YamlStorage source = new YamlStorage(plugin, plugin.getDataFolder());
+        try {
+            if (!retry && !pending.createNewFile()) {
+                throw new IOException("Could not create " + pending.getName());
+            }
+            int[] counts = copy(source, target);
+            Files.delete(pending.toPath());
+            plugin.getLogger().info(String.format("Migrated %d farm(s), %d balance(s) and %d profession(s) to %s storage%s.",
+                    counts[0], counts[1], counts[2], backend, retry ? " after an earlier attempt failed" : ""));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().severe("Failed to migrate data from YAML storage: " + e.getMessage()
+                    + ". The migration is retried on the next start; until then the plugin stays disabled.");
+            return false;
+        } finally {
+            source.close();
+        }
+    }
+
+    /**
+     * Write a backend's farms, balances and professions as YAML into the
+     * {@code export} folder: one file per farm under {@code export/farms},
+     * plus {@code economy.yml} and {@code professions.yml}. The backend is
+     * read on its own I/O thread after every write queued before the call,
+     * so callers only have to queue their pending changes first.
+     *
+     * @return a future completed with the export folder
+     */
+    public static @NotNull CompletableFuture<File> export(@NotNull JavaPlugin plugin, @NotNull StorageBackend source) {
+        return source.query(() -> {
+            File exportDir = new File(plugin.getDataFolder(), "export");
+            if (!exportDir.exists() && !exportDir.mkdirs()) {
+                throw new IOException("Could not create " + exportDir.getPath());
+            }
+            YamlStorage target = new YamlStorage(plugin, exportDir);
+            try {
+                target.loadBalances();
+                target.loadProfessions();
+                copy(source, target);
+            } finally {
+                target.close();
+            }
+            return exportDir;
+        });
+    }
+
+    /**
+     * Copy everything from one backend to another and wait for it to be
+     * written.
+     *
+     * @return the number of farms, balances and professions copied
+     */
+    private static int[] copy(StorageBackend source, StorageBackend target) throws IOException {
+        Collection<FarmRecord> farms = source.loadFarms();
+        Map<UUID, Double> balances = source.loadBalances();
+        Map<UUID, String> professions = source.loadProfessions();
+        target.writeFarms(farms, List.of()).join();
+        target.writeBalances(balances).join();
+        target.writeProfessions(professions).join();
+        return new int[]{farms.size(), balances.size(), professions.size()};
+    }
+}
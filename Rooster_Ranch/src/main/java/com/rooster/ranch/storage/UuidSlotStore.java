@@ -0,0 +1,147 @@
+package com.rooster.ranch.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Base class for binary stores that keep one record per player UUID in a
+ * {@link MappedSlotFile}. Every slot starts with a type byte (zero meaning
+ * free) and record slots hold their key UUID at {@link #KEY_OFFSET}. The
+ * key-to-slot index and the free list are rebuilt by scanning the file once
+ * when it is opened, so lookups, inserts and removals are O(1) afterwards.
+ * Free slots are reused lowest first to keep the file compact.
+ */
+abstract class UuidSlotStore implements Closeable {
+    static final byte TYPE_FREE = 0;
+    static final byte TYPE_RECORD = 1;
+    static final int TYPE_OFFSET = 0;
+    static final int KEY_OFFSET = 8;
+    private static final int INITIAL_CAPACITY = 64;
+
+    protected final MappedSlotFile file;
+    private final Map<UUID, Integer> index = new HashMap<>();
+    private final TreeSet<Integer> free = new TreeSet<>();
+
+    UuidSlotStore(@NotNull File path, int magic, short version, int slotSize) throws IOException {
+        this.file = MappedSlotFile.open(path, magic, version, slotSize, INITIAL_CAPACITY);
+        ByteBuffer buffer = file.buffer();
+        for (int slot = 0; slot < file.capacity(); slot++) {
+            int offset = file.offset(slot);
+            byte type = buffer.get(offset + TYPE_OFFSET);
+            if (type == TYPE_FREE) {
+                free.add(slot);
+            } else if (type == TYPE_RECORD) {
+                index.put(readUuid(buffer, offset + KEY_OFFSET), slot);
+            }
+        }
+    }
+
+    /**
+     * @return the keys of all stored records
+     */
+    public @NotNull Set<UUID> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * @return the slot holding the key's record, or -1 if there is none
+     */
+    protected int find(@NotNull UUID key) {
+        Integer slot = index.get(key);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Get the slot for a key, claiming and initialising a free one if the key
+     * has no record yet. May grow and remap the file.
+     */
+    protected int slotFor(@NotNull UUID key) throws IOException {
+        Integer slot = index.get(key);
+        if (slot != null) return slot;
+        int claimed = allocate();
+        ByteBuffer buffer = file.buffer();
+        int offset = file.offset(claimed);
+        buffer.put(offset + TYPE_OFFSET, TYPE_RECORD);
+        writeUuid(buffer, offset + KEY_OFFSET, key);
+        index.put(key, claimed);
+        return claimed;
+    }
+
+    /**
+     * Claim a free slot without indexing it. May grow and remap the file.
+     */
+    protected int allocate() throws IOException {
+        if (free.isEmpty()) {
+            int oldCapacity = file.capacity();
+            file.ensureCapacity(oldCapacity + 1);
+            for (int slot = oldCapacity; slot < file.capacity(); slot++) {
+                free.add(slot);
+            }
+        }
+        return free.pollFirst();
+    }
+
+    /**
+     * Zero a slot and return it to the free list.
+     */
+    protected void release(int slot) {
+        file.clear(slot);
+        free.add(slot);
+    }
+
+    /**
+     * Remove the record for a key.
+     *
+     * @return true if a record was removed
+     */
+    public boolean remove(@NotNull UUID key) {
+        Integer slot = index.remove(key);
+        if (slot == null) return false;
+        releaseRecord(slot);
+        return true;
+    }
+
+    /**
+     * Free a record slot. Stores whose records span several slots override
+     * this to free the whole chain.
+     */
+    protected void releaseRecord(int slot) {
+        release(slot);
+    }
+
+    /**
+     * Write modified records back to disk. Safe to call from a background
+     * thread.
+     */
+    public void force() {
+        file.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    static @NotNull UUID readUuid(@NotNull ByteBuffer buffer, int offset) {
+        return new UUID(buffer.getLong(offset), buffer.getLong(offset + 8));
+    }
+
+    static void writeUuid(@NotNull ByteBuffer buffer, int offset, @NotNull UUID uuid) {
+        buffer.putLong(offset, uuid.getMostSignificantBits());
+        buffer.putLong(offset + 8, uuid.getLeastSignificantBits());
+    }
+}
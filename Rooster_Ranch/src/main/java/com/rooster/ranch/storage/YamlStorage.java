@@ -0,0 +1,241 @@
+package com.rooster.ranch.storage;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * YAML storage backend. Farms are stored as one small YAML file per farm
+ * inside the {@code farms} folder, so saving a farm only touches that farm's
+ * file. Balances and professions stay in economy.yml and professions.yml,
+ * which are rewritten whole when any entry changes.
+ *
+ * Older data folders keep every farm in a {@code farms} section of
+ * {@code farms.yml}; those farms are still read and are moved into their own
+ * files by the next save.
+ */
+public class YamlStorage extends StorageBackend {
+    private final File farmDir;
+    private final File economyFile;
+    private final File professionFile;
+    private boolean legacyFarms = false;
+    // Whole-file contents, only touched on the I/O thread once loaded
+    private YamlConfiguration economy = new YamlConfiguration();
+    private YamlConfiguration professions = new YamlConfiguration();
+
+    public YamlStorage(@NotNull JavaPlugin plugin, @NotNull File folder) {
+        super(plugin, folder);
+        this.farmDir = new File(folder, "farms");
+        this.economyFile = new File(folder, "economy.yml");
+        this.professionFile = new File(folder, "professions.yml");
+    }
+
+    @Override
+    public boolean isYaml() {
+        return true;
+    }
+
+    @Override
+    public boolean isNew() {
+        return false;
+    }
+
+    @Override
+    public boolean needsFullSave() {
+        return legacyFarms;
+    }
+
+    /**
+     * Load every farm: first the legacy {@code farms} section of farms.yml,
+     * then the per-farm files, which take precedence. Corrupt entries are
+     * skipped with a warning.
+     */
+    @Override
+    public @NotNull Collection<FarmRecord> loadFarms() throws IOException {
+        if (!farmDir.exists() && !farmDir.mkdirs()) {
+            throw new IOException("Could not create " + farmDir.getPath());
+        }
+        Map<UUID, FarmRecord> loaded = new LinkedHashMap<>();
+        FileConfiguration meta = loadIslandData();
+        ConfigurationSection legacy = meta.getConfigurationSection("farms");
+        legacyFarms = legacy != null;
+        if (legacy != null) {
+            for (String key : legacy.getKeys(false)) {
+                try {
+                    UUID owner = UUID.fromString(key);
+                    loaded.put(owner, readFarm(owner, legacy.getConfigurationSection(key)));
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Failed to load farm for key " + key + ": " + e.getMessage());
+                }
+            }
+        }
+        File[] files = farmDir.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files != null) {
+            for (File file : files) {
+                String key = file.getName().substring(0, file.getName().length() - 4);
+                try {
+                    UUID owner = UUID.fromString(key);
+                    loaded.put(owner, readFarm(owner, YamlConfiguration.loadConfiguration(file)));
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Failed to load farm for key " + key + ": " + e.getMessage());
+                }
+            }
+        }
+        return loaded.values();
+    }
+
+    @Override
+    public @NotNull Collection<FarmHeader> loadFarmHeaders() throws IOException {
+        List<FarmHeader> headers = new ArrayList<>();
+        for (FarmRecord farm : loadFarms()) {
+            headers.add(new FarmHeader(farm.owner(), farm.x(), farm.z(), farm.weeds(), farm.upkeep(),
+                    farm.cropHealth(), farm.animalHealth(), farm.day()));
+        }
+        return headers;
+    }
+
+    @Override
+    public @NotNull CompletableFuture<FarmRecord> loadFarm(@NotNull UUID owner) {
+        return query(() -> {
+            File file = farmFile(owner);
+            return file.exists() ? readFarm(owner, YamlConfiguration.loadConfiguration(file)) : null;
+        });
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Long> writeFarms(@NotNull Collection<FarmRecord> changed, @NotNull Collection<UUID> deleted) {
+        return submit(() -> {
+            if (!farmDir.exists() && !farmDir.mkdirs()) {
+                throw new IOException("Could not create " + farmDir.getPath());
+            }
+            for (FarmRecord farm : changed) {
+                YamlConfiguration config = new YamlConfiguration();
+                writeFarm(farm, config);
+                writeAtomically(farmFile(farm.owner()), config.saveToString());
+            }
+            for (UUID owner : deleted) {
+                Files.deleteIfExists(farmFile(owner).toPath());
+            }
+        });
+    }
+
+    @Override
+    public @NotNull Map<UUID, Double> loadBalances() throws IOException {
+        economy = loadWhole(economyFile);
+        Map<UUID, Double> balances = new HashMap<>();
+        for (String key : economy.getKeys(false)) {
+            try {
+                balances.put(UUID.fromString(key), economy.getDouble(key));
+            } catch (IllegalArgumentException ignored) {
+                // Skip invalid UUID entries
+            }
+        }
+        return balances;
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Long> writeBalances(@NotNull Map<UUID, Double> changed) {
+        return submit(() -> {
+            for (Map.Entry<UUID, Double> entry : changed.entrySet()) {
+                economy.set(entry.getKey().toString(), entry.getValue());
+            }
+            writeAtomically(economyFile, economy.saveToString());
+        });
+    }
+
+    @Override
+    public @NotNull Map<UUID, String> loadProfessions() throws IOException {
+        professions = loadWhole(professionFile);
+        Map<UUID, String> loaded = new HashMap<>();
+        for (String key : professions.getKeys(false)) {
+            String name = professions.getString(key);
+            try {
+                if (name != null) {
+                    loaded.put(UUID.fromString(key), name);
+                }
+            } catch (IllegalArgumentException ignored) {
+                // Skip invalid entries
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Long> writeProfessions(@NotNull Map<UUID, String> changed) {
+        return submit(() -> {
+            for (Map.Entry<UUID, String> entry : changed.entrySet()) {
+                professions.set(entry.getKey().toString(), entry.getValue());
+            }
+            writeAtomically(professionFile, professions.saveToString());
+        });
+    }
+
+    @Override
+    protected void closeStores() {
+        // Nothing is held open between writes
+    }
+
+    private static YamlConfiguration loadWhole(File file) throws IOException {
+        if (!file.exists()) {
+            file.createNewFile();
+        }
+        return YamlConfiguration.loadConfiguration(file);
+    }
+
+    private File farmFile(UUID owner) {
+        return new File(farmDir, owner + ".yml");
+    }
+
+    /**
+     * Read a farm from a configuration section holding the keys written by
+     * {@link #writeFarm}.
+     */
+    public static @NotNull FarmRecord readFarm(@NotNull UUID owner, @NotNull ConfigurationSection section) {
+        List<UUID> trusted = new ArrayList<>();
+        for (String s : section.getStringList("trusted")) {
+            try {
+                trusted.add(UUID.fromString(s));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        return new FarmRecord(owner, section.getString("world", FarmRecord.DEFAULT_WORLD),
+                section.getDouble("x"), section.getDouble("y"), section.getDouble("z"),
+                section.getInt("weed", 0), section.getDouble("upkeep", 100.0),
+                section.getDouble("crop", 100.0), section.getDouble("animal", 100.0),
+                section.getInt("day", 0), trusted);
+    }
+
+    /**
+     * Write a farm's fields into a configuration section.
+     */
+    public static void writeFarm(@NotNull FarmRecord farm, @NotNull ConfigurationSection section) {
+        section.set("world", farm.world());
+        section.set("x", farm.x());
+        section.set("y", farm.y());
+        section.set("z", farm.z());
+        section.set("weed", farm.weeds());
+        section.set("upkeep", farm.upkeep());
+        section.set("crop", farm.cropHealth());
+        section.set("animal", farm.animalHealth());
+        section.set("day", farm.day());
+        List<String> trustedList = new ArrayList<>();
+        for (UUID uid : farm.trusted()) {
+            trustedList.add(uid.toString());
+        }
+        section.set("trusted", trustedList);
+    }
+}
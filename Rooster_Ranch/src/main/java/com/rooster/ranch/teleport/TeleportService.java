@@ -0,0 +1,219 @@
+package com.rooster.ranch.teleport;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Teleports players without loading chunks on the main thread. The chunks
+ * around the destination are requested asynchronously and held with a plugin
+ * chunk ticket until the player arrives, then the player is moved with
+ * {@code teleportAsync}. A teleport is cancelled if the player moves to
+ * another block or logs out before it starts. The time from request to
+ * arrival is recorded for every teleport.
+ *
+ * Chunk loads complete on the thread of the region that owns them, so the
+ * pending requests and the statistics are safe to touch from any thread.
+ * Anything that touches the player or a chunk is handed to the thread that
+ * owns it: the teleport starts on the player's scheduler, and tickets are
+ * added and removed on the chunk's region.
+ */
+public class TeleportService implements Listener {
+    private final JavaPlugin plugin;
+    private final int preloadRadius;
+    // At most one teleport per player; a new request replaces the old one
+    private final Map<UUID, Request> pending = new ConcurrentHashMap<>();
+    private long completed = 0;
+    private long cancelled = 0;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+    private long lastNanos = 0;
+
+    public TeleportService(@NotNull JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.preloadRadius = Math.max(0, Math.min(4, plugin.getConfig().getInt("teleport.preload-radius", 1)));
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+    }
+
+    /**
+     * Teleport a player once the destination chunks are loaded. Must be
+     * called from the thread that owns the player.
+     *
+     * @param player      the player to move
+     * @param destination where to move them
+     * @return a future completed with true once the player has arrived, or
+     *         false if the teleport was cancelled or failed
+     */
+    public CompletableFuture<Boolean> teleport(@NotNull Player player, @NotNull Location destination) {
+        Request request = new Request(player.getUniqueId());
+        Request previous = pending.put(player.getUniqueId(), request);
+        if (previous != null) {
+            finish(previous, false);
+        }
+        World world = destination.getWorld();
+        int centerX = destination.getBlockX() >> 4;
+        int centerZ = destination.getBlockZ() >> 4;
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        for (int dx = -preloadRadius; dx <= preloadRadius; dx++) {
+            for (int dz = -preloadRadius; dz <= preloadRadius; dz++) {
+                loads.add(world.getChunkAtAsync(centerX + dx, centerZ + dz).thenAccept(chunk -> {
+                    // Chunks that arrive after a cancel are not held
+                    synchronized (request) {
+                        if (!request.done) {
+                            chunk.addPluginChunkTicket(plugin);
+                            request.tickets.add(chunk);
+                        }
+                    }
+                }));
+            }
+        }
+        CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            if (pending.get(request.owner) != request) return;
+            if (error != null) {
+                plugin.getLogger().warning("Failed to load chunks for teleport of " + player.getName() + ": " + error.getMessage());
+                finish(request, false);
+                return;
+            }
+            // Chunk loads complete on their region's thread; the player may live on another
+            if (player.getScheduler().run(plugin, task -> {
+                if (pending.get(request.owner) != request) return;
+                request.travelling = true;
+                player.teleportAsync(destination).whenComplete((success, teleportError) ->
+                        finish(request, teleportError == null && Boolean.TRUE.equals(success)));
+            }, () -> finish(request, false)) == null) {
+                finish(request, false);
+            }
+        });
+        return request.future;
+    }
+
+    /**
+     * Release the request's chunk tickets, record the outcome and complete
+     * its future. Does nothing if the request already finished. Safe to
+     * call from any thread; the tickets are removed on their chunks' region.
+     */
+    private void finish(@NotNull Request request, boolean success) {
+        List<Chunk> held;
+        synchronized (request) {
+            if (request.done) return;
+            request.done = true;
+            held = new ArrayList<>(request.tickets);
+            request.tickets.clear();
+        }
+        pending.remove(request.owner, request);
+        for (Chunk chunk : held) {
+            Bukkit.getRegionScheduler().execute(plugin, chunk.getWorld(), chunk.getX(), chunk.getZ(),
+                    () -> chunk.removePluginChunkTicket(plugin));
+        }
+        synchronized (this) {
+            if (success) {
+                long nanos = System.nanoTime() - request.start;
+                completed++;
+                totalNanos += nanos;
+                maxNanos = Math.max(maxNanos, nanos);
+                lastNanos = nanos;
+            } else {
+                cancelled++;
+            }
+        }
+        request.future.complete(success);
+    }
+
+    /**
+     * @return number of teleports that completed since startup
+     */
+    public synchronized long getCompletedCount() {
+        return completed;
+    }
+
+    /**
+     * @return number of teleports cancelled or failed since startup
+     */
+    public synchronized long getCancelledCount() {
+        return cancelled;
+    }
+
+    /**
+     * @return average time from request to arrival in milliseconds
+     */
+    public synchronized double getAverageMillis() {
+        return completed > 0 ? totalNanos / (double) completed / 1_000_000.0 : 0.0;
+    }
+
+    /**
+     * @return longest time from request to arrival in milliseconds
+     */
+    public synchronized double getMaxMillis() {
+        return maxNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return time from request to arrival of the latest teleport in milliseconds
+     */
+    public synchronized double getLastMillis() {
+        return lastNanos / 1_000_000.0;
+    }
+
+    /**
+     * Event listener: moving to another block before the teleport starts
+     * cancels it.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        if (pending.isEmpty()) return;
+        Request request = pending.get(event.getPlayer().getUniqueId());
+        if (request == null || request.travelling) return;
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY() && from.getBlockZ() == to.getBlockZ()) {
+            return;
+        }
+        finish(request, false);
+        event.getPlayer().sendMessage("§cTeleport cancelled because you moved.");
+    }
+
+    /**
+     * Event listener: drop the teleport of a player who logs out.
+     */
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        Request request = pending.get(event.getPlayer().getUniqueId());
+        if (request != null) {
+            finish(request, false);
+        }
+    }
+
+    /**
+     * A teleport waiting for its chunks or for the player to arrive.
+     */
+    private static final class Request {
+        private final UUID owner;
+        private final long start = System.nanoTime();
+        private final List<Chunk> tickets = new ArrayList<>();
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        // Set once teleportAsync has been called; moves no longer cancel
+        private volatile boolean travelling = false;
+        // Guarded by the request itself
+        private boolean done = false;
+
+        private Request(UUID owner) {
+            this.owner = owner;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.rooster.ranch.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Collects change notifications for keyed entities and delivers them in
+ * batches. Each change marks one or more field bits for an entity; marks made
+ * before the next {@link #flush()} are merged, so subscribers receive at most
+ * one entry per entity per flush, holding every field that changed since the
+ * previous one. Marking is thread-safe; subscribers run on the thread that
+ * calls {@link #flush()}.
+ *
+ * @param <K> entity key type
+ */
+public class ChangeTracker<K> {
+    private final Map<K, Integer> pending = new ConcurrentHashMap<>();
+    private final List<Consumer<Map<K, Integer>>> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Record that fields of an entity changed.
+     *
+     * @param key    the entity
+     * @param fields bit mask of the changed fields
+     */
+    public void mark(@NotNull K key, int fields) {
+        if (fields == 0) return;
+        pending.merge(key, fields, (a, b) -> a | b);
+    }
+
+    /**
+     * Register a subscriber. It receives an unmodifiable map from entity to
+     * changed field bits on every flush that has at least one change.
+     *
+     * @param subscriber the change consumer
+     */
+    public void subscribe(@NotNull Consumer<Map<K, Integer>> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Deliver all changes recorded since the previous flush to every
+     * subscriber. Changes marked while the flush is running are kept for the
+     * next one.
+     */
+    public void flush() {
+        if (pending.isEmpty()) return;
+        Map<K, Integer> changes = new HashMap<>();
+        for (K key : pending.keySet()) {
+            Integer fields = pending.remove(key);
+            if (fields != null) {
+                changes.put(key, fields);
+            }
+        }
+        if (changes.isEmpty()) return;
+        Map<K, Integer> view = Collections.unmodifiableMap(changes);
+        for (Consumer<Map<K, Integer>> subscriber : subscribers) {
+            subscriber.accept(view);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.rooster.ranch.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Spreads a once-per-day job over every tick of the day instead of running
+ * it for all entities at once. Each entity gets a stable phase offset within
+ * the day derived from its key, and is queued when the day clock passes its
+ * phase. Queued entities are handed to the runner until the per-tick time
+ * budget is used up; the rest stay in the backlog for the next tick, so an
+ * entity is never skipped when the server falls behind, only delayed.
+ *
+ * The runner decides how many days an entity is owed by comparing its own
+ * last day with {@link #dueDay(Object)}, so an entity that waits in the
+ * backlog across a day boundary simply catches up on both days.
+ *
+ * Entities can be added and removed from any thread; {@link #tick()} is
+ * called from a single thread and the runner is invoked outside of the
+ * scheduler's lock.
+ *
+ * @param <K> entity key type
+ */
+public class DayScheduler<K> {
+    private final int dayLength;
+    private final long budgetNanos;
+    private final Consumer<K> runner;
+    // Entities by phase offset; a slot is only created once an entity lands on it
+    private final Set<K>[] wheel;
+    // Entities whose phase has passed but that have not been run yet, oldest first
+    private final LinkedHashSet<K> backlog = new LinkedHashSet<>();
+    private long tick = 0;
+    private long ran = 0;
+    private int maxBacklog = 0;
+    private volatile long lastTickNanos = 0;
+
+    /**
+     * @param dayLength   ticks per day
+     * @param budgetNanos time the runner may use per tick; at least one
+     *                    entity is run every tick regardless
+     * @param runner      the daily job, given the key of a due entity
+     */
+    @SuppressWarnings("unchecked")
+    public DayScheduler(int dayLength, long budgetNanos, @NotNull Consumer<K> runner) {
+        this.dayLength = Math.max(1, dayLength);
+        this.budgetNanos = Math.max(0L, budgetNanos);
+        this.runner = runner;
+        this.wheel = new Set[this.dayLength];
+    }
+
+    /**
+     * @return the tick within the day at which the entity is due
+     */
+    public int phaseOf(@NotNull K key) {
+        // Spread the hash bits so keys with similar hashes land far apart
+        int h = key.hashCode() * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), dayLength);
+    }
+
+    /**
+     * Start scheduling an entity. Adding an entity that is already scheduled
+     * does nothing.
+     */
+    public synchronized void add(@NotNull K key) {
+        int phase = phaseOf(key);
+        Set<K> slot = wheel[phase];
+        if (slot == null) {
+            slot = new HashSet<>(2);
+            wheel[phase] = slot;
+        }
+        slot.add(key);
+    }
+
+    /**
+     * Stop scheduling an entity and drop it from the backlog.
+     */
+    public synchronized void remove(@NotNull K key) {
+        Set<K> slot = wheel[phaseOf(key)];
+        if (slot != null) {
+            slot.remove(key);
+        }
+        backlog.remove(key);
+    }
+
+    /**
+     * Advance the day clock by one tick, queue the entities whose phase it
+     * reached and run queued entities until the budget is used up.
+     */
+    public void tick() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            tick++;
+            Set<K> slot = wheel[(int) (tick % dayLength)];
+            if (slot != null) {
+                backlog.addAll(slot);
+            }
+            maxBacklog = Math.max(maxBacklog, backlog.size());
+        }
+        do {
+            K key;
+            synchronized (this) {
+                Iterator<K> next = backlog.iterator();
+                if (!next.hasNext()) break;
+                key = next.next();
+                next.remove();
+                ran++;
+            }
+            runner.accept(key);
+        } while (System.nanoTime() - start < budgetNanos);
+        lastTickNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * @return the latest day the entity is due for: the number of times the
+     *         day clock has passed its phase
+     */
+    public synchronized int dueDay(@NotNull K key) {
+        return (int) Math.floorDiv(tick - phaseOf(key), (long) dayLength);
+    }
+
+    /**
+     * @return number of whole days on the day clock
+     */
+    public synchronized int getDay() {
+        return (int) (tick / dayLength);
+    }
+
+    /**
+     * @return ticks since the day clock started
+     */
+    public synchronized long getTick() {
+        return tick;
+    }
+
+    /**
+     * Restore the day clock, for example from saved data.
+     */
+    public synchronized void setTick(long tick) {
+        this.tick = Math.max(0L, tick);
+    }
+
+    public int getDayLength() {
+        return dayLength;
+    }
+
+    /**
+     * @return number of entities waiting to be run
+     */
+    public synchronized int getBacklog() {
+        return backlog.size();
+    }
+
+    /**
+     * @return largest backlog seen since startup
+     */
+    public synchronized int getMaxBacklog() {
+        return maxBacklog;
+    }
+
+    /**
+     * @return number of entities run since startup
+     */
+    public synchronized long getRunCount() {
+        return ran;
+    }
+
+    /**
+     * @return time spent in the latest {@link #tick()} in nanoseconds
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+}
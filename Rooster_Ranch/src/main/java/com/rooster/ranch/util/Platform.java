@@ -0,0 +1,32 @@
+package com.rooster.ranch.util;
+
+/**
+ * Information about the server software the plugin runs on.
+ *
+ * All scheduling goes through Paper's region, global, entity and async
+ * schedulers, which behave like the classic scheduler on Paper and run work
+ * on the owning region thread on Folia. This class only covers the few
+ * features Folia does not offer at all.
+ */
+public final class Platform {
+    private static final boolean FOLIA = detectFolia();
+
+    private Platform() {
+    }
+
+    /**
+     * @return true if the server uses Folia's regionised threading
+     */
+    public static boolean isFolia() {
+        return FOLIA;
+    }
+
+    private static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}